@@ -0,0 +1,63 @@
+package name.remal.gradle_plugins.github_repository_info;
+
+import static java.nio.file.Files.createTempDirectory;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static name.remal.gradle_plugins.github_repository_info.FetchTracer.DISABLED;
+import static name.remal.gradle_plugins.github_repository_info.GitHubApiFixtures.CONTRIBUTORS;
+import static name.remal.gradle_plugins.github_repository_info.GitHubApiFixtures.loadFixtureBytes;
+import static name.remal.gradle_plugins.toolkit.PathUtils.deleteRecursively;
+import static org.openjdk.jmh.annotations.Mode.AverageTime;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(AverageTime)
+@OutputTimeUnit(MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FileCacheBenchmark {
+
+    static final Duration MAX_AGE = Duration.ofDays(1);
+
+    Path tempDir;
+
+    RevalidatingFileCache fileCache;
+
+    @Setup
+    public void setup() throws Throwable {
+        tempDir = createTempDirectory(FileCacheBenchmark.class.getSimpleName() + '-');
+        var entry = new FileCache(tempDir.resolve("contributors.json"));
+        entry.setContent(out -> out.write(loadFixtureBytes(CONTRIBUTORS)), null);
+        fileCache = new RevalidatingFileCache(
+            entry,
+            "https://api.github.com/repos/owner/repo/contributors",
+            DISABLED,
+            Runnable::run
+        );
+    }
+
+    @TearDown
+    public void tearDown() {
+        deleteRecursively(tempDir);
+    }
+
+    @Benchmark
+    public CachedContent hit() {
+        return fileCache.getOrFetchAsync(MAX_AGE, (validators, hasCachedContent) -> {
+            throw new AssertionError("Cache miss");
+        }).join().getContent();
+    }
+
+}
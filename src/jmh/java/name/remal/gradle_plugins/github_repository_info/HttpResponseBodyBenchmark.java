@@ -0,0 +1,144 @@
+package name.remal.gradle_plugins.github_repository_info;
+
+import static com.google.common.net.HttpHeaders.CONTENT_ENCODING;
+import static com.google.common.net.HttpHeaders.CONTENT_TYPE;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static name.remal.gradle_plugins.github_repository_info.GitHubApiFixtures.CONTRIBUTORS;
+import static name.remal.gradle_plugins.github_repository_info.GitHubApiFixtures.loadFixtureBytes;
+import static name.remal.gradle_plugins.github_repository_info.HttpClientUtils.getHttpResponseCharset;
+import static name.remal.gradle_plugins.github_repository_info.HttpClientUtils.openPlainHttpResponseBody;
+import static name.remal.gradle_plugins.github_repository_info.JsonUtils.readJsonBytes;
+import static org.openjdk.jmh.annotations.Mode.AverageTime;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient.Version;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
+import javax.net.ssl.SSLSession;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(AverageTime)
+@OutputTimeUnit(MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HttpResponseBodyBenchmark {
+
+    static final URI URL = URI.create("https://api.github.com/repos/owner/repo/contributors?per_page=100");
+
+    HttpResponse<InputStream> gzipResponse;
+
+    HttpResponse<InputStream> identityResponse;
+
+    @Setup
+    public void setup() throws Throwable {
+        var content = loadFixtureBytes(CONTRIBUTORS);
+
+        var gzipContent = new ByteArrayOutputStream();
+        try (var gzipOut = new GZIPOutputStream(gzipContent)) {
+            gzipOut.write(content);
+        }
+
+        gzipResponse = new FixtureHttpResponse(gzipContent.toByteArray(), HttpHeaders.of(
+            Map.of(
+                CONTENT_TYPE, List.of("application/json; charset=utf-8"),
+                CONTENT_ENCODING, List.of("gzip")
+            ),
+            (name, value) -> true
+        ));
+        identityResponse = new FixtureHttpResponse(content, HttpHeaders.of(
+            Map.of(
+                CONTENT_TYPE, List.of("application/json; charset=utf-8")
+            ),
+            (name, value) -> true
+        ));
+    }
+
+    @Benchmark
+    public byte[] gzip() throws Throwable {
+        return readResponseBody(gzipResponse);
+    }
+
+    @Benchmark
+    public byte[] identity() throws Throwable {
+        return readResponseBody(identityResponse);
+    }
+
+    private static byte[] readResponseBody(HttpResponse<InputStream> response) throws Throwable {
+        try (var in = openPlainHttpResponseBody(response)) {
+            return readJsonBytes(in, getHttpResponseCharset(response));
+        }
+    }
+
+
+    private static class FixtureHttpResponse implements HttpResponse<InputStream> {
+
+        private final byte[] body;
+
+        private final HttpHeaders headers;
+
+        FixtureHttpResponse(byte[] body, HttpHeaders headers) {
+            this.body = body;
+            this.headers = headers;
+        }
+
+        @Override
+        public int statusCode() {
+            return 200;
+        }
+
+        @Override
+        public HttpRequest request() {
+            return HttpRequest.newBuilder(URL).build();
+        }
+
+        @Override
+        public Optional<HttpResponse<InputStream>> previousResponse() {
+            return Optional.empty();
+        }
+
+        @Override
+        public HttpHeaders headers() {
+            return headers;
+        }
+
+        @Override
+        public InputStream body() {
+            return new ByteArrayInputStream(body);
+        }
+
+        @Override
+        public Optional<SSLSession> sslSession() {
+            return Optional.empty();
+        }
+
+        @Override
+        public URI uri() {
+            return URL;
+        }
+
+        @Override
+        public Version version() {
+            return Version.HTTP_2;
+        }
+
+    }
+
+}
@@ -0,0 +1,75 @@
+package name.remal.gradle_plugins.github_repository_info;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static name.remal.gradle_plugins.github_repository_info.GitHubApiFixtures.CONTRIBUTORS;
+import static name.remal.gradle_plugins.github_repository_info.GitHubApiFixtures.FULL_REPOSITORY;
+import static name.remal.gradle_plugins.github_repository_info.GitHubApiFixtures.loadFixture;
+import static name.remal.gradle_plugins.github_repository_info.GitHubApiFixtures.loadFixtureBytes;
+import static name.remal.gradle_plugins.github_repository_info.GitHubJsonDeserializer.deserializerGitHubRepositoryContributorsInfo;
+import static name.remal.gradle_plugins.github_repository_info.GitHubJsonDeserializer.deserializerGitHubRepositoryInfo;
+import static org.openjdk.jmh.annotations.Mode.AverageTime;
+
+import com.google.gson.reflect.TypeToken;
+import java.util.List;
+import name.remal.gradle_plugins.github_repository_info.info.GitHubContributor;
+import name.remal.gradle_plugins.github_repository_info.info.GitHubFullRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(AverageTime)
+@OutputTimeUnit(MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonDeserializationBenchmark {
+
+    String fullRepositoryJson;
+
+    String contributorsJson;
+
+    byte[] fullRepositoryJsonBytes;
+
+    byte[] contributorsJsonBytes;
+
+    @Setup
+    public void setup() {
+        fullRepositoryJson = loadFixture(FULL_REPOSITORY);
+        contributorsJson = loadFixture(CONTRIBUTORS);
+        fullRepositoryJsonBytes = loadFixtureBytes(FULL_REPOSITORY);
+        contributorsJsonBytes = loadFixtureBytes(CONTRIBUTORS);
+    }
+
+    @Benchmark
+    public GitHubFullRepository fullRepository() {
+        return deserializerGitHubRepositoryInfo(fullRepositoryJson);
+    }
+
+    @Benchmark
+    public List<GitHubContributor> contributors() {
+        return deserializerGitHubRepositoryContributorsInfo(contributorsJson);
+    }
+
+    @Benchmark
+    public String lazyFullRepositoryHtmlUrl() {
+        return LazyJsonObject.parseLazily(fullRepositoryJsonBytes, TypeToken.get(GitHubFullRepository.class))
+            .getHtmlUrl();
+    }
+
+    @Benchmark
+    public String lazyContributorsLastLogin() {
+        var contributors = LazyJsonObject.parseLazily(
+            contributorsJsonBytes,
+            new TypeToken<List<GitHubContributor>>() { }
+        );
+        return contributors.get(contributors.size() - 1).getLogin();
+    }
+
+}
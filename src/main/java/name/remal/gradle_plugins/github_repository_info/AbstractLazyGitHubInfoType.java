@@ -0,0 +1,100 @@
+package name.remal.gradle_plugins.github_repository_info;
+
+import static name.remal.gradle_plugins.github_repository_info.JsonUtils.GSON;
+
+import com.google.errorprone.annotations.ForOverride;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.io.ObjectStreamException;
+import name.remal.gradle_plugins.github_repository_info.info.GitHubInfoType;
+import org.jspecify.annotations.Nullable;
+
+abstract class AbstractLazyGitHubInfoType implements GitHubInfoType {
+
+    protected final LazyJsonObject json;
+
+    protected AbstractLazyGitHubInfoType(LazyJsonObject json) {
+        this.json = json;
+    }
+
+    @ForOverride
+    protected abstract Class<? extends GitHubInfoType> getInfoType();
+
+    @Nullable
+    private volatile GitHubInfoType eagerModel;
+
+    private GitHubInfoType getEagerModel() {
+        var model = eagerModel;
+        if (model == null) {
+            model = GSON.fromJson(json.toJson(), getInfoType());
+            eagerModel = model;
+        }
+        return model;
+    }
+
+    protected final Object writeReplace() throws ObjectStreamException {
+        return getEagerModel();
+    }
+
+    // Equal to any model of the same info type with equal properties, including eager models
+    @Override
+    public final boolean equals(@Nullable Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!getInfoType().isInstance(other)) {
+            return false;
+        }
+        if (other instanceof AbstractLazyGitHubInfoType) {
+            var otherLazy = (AbstractLazyGitHubInfoType) other;
+            return json.equals(otherLazy.json) || getEagerModel().equals(otherLazy.getEagerModel());
+        }
+        return getEagerModel().equals(other);
+    }
+
+    @Override
+    public final int hashCode() {
+        return getEagerModel().hashCode();
+    }
+
+    @Override
+    public final String toString() {
+        return getInfoType().getSimpleName() + json;
+    }
+
+
+    static final TypeAdapterFactory TYPE_ADAPTER_FACTORY = new TypeAdapterFactory() {
+        @Nullable
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+            if (!AbstractLazyGitHubInfoType.class.isAssignableFrom(type.getRawType())) {
+                return null;
+            }
+
+            return (TypeAdapter<T>) new TypeAdapter<AbstractLazyGitHubInfoType>() {
+                @Override
+                public void write(JsonWriter out, @Nullable AbstractLazyGitHubInfoType value) throws IOException {
+                    if (value == null) {
+                        out.nullValue();
+                    } else {
+                        out.jsonValue(value.json.toJson());
+                    }
+                }
+
+                @Override
+                public AbstractLazyGitHubInfoType read(JsonReader in) {
+                    throw new UnsupportedOperationException(
+                        "Lazy GitHub info types can't be deserialized directly, use LazyJsonObject.parseLazily()"
+                    );
+                }
+            };
+        }
+    };
+
+}
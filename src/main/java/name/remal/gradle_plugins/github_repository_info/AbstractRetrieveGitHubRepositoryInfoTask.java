@@ -29,6 +29,9 @@ abstract class AbstractRetrieveGitHubRepositoryInfoTask<InfoType>
     extends DefaultTask
     implements GitHubRepositoryInfoSettings {
 
+    @ForOverride
+    protected abstract String createEndpointName();
+
     @ForOverride
     protected abstract String createRelativeUrl();
 
@@ -57,8 +60,8 @@ abstract class AbstractRetrieveGitHubRepositoryInfoTask<InfoType>
     protected abstract Property<String> getRelativeUrl();
 
     {
-        getRelativeUrl().value(getProviders().provider(
-            this::createRelativeUrl
+        getRelativeUrl().value(getProviders().provider(() ->
+            resolveRelativeUrl(createEndpointName(), createRelativeUrl(), getInfoType())
         )).finalizeValueOnRead();
     }
 
@@ -94,6 +97,17 @@ abstract class AbstractRetrieveGitHubRepositoryInfoTask<InfoType>
     @Internal
     protected abstract Property<GitHubDataFetcher> getGitHubDataFetcher();
 
+    // Outputs are not stored in the build cache, as they would be restored regardless of their age
+    final void expireOutputAfterCacheMaxAge() {
+        getOutputs().upToDateWhen(__ -> {
+            var outputFile = getOutputJsonFile().get().getAsFile();
+            var ageMillis = System.currentTimeMillis() - outputFile.lastModified();
+            return outputFile.isFile()
+                && ageMillis <= resolveCacheMaxAge(createEndpointName()).toMillis();
+        });
+        getOutputs().doNotCacheIf("The output expires after the cache max age", __ -> true);
+    }
+
     @TaskAction
     public final void execute() throws Throwable {
         var outputPath = normalizePath(getOutputJsonFile().get().getAsFile().toPath());
@@ -104,6 +118,7 @@ abstract class AbstractRetrieveGitHubRepositoryInfoTask<InfoType>
             getRelativeUrl().get(),
             getGithubApiToken().getOrNull(),
             infoType,
+            resolveCacheMaxAge(createEndpointName()),
             getCancellationToken()
         );
 
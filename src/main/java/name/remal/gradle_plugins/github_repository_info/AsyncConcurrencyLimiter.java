@@ -0,0 +1,92 @@
+package name.remal.gradle_plugins.github_repository_info;
+
+import static java.util.concurrent.CompletableFuture.failedFuture;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+/**
+ * Unlike a fixed thread pool, no thread is blocked while a task waits for its result.
+ */
+class AsyncConcurrencyLimiter {
+
+    private final int maxConcurrency;
+
+    private final Executor queuedTasksExecutor;
+
+    private final Queue<Runnable> queuedTasks = new ArrayDeque<>();
+
+    private int runningTasks;
+
+    public AsyncConcurrencyLimiter(int maxConcurrency) {
+        this(maxConcurrency, ForkJoinPool.commonPool());
+    }
+
+    AsyncConcurrencyLimiter(int maxConcurrency, Executor queuedTasksExecutor) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency must be positive: " + maxConcurrency);
+        }
+
+        this.maxConcurrency = maxConcurrency;
+        this.queuedTasksExecutor = queuedTasksExecutor;
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<CompletableFuture<T>> task) {
+        var result = new CompletableFuture<T>();
+        Runnable start = () -> {
+            CompletableFuture<T> taskFuture;
+            try {
+                taskFuture = task.get();
+            } catch (Throwable exception) {
+                taskFuture = failedFuture(exception);
+            }
+
+            taskFuture.whenComplete((value, exception) -> {
+                release();
+                if (exception == null) {
+                    result.complete(value);
+                } else {
+                    result.completeExceptionally(exception);
+                }
+            });
+        };
+
+        synchronized (this) {
+            if (runningTasks >= maxConcurrency) {
+                queuedTasks.add(start);
+                return result;
+            }
+            runningTasks++;
+        }
+
+        start.run();
+        return result;
+    }
+
+    private void release() {
+        Runnable nextTask;
+        synchronized (this) {
+            nextTask = queuedTasks.poll();
+            if (nextTask == null) {
+                runningTasks--;
+                return;
+            }
+        }
+
+        // The completed task's thread may be an HTTP client thread, so the next task is started on another thread
+        queuedTasksExecutor.execute(nextTask);
+    }
+
+    public synchronized int getRunningTasks() {
+        return runningTasks;
+    }
+
+    public synchronized int getQueuedTasks() {
+        return queuedTasks.size();
+    }
+
+}
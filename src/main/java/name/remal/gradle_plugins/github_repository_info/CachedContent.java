@@ -0,0 +1,108 @@
+package name.remal.gradle_plugins.github_repository_info;
+
+import static java.lang.Math.min;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.unmodifiableList;
+import static java.util.Collections.unmodifiableMap;
+import static java.util.Objects.requireNonNull;
+import static lombok.AccessLevel.NONE;
+import static name.remal.gradle_plugins.github_repository_info.JsonUtils.GSON;
+import static name.remal.gradle_plugins.github_repository_info.RetainedSizeEstimator.estimateRetainedSizeBytes;
+
+import com.google.gson.reflect.TypeToken;
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.SneakyThrows;
+import lombok.ToString;
+import lombok.Value;
+
+@Value
+class CachedContent {
+
+    // UTF-8 encoded JSON
+    @ToString.Exclude
+    byte[] content;
+
+    long fetchedAtMillis;
+
+    @Getter(NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    ConcurrentMap<TypeToken<?>, Object> parsedContents = new ConcurrentHashMap<>();
+
+    @Getter(NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    ConcurrentMap<TypeToken<?>, Object> lazilyParsedContents = new ConcurrentHashMap<>();
+
+    @Getter(NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    AtomicLong parsedContentsSizeBytes = new AtomicLong();
+
+    public long getSizeBytes() {
+        return content.length;
+    }
+
+    // The result is shared between all callers, so collections are made unmodifiable
+    @SuppressWarnings("unchecked")
+    public <T> T getParsedContent(TypeToken<T> type, boolean lazy, FetchTracer tracer) {
+        lazy = lazy && LazyJsonObject.isLazilyParseable(type);
+        var contents = lazy ? lazilyParsedContents : parsedContents;
+        var parsedContent = contents.get(type);
+        if (parsedContent == null) {
+            // Parsing is done outside the map lock; a concurrent duplicate parse is harmless
+            var args = Map.<String, Object>of("type", type.toString(), "bytes", content.length, "lazy", lazy);
+            try (var parseSpan = tracer.startSpan("deserialize JSON", "parse", args)) {
+                parsedContent = lazy
+                    ? LazyJsonObject.parseLazily(content, type)
+                    : toUnmodifiable(deserialize(content, type));
+            }
+            var existingParsedContent = contents.putIfAbsent(type, parsedContent);
+            if (existingParsedContent != null) {
+                parsedContent = existingParsedContent;
+            } else {
+                // The content is shared by lazy models, so it's not counted twice
+                parsedContentsSizeBytes.addAndGet(estimateRetainedSizeBytes(parsedContent, content));
+            }
+        }
+        return (T) parsedContent;
+    }
+
+    @SneakyThrows
+    private static <T> T deserialize(byte[] content, TypeToken<T> type) {
+        var in = new ByteArrayInputStream(content);
+        try (var jsonReader = GSON.newJsonReader(new InputStreamReader(in, UTF_8))) {
+            T result = GSON.fromJson(jsonReader, type);
+            return requireNonNull(result);
+        }
+    }
+
+    private static Object toUnmodifiable(Object parsedContent) {
+        if (parsedContent instanceof List) {
+            return unmodifiableList((List<?>) parsedContent);
+        } else if (parsedContent instanceof Map) {
+            return unmodifiableMap((Map<?, ?>) parsedContent);
+        }
+        return parsedContent;
+    }
+
+    // Changes when new parsed content is stored, so the entry must be put into the cache again to be reweighed
+    public int getWeight() {
+        return (int) min(content.length + parsedContentsSizeBytes.get(), Integer.MAX_VALUE);
+    }
+
+    public boolean isExpired(Duration maxAge) {
+        var ageMillis = System.currentTimeMillis() - fetchedAtMillis;
+        return ageMillis > maxAge.toMillis();
+    }
+
+}
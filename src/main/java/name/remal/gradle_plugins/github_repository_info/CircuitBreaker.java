@@ -0,0 +1,119 @@
+package name.remal.gradle_plugins.github_repository_info;
+
+import static java.lang.String.format;
+
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
+import lombok.CustomLog;
+import lombok.Getter;
+
+/**
+ * Per host. After {@code openDuration}, a single probe request is allowed, that closes or reopens the circuit.
+ */
+@CustomLog
+class CircuitBreaker {
+
+    public static final int DEFAULT_FAILURE_THRESHOLD = 5;
+
+    public static final Duration DEFAULT_OPEN_DURATION = Duration.ofSeconds(30);
+
+
+    private final ConcurrentMap<String, CircuitState> states = new ConcurrentHashMap<>();
+
+    @Getter
+    private final int failureThreshold;
+
+    @Getter
+    private final Duration openDuration;
+
+    private final LongSupplier currentTimeMillis;
+
+    public CircuitBreaker(int failureThreshold, Duration openDuration) {
+        this(failureThreshold, openDuration, System::currentTimeMillis);
+    }
+
+    CircuitBreaker(int failureThreshold, Duration openDuration, LongSupplier currentTimeMillis) {
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+        this.currentTimeMillis = currentTimeMillis;
+    }
+
+
+    public void acquire(HttpRequest request) {
+        var host = getHost(request);
+        var state = states.get(host);
+        if (state == null) {
+            return;
+        }
+
+        synchronized (state) {
+            if (state.openUntilMillis == 0) {
+                return;
+            }
+
+            var now = currentTimeMillis.getAsLong();
+            if (now >= state.openUntilMillis) {
+                // Half-open: this request is the probe, others fail until its result is known,
+                // or until the next probe is allowed, if the result is never reported
+                state.openUntilMillis = now + openDuration.toMillis();
+                return;
+            }
+        }
+
+        throw new HttpRequestException.CircuitOpen(format(
+            "Requests to %s are not sent for %s after %d consecutive failures: %s %s",
+            host,
+            openDuration,
+            failureThreshold,
+            request.method(),
+            request.uri()
+        ));
+    }
+
+    public void onSuccess(HttpRequest request) {
+        var state = states.get(getHost(request));
+        if (state == null) {
+            return;
+        }
+
+        synchronized (state) {
+            state.consecutiveFailures = 0;
+            state.openUntilMillis = 0;
+        }
+    }
+
+    public void onFailure(HttpRequest request) {
+        var host = getHost(request);
+        var state = states.computeIfAbsent(host, __ -> new CircuitState());
+        synchronized (state) {
+            state.consecutiveFailures++;
+            var wasOpen = state.openUntilMillis != 0;
+            if (wasOpen || state.consecutiveFailures >= failureThreshold) {
+                state.openUntilMillis = currentTimeMillis.getAsLong() + openDuration.toMillis();
+                if (!wasOpen) {
+                    logger.warn(
+                        "{} consecutive requests to {} failed, further requests will fail immediately for {}",
+                        state.consecutiveFailures,
+                        host,
+                        openDuration
+                    );
+                }
+            }
+        }
+    }
+
+    private static String getHost(HttpRequest request) {
+        var uri = request.uri();
+        var authority = uri.getRawAuthority();
+        return authority != null ? authority : uri.toString();
+    }
+
+    private static class CircuitState {
+        int consecutiveFailures;
+        long openUntilMillis;
+    }
+
+}
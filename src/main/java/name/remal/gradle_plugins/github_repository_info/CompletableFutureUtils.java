@@ -0,0 +1,35 @@
+package name.remal.gradle_plugins.github_repository_info;
+
+import static lombok.AccessLevel.PRIVATE;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import lombok.NoArgsConstructor;
+import lombok.SneakyThrows;
+
+@NoArgsConstructor(access = PRIVATE)
+abstract class CompletableFutureUtils {
+
+    /**
+     * Like {@link CompletableFuture#join()}, but rethrows the original exception.
+     */
+    @SneakyThrows
+    public static <T> T joinUnwrapped(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException exception) {
+            throw unwrapCompletionException(exception);
+        }
+    }
+
+    public static Throwable unwrapCompletionException(Throwable exception) {
+        while ((exception instanceof CompletionException || exception instanceof ExecutionException)
+            && exception.getCause() != null
+        ) {
+            exception = exception.getCause();
+        }
+        return exception;
+    }
+
+}
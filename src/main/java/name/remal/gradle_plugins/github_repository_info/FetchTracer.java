@@ -0,0 +1,280 @@
+package name.remal.gradle_plugins.github_repository_info;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.Files.newBufferedWriter;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static name.remal.gradle_plugins.github_repository_info.JsonUtils.GSON;
+import static name.remal.gradle_plugins.toolkit.PathUtils.createParentDirectories;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse.ResponseInfo;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.Builder;
+import lombok.SneakyThrows;
+import lombok.Value;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Records spans in Chrome's Trace Event Format, that can be opened in {@code chrome://tracing} or Perfetto.
+ */
+class FetchTracer implements HttpRequestListener {
+
+    public static final FetchTracer DISABLED = new FetchTracer(false);
+
+    private final boolean enabled;
+
+    private final long startEpochMicros = MILLISECONDS.toMicros(System.currentTimeMillis());
+
+    private final long startNanos = System.nanoTime();
+
+    private final long pid = ProcessHandle.current().pid();
+
+    private final AtomicLong lastAsyncId = new AtomicLong();
+
+    private final Queue<TraceEvent> events = new ConcurrentLinkedQueue<>();
+
+    private final ConcurrentMap<Long, String> threadNames = new ConcurrentHashMap<>();
+
+    public FetchTracer() {
+        this(true);
+    }
+
+    private FetchTracer(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+
+    // Must be ended in the same thread
+    public Span startSpan(String name, String category, @Nullable Map<String, Object> args) {
+        if (!enabled) {
+            return NOOP_SPAN;
+        }
+
+        var spanStartNanos = System.nanoTime();
+        return () -> recordSpan(name, category, spanStartNanos, System.nanoTime(), args);
+    }
+
+    public Span startAsyncSpan(String name, String category, @Nullable Map<String, Object> args) {
+        if (!enabled) {
+            return NOOP_SPAN;
+        }
+
+        var spanStartNanos = System.nanoTime();
+        return () -> recordAsyncSpan(name, category, spanStartNanos, System.nanoTime(), args);
+    }
+
+    public void recordSpanEndedNow(
+        String name,
+        String category,
+        Duration duration,
+        @Nullable Map<String, Object> args
+    ) {
+        if (!enabled) {
+            return;
+        }
+
+        var endNanos = System.nanoTime();
+        recordSpan(name, category, endNanos - duration.toNanos(), endNanos, args);
+    }
+
+    private void recordSpan(
+        String name,
+        String category,
+        long spanStartNanos,
+        long spanEndNanos,
+        @Nullable Map<String, Object> args
+    ) {
+        events.add(TraceEvent.builder()
+            .name(name)
+            .cat(category)
+            .ph("X")
+            .ts(toEpochMicros(spanStartNanos))
+            .dur(NANOSECONDS.toMicros(spanEndNanos - spanStartNanos))
+            .pid(pid)
+            .tid(getCurrentThreadId())
+            .args(args)
+            .build()
+        );
+    }
+
+    private void recordAsyncSpan(
+        String name,
+        String category,
+        long spanStartNanos,
+        long spanEndNanos,
+        @Nullable Map<String, Object> args
+    ) {
+        var id = Long.toHexString(lastAsyncId.incrementAndGet());
+        var tid = getCurrentThreadId();
+        events.add(TraceEvent.builder()
+            .name(name)
+            .cat(category)
+            .ph("b")
+            .ts(toEpochMicros(spanStartNanos))
+            .pid(pid)
+            .tid(tid)
+            .id(id)
+            .args(args)
+            .build()
+        );
+        events.add(TraceEvent.builder()
+            .name(name)
+            .cat(category)
+            .ph("e")
+            .ts(toEpochMicros(spanEndNanos))
+            .pid(pid)
+            .tid(tid)
+            .id(id)
+            .build()
+        );
+    }
+
+    private long toEpochMicros(long nanos) {
+        return startEpochMicros + NANOSECONDS.toMicros(nanos - startNanos);
+    }
+
+    @SuppressWarnings("deprecation")
+    private long getCurrentThreadId() {
+        var thread = Thread.currentThread();
+        var tid = thread.getId();
+        threadNames.putIfAbsent(tid, thread.getName());
+        return tid;
+    }
+
+
+    @Override
+    public void onResponseReceived(HttpRequest request, ResponseInfo responseInfo, Duration latency) {
+        if (!enabled) {
+            return;
+        }
+
+        Map<String, Object> args = new LinkedHashMap<>();
+        args.put("url", request.uri().toString());
+        args.put("status", responseInfo.statusCode());
+        args.put("httpVersion", responseInfo.version().name());
+        var endNanos = System.nanoTime();
+        recordAsyncSpan(
+            "HTTP " + request.method(),
+            "http",
+            endNanos - latency.toNanos(),
+            endNanos,
+            args
+        );
+    }
+
+    @Override
+    public void onAttemptFailed(HttpRequest request, Throwable exception, Duration elapsed) {
+        if (!enabled) {
+            return;
+        }
+
+        Map<String, Object> args = new LinkedHashMap<>();
+        args.put("url", request.uri().toString());
+        args.put("error", exception.toString());
+        var endNanos = System.nanoTime();
+        recordAsyncSpan(
+            "HTTP " + request.method(),
+            "http",
+            endNanos - elapsed.toNanos(),
+            endNanos,
+            args
+        );
+    }
+
+    @Override
+    public void onRetryScheduled(HttpRequest request, int retry, Duration delay) {
+        if (!enabled) {
+            return;
+        }
+
+        Map<String, Object> args = new LinkedHashMap<>();
+        args.put("url", request.uri().toString());
+        args.put("retry", retry);
+        var backoffStartNanos = System.nanoTime();
+        recordAsyncSpan(
+            "retry backoff",
+            "retry",
+            backoffStartNanos,
+            backoffStartNanos + delay.toNanos(),
+            args
+        );
+    }
+
+
+    @SneakyThrows
+    public void writeTo(Path file) {
+        List<TraceEvent> traceEvents = new ArrayList<>();
+        threadNames.forEach((tid, threadName) ->
+            traceEvents.add(TraceEvent.builder()
+                .name("thread_name")
+                .ph("M")
+                .pid(pid)
+                .tid(tid)
+                .args(Map.of("name", threadName))
+                .build()
+            )
+        );
+        traceEvents.addAll(events);
+
+        createParentDirectories(file);
+        try (var writer = newBufferedWriter(file, UTF_8)) {
+            GSON.toJson(new TraceFile(traceEvents), writer);
+        }
+    }
+
+    List<TraceEvent> getEvents() {
+        return List.copyOf(events);
+    }
+
+
+    @FunctionalInterface
+    public interface Span extends AutoCloseable {
+
+        @Override
+        void close();
+
+    }
+
+    private static final Span NOOP_SPAN = () -> { };
+
+
+    @Value
+    @Builder
+    static class TraceEvent {
+        String name;
+        @Nullable
+        String cat;
+        String ph;
+        long ts;
+        @Nullable
+        Long dur;
+        long pid;
+        long tid;
+        @Nullable
+        String id;
+        @Nullable
+        Map<String, Object> args;
+    }
+
+    @Value
+    private static class TraceFile {
+        List<TraceEvent> traceEvents;
+        String displayTimeUnit = "ms";
+    }
+
+}
@@ -0,0 +1,20 @@
+package name.remal.gradle_plugins.github_repository_info;
+
+import lombok.Value;
+import name.remal.gradle_plugins.github_repository_info.FileCache.FileCacheMetadata;
+import org.jspecify.annotations.Nullable;
+
+@Value
+class FetchedContent {
+
+    /**
+     * {@code null} if a conditional request got a {@code 304} response.
+     */
+    @Nullable
+    byte[] content;
+
+    FileCacheMetadata metadata;
+
+    long fetchedAtMillis;
+
+}
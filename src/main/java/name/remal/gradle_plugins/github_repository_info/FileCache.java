@@ -1,89 +1,404 @@
 package name.remal.gradle_plugins.github_repository_info;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.nio.file.Files.createDirectories;
 import static java.nio.file.Files.createTempFile;
 import static java.nio.file.Files.deleteIfExists;
+import static java.nio.file.Files.getLastModifiedTime;
 import static java.nio.file.Files.move;
+import static java.nio.file.Files.newInputStream;
+import static java.nio.file.Files.newOutputStream;
 import static java.nio.file.Files.readAllBytes;
-import static java.nio.file.Files.write;
+import static java.nio.file.Files.size;
 import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
 import static java.nio.file.StandardOpenOption.CREATE;
 import static java.nio.file.StandardOpenOption.WRITE;
 import static java.util.Objects.requireNonNull;
+import static name.remal.gradle_plugins.github_repository_info.JsonUtils.GSON;
 import static name.remal.gradle_plugins.toolkit.PathUtils.normalizePath;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.gson.JsonParseException;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.channels.FileChannel;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import lombok.Builder;
+import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
+import lombok.Value;
+import name.remal.gradle_plugins.github_repository_info.JfrEvents.FileLockEvent;
+import org.jspecify.annotations.Nullable;
 
 class FileCache {
 
     private final Path file;
+    private final Path metadataFile;
     private final Path lockFile;
 
+    @Nullable
+    private final LockWaitListener lockWaitListener;
+
     public FileCache(Path file) {
+        this(file, null);
+    }
+
+    public FileCache(Path file, @Nullable LockWaitListener lockWaitListener) {
         file = normalizePath(file);
 
         this.file = file;
+        this.metadataFile = file.resolveSibling(file.getFileName() + ".metadata");
         this.lockFile = file.resolveSibling(file.getFileName() + ".lock");
+        this.lockWaitListener = lockWaitListener;
+    }
+
+
+    /**
+     * The content and the metadata are read under the lock, so they always belong together.
+     */
+    @Nullable
+    @SneakyThrows
+    public <T> FileCacheEntry<T> getEntry(ContentReader<T> reader) {
+        return withLock(() -> readEntry(reader));
     }
 
+    /**
+     * Other processes wait for the lock, so the action must do nothing but reading and writing the entry.
+     */
+    @Nullable
+    @SneakyThrows
+    public <T> T withLockedEntry(LockedEntryAction<T> action) {
+        return withLock(() -> action.execute(lockedEntry));
+    }
+
+    @Nullable
+    @SneakyThrows
+    public FileCacheMetadata getMetadata() {
+        final byte[] bytes;
+        try {
+            bytes = readAllBytes(metadataFile);
+        } catch (NoSuchFileException ignored) {
+            return null;
+        }
+
+        try {
+            return GSON.fromJson(new String(bytes, UTF_8), FileCacheMetadata.class);
+        } catch (JsonParseException ignored) {
+            return null;
+        }
+    }
 
+    /**
+     * Returns {@code 0} if there is no cached content.
+     */
     @SneakyThrows
-    public byte[] getOrCreateContent(CacheFileContentCreator creator) {
-        // 1. Fast Path: Try to read the file.
+    public long getFetchedAtMillis() {
+        var metadata = getMetadata();
+        if (metadata != null && metadata.getFetchedAtMillis() > 0) {
+            return metadata.getFetchedAtMillis();
+        }
+
         try {
-            return readAllBytes(file);
+            return getLastModifiedTime(file).toMillis();
         } catch (NoSuchFileException ignored) {
-            // File doesn't exist. Fall through to the creation logic.
+            return 0;
+        }
+    }
+
+    @SneakyThrows
+    public void setContent(ContentWriter writer, @Nullable FileCacheMetadata metadata) {
+        withLock(() -> {
+            writeContent(writer, metadata);
+            return null;
+        });
+    }
+
+    @SneakyThrows
+    public void setMetadata(FileCacheMetadata metadata) {
+        withLock(() -> {
+            writeMetadata(metadata);
+            return null;
+        });
+    }
+
+    /**
+     * The lock file is kept. If it was deleted, another process could lock a new file with the same path,
+     * while a process waiting for the deleted file would lock it too.
+     */
+    @SneakyThrows
+    public void delete() {
+        withLock(() -> {
+            deleteIfExists(metadataFile);
+            deleteIfExists(file);
+            return null;
+        });
+    }
+
+    @SneakyThrows
+    public long getSizeBytes() {
+        return getSizeBytesIfExists(file) + getSizeBytesIfExists(metadataFile);
+    }
+
+    private static long getSizeBytesIfExists(Path path) throws IOException {
+        try {
+            return size(path);
+        } catch (NoSuchFileException ignored) {
+            return 0;
+        }
+    }
+
+    @Nullable
+    private <T> FileCacheEntry<T> readEntry(ContentReader<T> reader) throws Throwable {
+        final InputStream in;
+        try {
+            in = newInputStream(file);
+        } catch (NoSuchFileException ignored) {
+            return null;
+        }
+
+        final T content;
+        try (in) {
+            content = reader.read(in);
+        }
+
+        var metadata = getMetadata();
+        var fetchedAtMillis = metadata != null && metadata.getFetchedAtMillis() > 0
+            ? metadata.getFetchedAtMillis()
+            : getLastModifiedTime(file).toMillis();
+        return new FileCacheEntry<>(content, metadata, fetchedAtMillis);
+    }
+
+    /**
+     * The current entry is kept if writing of the new content fails.
+     */
+    private void writeContent(ContentWriter writer, @Nullable FileCacheMetadata metadata) throws Throwable {
+        var tempFile = writeTempFile(file, writer);
+        try {
+            // Delete the metadata first, so the new content is never associated with the obsolete metadata
+            deleteIfExists(metadataFile);
+
+            move(tempFile, file, ATOMIC_MOVE);
+
+        } catch (Throwable exception) {
+            deleteIfExists(tempFile);
+            throw exception;
+        }
+
+        if (metadata != null) {
+            writeMetadata(metadata);
+        }
+    }
+
+    private void writeMetadata(FileCacheMetadata metadata) throws Throwable {
+        var tempFile = writeTempFile(metadataFile, out -> out.write(GSON.toJson(metadata).getBytes(UTF_8)));
+        try {
+            move(tempFile, metadataFile, ATOMIC_MOVE);
+        } catch (Throwable exception) {
+            deleteIfExists(tempFile);
+            throw exception;
+        }
+    }
+
+    /**
+     * Writes a temp file in the same directory, so it can be atomically moved into place.
+     */
+    private static Path writeTempFile(Path targetFile, ContentWriter writer) throws Throwable {
+        var dir = requireNonNull(targetFile.getParent());
+        var tempFile = createTempFile(dir, targetFile.getFileName() + "-", ".tmp");
+        try (var out = new BufferedOutputStream(newOutputStream(tempFile))) {
+            writer.write(out);
+        } catch (Throwable exception) {
+            deleteIfExists(tempFile);
+            throw exception;
+        }
+        return tempFile;
+    }
+
+    private final LockedEntry lockedEntry = new LockedEntry() {
+        @Nullable
+        @Override
+        @SneakyThrows
+        public <T> FileCacheEntry<T> read(ContentReader<T> reader) {
+            return readEntry(reader);
+        }
+
+        @Nullable
+        @Override
+        public FileCacheMetadata readMetadata() {
+            return getMetadata();
+        }
+
+        @Override
+        @SneakyThrows
+        public void writeContent(ContentWriter writer, @Nullable FileCacheMetadata metadata) {
+            FileCache.this.writeContent(writer, metadata);
         }
 
-        // 2. Slow Path: File doesn't exist. We must acquire a lock to create it.
+        @Override
+        @SneakyThrows
+        public void writeMetadata(FileCacheMetadata metadata) {
+            FileCache.this.writeMetadata(metadata);
+        }
+    };
+
+    @Nullable
+    private <T> T withLock(LockedAction<T> action) throws Throwable {
+        try (var lock = acquireLock()) {
+            return action.execute();
+        }
+    }
+
+    /**
+     * File locks are held on behalf of the whole JVM, so threads of the same JVM are excluded by these semaphores.
+     */
+    private static final LoadingCache<Path, Semaphore> IN_PROCESS_LOCKS = CacheBuilder.newBuilder()
+        .weakValues()
+        .build(CacheLoader.from(() -> new Semaphore(1)));
+
+    private AcquiredLock acquireLock() throws Throwable {
         var cacheDir = requireNonNull(file.getParent());
         createDirectories(cacheDir);
-        try (
+        var lockEvent = new FileLockEvent();
+        lockEvent.begin();
+        var lockStartNanos = System.nanoTime();
+        var inProcessLock = IN_PROCESS_LOCKS.getUnchecked(lockFile);
+        inProcessLock.acquire();
+        try {
             var lockChannel = FileChannel.open(lockFile, CREATE, WRITE);
-            var lock = lockChannel.lock()
-        ) {
-            if (!lock.isValid()) {
-                throw new IllegalStateException("Invalid lock on file: " + lockFile);
+            try {
+                var lock = lockChannel.lock();
+                if (!lock.isValid()) {
+                    throw new IllegalStateException("Invalid lock on file: " + lockFile);
+                }
+
+                lockEvent.end(lockFile);
+
+                if (lockWaitListener != null) {
+                    lockWaitListener.onLockAcquired(Duration.ofNanos(System.nanoTime() - lockStartNanos));
+                }
+
+                return new AcquiredLock(inProcessLock, lockChannel);
+
+            } catch (Throwable exception) {
+                lockChannel.close();
+                throw exception;
             }
 
-            // 3. Double-Check: Did another process create the file while we were waiting for the lock?
+        } catch (Throwable exception) {
+            inProcessLock.release();
+            throw exception;
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class AcquiredLock implements AutoCloseable {
+
+        private final Semaphore inProcessLock;
+
+        private final FileChannel lockChannel;
+
+        @Override
+        @SneakyThrows
+        public void close() {
             try {
-                return readAllBytes(file);
-            } catch (NoSuchFileException ignored) {
-                // File still doesn't exist. It is our job to create it.
+                // Closing the channel releases the file lock
+                lockChannel.close();
+            } finally {
+                inProcessLock.release();
             }
+        }
 
-            // 4. Compute, Write to Temp, and Atomic Move
-            var data = creator.execute();
-            Path tempFile = null;
-            try {
-                // Write to a temp file in the same directory
-                tempFile = createTempFile(cacheDir, file.getFileName() + "-", ".tmp");
-                write(tempFile, data);
+    }
 
-                // Atomically move the complete file into place
-                move(tempFile, file, ATOMIC_MOVE);
+    private interface LockedAction<T> {
+        @Nullable
+        T execute() throws Throwable;
+    }
 
-                // We can return the data we just computed
-                return data;
+    public interface LockedEntryAction<T> {
+        @Nullable
+        T execute(LockedEntry entry) throws Throwable;
+    }
 
-            } catch (IOException e) {
-                // Clean up the temp file if anything went wrong
-                if (tempFile != null) {
-                    deleteIfExists(tempFile);
-                }
-                throw new IOException("Failed to create cache file", e);
+    /**
+     * Access to the cache entry, that is valid only while the lock is held.
+     */
+    public interface LockedEntry {
+
+        @Nullable
+        <T> FileCacheEntry<T> read(ContentReader<T> reader);
+
+        @Nullable
+        FileCacheMetadata readMetadata();
+
+        void writeContent(ContentWriter writer, @Nullable FileCacheMetadata metadata);
+
+        void writeMetadata(FileCacheMetadata metadata);
+
+    }
+
+    public interface LockWaitListener {
+        void onLockAcquired(Duration waitDuration);
+    }
+
+
+    @FunctionalInterface
+    public interface ContentReader<T> {
+        T read(InputStream in) throws Throwable;
+    }
+
+    @FunctionalInterface
+    public interface ContentWriter {
+        void write(OutputStream out) throws Throwable;
+    }
+
+
+    @Value
+    public static class FileCacheEntry<T> {
+
+        T content;
+
+        @Nullable
+        FileCacheMetadata metadata;
+
+        long fetchedAtMillis;
+
+        /**
+         * An entry never expires if {@code maxAge} is {@code null}.
+         */
+        public boolean isExpired(@Nullable Duration maxAge) {
+            if (maxAge == null) {
+                return false;
             }
+
+            var ageMillis = System.currentTimeMillis() - fetchedAtMillis;
+            return ageMillis > maxAge.toMillis();
         }
+
     }
 
-    public interface CacheFileContentCreator {
-        byte[] execute() throws Throwable;
+    @Value
+    @Builder(toBuilder = true)
+    public static class FileCacheMetadata {
+
+        @Nullable
+        String etag;
+
+        @Nullable
+        String lastModified;
+
+        /**
+         * When the content was fetched or revalidated last time, {@code 0} if unknown.
+         */
+        long fetchedAtMillis;
+
     }
 
 }
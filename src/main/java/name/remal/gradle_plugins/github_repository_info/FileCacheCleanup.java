@@ -0,0 +1,140 @@
+package name.remal.gradle_plugins.github_repository_info;
+
+import static java.nio.file.Files.deleteIfExists;
+import static java.nio.file.Files.getLastModifiedTime;
+import static java.nio.file.Files.isDirectory;
+import static java.nio.file.Files.isRegularFile;
+import static java.nio.file.Files.newDirectoryStream;
+import static java.nio.file.Files.write;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Comparator.comparingLong;
+import static lombok.AccessLevel.PRIVATE;
+
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.NoArgsConstructor;
+import lombok.SneakyThrows;
+import lombok.Value;
+
+/**
+ * Entries are deleted under their {@link FileCache} lock, so concurrent builds never read partially deleted entries.
+ */
+@NoArgsConstructor(access = PRIVATE)
+abstract class FileCacheCleanup {
+
+    public static final long DEFAULT_MAX_SIZE_BYTES = 100L * 1024 * 1024;
+
+    public static final Duration DEFAULT_MAX_AGE = Duration.ofDays(30);
+
+    static final Duration CLEANUP_INTERVAL = Duration.ofDays(1);
+
+    static final String LAST_CLEANUP_MARKER_FILE_NAME = ".last-cleanup";
+
+    static final String CLEANUP_LOCK_FILE_NAME = ".cleanup.lock";
+
+    private static final String CONTENT_FILE_SUFFIX = ".json";
+
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+
+    /**
+     * The marker is checked and touched under a lock. If the lock is held by another build, the cleanup is skipped.
+     *
+     * @return the number of deleted entries, or {@code -1} if the cleanup wasn't due
+     */
+    @SneakyThrows
+    public static int cleanupIfDue(Path cacheDir, long maxSizeBytes, Duration maxAge) {
+        if (!isDirectory(cacheDir)) {
+            return -1;
+        }
+
+        var lockFile = cacheDir.resolve(CLEANUP_LOCK_FILE_NAME);
+        try (var lockChannel = FileChannel.open(lockFile, CREATE, WRITE)) {
+            final FileLock lock;
+            try {
+                lock = lockChannel.tryLock();
+            } catch (OverlappingFileLockException ignored) {
+                // locked by another thread of this JVM
+                return -1;
+            }
+            if (lock == null) {
+                return -1;
+            }
+
+            var markerFile = cacheDir.resolve(LAST_CLEANUP_MARKER_FILE_NAME);
+            try {
+                var lastCleanupMillis = getLastModifiedTime(markerFile).toMillis();
+                if (System.currentTimeMillis() - lastCleanupMillis < CLEANUP_INTERVAL.toMillis()) {
+                    return -1;
+                }
+            } catch (NoSuchFileException ignored) {
+                // never cleaned up
+            }
+
+            write(markerFile, new byte[0]);
+
+            // Closing the channel releases the lock
+            return cleanup(cacheDir, maxSizeBytes, maxAge);
+        }
+    }
+
+    @SneakyThrows
+    public static int cleanup(Path cacheDir, long maxSizeBytes, Duration maxAge) {
+        var nowMillis = System.currentTimeMillis();
+        List<Entry> entries = new ArrayList<>();
+        try (var paths = newDirectoryStream(cacheDir)) {
+            for (var path : paths) {
+                var fileName = path.getFileName().toString();
+                if (fileName.endsWith(CONTENT_FILE_SUFFIX) && isRegularFile(path)) {
+                    var fileCache = new FileCache(path);
+                    entries.add(new Entry(fileCache, fileCache.getFetchedAtMillis(), fileCache.getSizeBytes()));
+
+                } else if (fileName.endsWith(TEMP_FILE_SUFFIX)) {
+                    deleteStaleTempFile(path, nowMillis);
+                }
+            }
+        }
+
+        entries.sort(comparingLong(Entry::getFetchedAtMillis));
+
+        int deletedEntries = 0;
+        long totalSizeBytes = entries.stream().mapToLong(Entry::getSizeBytes).sum();
+        for (var entry : entries) {
+            var isExpired = nowMillis - entry.getFetchedAtMillis() > maxAge.toMillis();
+            if (!isExpired && totalSizeBytes <= maxSizeBytes) {
+                break;
+            }
+
+            entry.getFileCache().delete();
+            totalSizeBytes -= entry.getSizeBytes();
+            deletedEntries++;
+        }
+        return deletedEntries;
+    }
+
+    private static void deleteStaleTempFile(Path path, long nowMillis) throws Throwable {
+        // Temp files of interrupted writes. Recent ones may be being written right now.
+        try {
+            if (nowMillis - getLastModifiedTime(path).toMillis() > CLEANUP_INTERVAL.toMillis()) {
+                deleteIfExists(path);
+            }
+        } catch (NoSuchFileException ignored) {
+            // already moved or deleted
+        }
+    }
+
+    @Value
+    private static class Entry {
+        FileCache fileCache;
+        long fetchedAtMillis;
+        long sizeBytes;
+    }
+
+}
@@ -0,0 +1,91 @@
+package name.remal.gradle_plugins.github_repository_info;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static name.remal.gradle_plugins.toolkit.PathUtils.normalizePath;
+import static org.apache.commons.codec.digest.DigestUtils.sha512Hex;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.nio.file.Path;
+import java.util.function.Supplier;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import org.gradle.api.file.Directory;
+import org.gradle.api.provider.Provider;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * The shared directory, if set. Otherwise, a directory in the build directory of the first registered project.
+ */
+@RequiredArgsConstructor
+class FileCacheDirectory {
+
+    @Nullable
+    private final Path sharedDirectory;
+
+    private final Supplier<Provider<Directory>> firstProjectBuildDirectory;
+
+    @Nullable
+    private volatile ResolvedDirectory resolvedDirectory;
+
+    public boolean isShared() {
+        return sharedDirectory != null;
+    }
+
+    @Nullable
+    public Path getSharedDirectory() {
+        return sharedDirectory;
+    }
+
+    // Resolved again only if a project with a smaller path is registered
+    @Nullable
+    public Path getDirectory() {
+        if (sharedDirectory != null) {
+            return sharedDirectory;
+        }
+
+        var buildDirectory = firstProjectBuildDirectory.get();
+        var resolved = resolvedDirectory;
+        if (resolved != null && resolved.getBuildDirectory() == buildDirectory) {
+            return resolved.getDirectory();
+        }
+
+        var directory = buildDirectory.isPresent()
+            ? normalizePath(
+                buildDirectory.get()
+                    .dir("tmp/.cache/name.remal.github-repository-info")
+                    .getAsFile()
+                    .toPath()
+            )
+            : null;
+        resolvedDirectory = new ResolvedDirectory(buildDirectory, directory);
+        return directory;
+    }
+
+    @Nullable
+    public Path getFile(String fullUrl) {
+        var directory = getDirectory();
+        if (directory == null) {
+            return null;
+        }
+
+        var fileName = FILE_NAMES.asMap().computeIfAbsent(
+            fullUrl,
+            url -> sha512Hex(url.getBytes(UTF_8)) + ".json"
+        );
+        return directory.resolve(fileName);
+    }
+
+    private static final Cache<String, String> FILE_NAMES = CacheBuilder.newBuilder()
+        .maximumSize(10_000)
+        .build();
+
+
+    @Value
+    private static class ResolvedDirectory {
+        Provider<Directory> buildDirectory;
+        @Nullable
+        Path directory;
+    }
+
+}
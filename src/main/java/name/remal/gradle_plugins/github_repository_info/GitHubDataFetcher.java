@@ -4,84 +4,261 @@ import static com.google.common.net.HttpHeaders.ACCEPT;
 import static com.google.common.net.HttpHeaders.ACCEPT_ENCODING;
 import static com.google.common.net.HttpHeaders.ACCEPT_LANGUAGE;
 import static com.google.common.net.HttpHeaders.AUTHORIZATION;
+import static com.google.common.net.HttpHeaders.CONTENT_ENCODING;
+import static com.google.common.net.HttpHeaders.ETAG;
+import static com.google.common.net.HttpHeaders.IF_MODIFIED_SINCE;
+import static com.google.common.net.HttpHeaders.IF_NONE_MATCH;
+import static com.google.common.net.HttpHeaders.LAST_MODIFIED;
+import static java.lang.String.format;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.CompletableFuture.allOf;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.concurrent.CompletableFuture.failedFuture;
+import static java.util.concurrent.CompletableFuture.runAsync;
+import static java.util.concurrent.CompletableFuture.supplyAsync;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static lombok.AccessLevel.PRIVATE;
 import static lombok.AccessLevel.PUBLIC;
-import static name.remal.gradle_plugins.github_repository_info.GitHubRestApiHttpClientUtils.sendGitHubRestApiHttpRequest;
+import static name.remal.gradle_plugins.github_repository_info.CompletableFutureUtils.joinUnwrapped;
+import static name.remal.gradle_plugins.github_repository_info.CompletableFutureUtils.unwrapCompletionException;
+import static name.remal.gradle_plugins.github_repository_info.GitHubGraphQlUtils.createRepositoryQueryRequest;
+import static name.remal.gradle_plugins.github_repository_info.GitHubRestApiHttpClientUtils.sendGitHubGraphQlStreamingHttpRequestAsync;
+import static name.remal.gradle_plugins.github_repository_info.GitHubRestApiHttpClientUtils.sendGitHubRestApiStreamingHttpRequestAsync;
+import static name.remal.gradle_plugins.github_repository_info.GitHubRestApiPaginationUtils.getLastPageNumber;
+import static name.remal.gradle_plugins.github_repository_info.GitHubRestApiPaginationUtils.withPageNumber;
 import static name.remal.gradle_plugins.github_repository_info.HttpClientUtils.getHttpResponseCharset;
-import static name.remal.gradle_plugins.github_repository_info.HttpClientUtils.getPlainHttpResponseBody;
-import static name.remal.gradle_plugins.github_repository_info.JsonUtils.GSON;
+import static name.remal.gradle_plugins.github_repository_info.HttpClientUtils.openPlainHttpResponseBody;
+import static name.remal.gradle_plugins.github_repository_info.HttpRequestException.isTransientFailure;
+import static name.remal.gradle_plugins.github_repository_info.JfrEvents.FILE_CACHE_LAYER;
+import static name.remal.gradle_plugins.github_repository_info.JfrEvents.IN_MEMORY_CACHE_LAYER;
+import static name.remal.gradle_plugins.github_repository_info.JfrEvents.NETWORK_CACHE_LAYER;
+import static name.remal.gradle_plugins.github_repository_info.JsonFieldProjection.removeProjection;
+import static name.remal.gradle_plugins.github_repository_info.JsonUtils.concatJsonArrays;
+import static name.remal.gradle_plugins.github_repository_info.JsonUtils.parseJson;
+import static name.remal.gradle_plugins.github_repository_info.JsonUtils.readJsonBytes;
+import static name.remal.gradle_plugins.github_repository_info.JsonUtils.toJsonBytes;
 import static name.remal.gradle_plugins.toolkit.ConfigurationCacheSafeSystem.getConfigurationCacheSafeBooleanEnv;
 import static name.remal.gradle_plugins.toolkit.InTestFlags.isInTest;
 import static name.remal.gradle_plugins.toolkit.PathUtils.normalizePath;
-import static org.apache.commons.codec.digest.DigestUtils.sha512Hex;
 
+import com.google.common.cache.CacheStats;
+import com.google.common.io.CountingInputStream;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.gson.JsonElement;
 import com.google.gson.reflect.TypeToken;
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpClient.Version;
 import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.nio.file.Path;
-import java.util.TreeMap;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
 import javax.inject.Inject;
+import lombok.CustomLog;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.SneakyThrows;
+import lombok.Value;
+import name.remal.gradle_plugins.github_repository_info.FileCache.FileCacheMetadata;
 import name.remal.gradle_plugins.github_repository_info.GitHubDataFetcher.GitHubDataFetcherParams;
+import name.remal.gradle_plugins.github_repository_info.GitHubGraphQlUtils.RepositoryQueryResult;
+import name.remal.gradle_plugins.github_repository_info.JfrEvents.CacheLookupEvent;
+import name.remal.gradle_plugins.github_repository_info.RevalidatingFileCache.Source;
+import org.gradle.api.BuildCancelledException;
 import org.gradle.api.Project;
+import org.gradle.api.file.Directory;
 import org.gradle.api.file.DirectoryProperty;
-import org.gradle.api.provider.MapProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.Provider;
 import org.gradle.api.services.BuildService;
 import org.gradle.api.services.BuildServiceParameters;
 import org.gradle.initialization.BuildCancellationToken;
 import org.jspecify.annotations.Nullable;
 
 @NoArgsConstructor(access = PUBLIC, onConstructor_ = {@Inject})
-abstract class GitHubDataFetcher implements BuildService<GitHubDataFetcherParams> {
+@CustomLog
+abstract class GitHubDataFetcher implements BuildService<GitHubDataFetcherParams>, AutoCloseable {
 
     protected interface GitHubDataFetcherParams extends BuildServiceParameters {
-        MapProperty<String, DirectoryProperty> getProjectPathToBuildDirectory();
+        DirectoryProperty getFirstProjectBuildDirectory();
+
+        Property<Duration> getConnectTimeout();
+
+        Property<Version> getHttpVersion();
+
+        Property<Integer> getHttpThreads();
+
+        DirectoryProperty getSharedCacheDirectory();
+
+        Property<Long> getSharedCacheMaxSizeBytes();
+
+        Property<Duration> getSharedCacheMaxAge();
+
+        Property<Integer> getMaxRetries();
+
+        Property<Duration> getInitialRetryBackoff();
+
+        Property<Duration> getMaxRetryBackoff();
+
+        Property<Integer> getCircuitBreakerFailureThreshold();
+
+        Property<Duration> getCircuitBreakerOpenDuration();
+
+        Property<Boolean> getHedgedRequests();
+
+        Property<Boolean> getTrace();
+
+        Property<Boolean> getOffline();
+
+        Property<Boolean> getLazyModels();
     }
 
-    public synchronized void registerProject(Project project) {
-        getParameters().getProjectPathToBuildDirectory().put(
-            project.getPath(),
-            project.getLayout().getBuildDirectory()
-        );
+    private final AtomicReference<RegisteredProject> firstRegisteredProject = new AtomicReference<>();
+
+    // Lock-free, unless the project path is smaller than the paths of all the projects registered before
+    public void registerProject(Project project) {
+        var registeredProject = new RegisteredProject(project.getPath(), project.getLayout().getBuildDirectory());
+        while (true) {
+            var currentFirstProject = firstRegisteredProject.get();
+            if (currentFirstProject != null
+                && currentFirstProject.getPath().compareTo(registeredProject.getPath()) <= 0
+            ) {
+                return;
+            }
+            if (firstRegisteredProject.compareAndSet(currentFirstProject, registeredProject)) {
+                break;
+            }
+        }
+
+        synchronized (this) {
+            // Another project with a smaller path could be registered concurrently, so the current value is used
+            var firstProject = requireNonNull(firstRegisteredProject.get());
+            getParameters().getFirstProjectBuildDirectory().set(firstProject.getBuildDirectory());
+        }
     }
 
-    @Nullable
-    private synchronized Path getCacheDirectory() {
-        var projectPathToBuildDirectory = new TreeMap<>(getParameters().getProjectPathToBuildDirectory().get());
-        if (projectPathToBuildDirectory.isEmpty()) {
-            return null;
+    @Value
+    private static class RegisteredProject {
+        String path;
+        Provider<Directory> buildDirectory;
+    }
+
+    @Getter(value = PRIVATE, lazy = true)
+    private final HttpClient httpClient = createHttpClient();
+
+    private HttpClient createHttpClient() {
+        var settings = HttpClientSettings.builder();
+        var connectTimeout = getParameters().getConnectTimeout().getOrNull();
+        if (connectTimeout != null) {
+            settings.connectTimeout(connectTimeout);
         }
+        settings.version(getParameters().getHttpVersion().getOrNull());
+        settings.threads(getParameters().getHttpThreads().getOrNull());
+        return HttpClientUtils.getHttpClient(settings.build());
+    }
 
-        var projectPath = projectPathToBuildDirectory.firstKey();
-        var buildDirectory = requireNonNull(projectPathToBuildDirectory.get(projectPath));
+    // Not static, so the circuit state isn't carried over to the next build
+    @Getter(value = PRIVATE, lazy = true)
+    private final RetryPolicy retryPolicy = createRetryPolicy();
 
-        return normalizePath(
-            buildDirectory
-                .dir("tmp/.cache/name.remal.github-repository-info")
-                .get()
-                .getAsFile()
-                .toPath()
-        );
+    private RetryPolicy createRetryPolicy() {
+        var params = getParameters();
+        var retryPolicy = RetryPolicy.builder();
+        var maxRetries = params.getMaxRetries().getOrNull();
+        if (maxRetries != null) {
+            retryPolicy.maxRetries(maxRetries);
+        }
+        var initialBackoff = params.getInitialRetryBackoff().getOrNull();
+        if (initialBackoff != null) {
+            retryPolicy.initialBackoff(initialBackoff);
+        }
+        var maxBackoff = params.getMaxRetryBackoff().getOrNull();
+        if (maxBackoff != null) {
+            retryPolicy.maxBackoff(maxBackoff);
+        }
+        retryPolicy.circuitBreaker(new CircuitBreaker(
+            params.getCircuitBreakerFailureThreshold().getOrElse(CircuitBreaker.DEFAULT_FAILURE_THRESHOLD),
+            params.getCircuitBreakerOpenDuration().getOrElse(CircuitBreaker.DEFAULT_OPEN_DURATION)
+        ));
+        return retryPolicy.build();
+    }
+
+    // Used if there is a stale cached response, so the build doesn't wait for retries to get data it already has
+    @Getter(value = PRIVATE, lazy = true)
+    private final RetryPolicy staleFallbackRetryPolicy = getRetryPolicy().toBuilder()
+        .maxRetries(0)
+        .build();
+
+    private boolean isOffline() {
+        return getParameters().getOffline().getOrElse(false);
     }
 
+    private boolean isLazyModels() {
+        return getParameters().getLazyModels().getOrElse(false);
+    }
+
+    private final GitHubFetchMetrics metrics = new GitHubFetchMetrics();
+
+    @Getter(value = PRIVATE, lazy = true)
+    private final FetchTracer tracer = getParameters().getTrace().getOrElse(false)
+        ? new FetchTracer()
+        : FetchTracer.DISABLED;
+
+    @Getter(value = PRIVATE, lazy = true)
+    private final HttpRequestListener httpRequestListener =
+        HttpRequestListener.compositeOf(LATENCY_TRACKER, metrics, getTracer());
+
+    public GitHubFetchMetrics.FetchMetricsReport createMetricsReport() {
+        return metrics.createReport();
+    }
+
+    @Getter(value = PRIVATE, lazy = true)
+    private final FileCacheDirectory fileCacheDirectory = new FileCacheDirectory(
+        resolveSharedCacheDirectory(),
+        this::getFirstProjectBuildDirectory
+    );
+
     @Nullable
-    public Path getCacheFile(String apiUrl, String relativeUrl) {
-        var fullUrl = createFullUrl(apiUrl, relativeUrl);
-        return getCacheFile(fullUrl);
+    private Path resolveSharedCacheDirectory() {
+        var sharedCacheDirectory = getParameters().getSharedCacheDirectory().getAsFile().getOrNull();
+        return sharedCacheDirectory != null ? normalizePath(sharedCacheDirectory.toPath()) : null;
+    }
+
+    private Provider<Directory> getFirstProjectBuildDirectory() {
+        // After loading from the configuration cache, projects are not registered, so the parameter is used
+        var firstProject = firstRegisteredProject.get();
+        return firstProject != null
+            ? firstProject.getBuildDirectory()
+            : getParameters().getFirstProjectBuildDirectory();
     }
 
+    /**
+     * Returns {@code null} if the file cache is not used, or shared by all builds.
+     */
     @Nullable
-    private Path getCacheFile(String fullUrl) {
-        var cacheDir = getCacheDirectory();
-        if (cacheDir == null) {
+    public Path getCacheFile(String apiUrl, String relativeUrl) {
+        var fileCacheDirectory = getFileCacheDirectory();
+        if (fileCacheDirectory.isShared()) {
             return null;
         }
 
-        var hash = sha512Hex(fullUrl.getBytes(UTF_8));
-        return cacheDir.resolve(hash + ".json");
+        var fullUrl = createFullUrl(apiUrl, relativeUrl);
+        return fileCacheDirectory.getFile(fullUrl);
     }
 
 
@@ -90,6 +267,7 @@ abstract class GitHubDataFetcher implements BuildService<GitHubDataFetcherParams
         String relativeUrl,
         @Nullable String apiToken,
         Class<T> type,
+        Duration maxAge,
         @Nullable BuildCancellationToken cancellationToken
     ) {
         return fetch(
@@ -97,6 +275,7 @@ abstract class GitHubDataFetcher implements BuildService<GitHubDataFetcherParams
             relativeUrl,
             apiToken,
             TypeToken.get(type),
+            maxAge,
             cancellationToken
         );
     }
@@ -106,20 +285,83 @@ abstract class GitHubDataFetcher implements BuildService<GitHubDataFetcherParams
         String relativeUrl,
         @Nullable String apiToken,
         TypeToken<T> type,
+        Duration maxAge,
+        @Nullable BuildCancellationToken cancellationToken
+    ) {
+        apiToken = normalizeApiToken(apiToken);
+        var fullUrl = createFullUrl(apiUrl, relativeUrl);
+
+        var cachedContent = getContentFromInMemoryCacheOrFetch(fullUrl, apiToken, maxAge, cancellationToken);
+        return getParsedContent(fullUrl, cachedContent, type);
+    }
+
+    public <T> CompletableFuture<T> fetchAsync(
+        String apiUrl,
+        String relativeUrl,
+        @Nullable String apiToken,
+        Class<T> type,
+        Duration maxAge,
+        @Nullable BuildCancellationToken cancellationToken
+    ) {
+        return fetchAsync(
+            apiUrl,
+            relativeUrl,
+            apiToken,
+            TypeToken.get(type),
+            maxAge,
+            cancellationToken
+        );
+    }
+
+    public <T> CompletableFuture<T> fetchAsync(
+        String apiUrl,
+        String relativeUrl,
+        @Nullable String apiToken,
+        TypeToken<T> type,
+        Duration maxAge,
         @Nullable BuildCancellationToken cancellationToken
     ) {
+        var normalizedApiToken = normalizeApiToken(apiToken);
+        var fullUrl = createFullUrl(apiUrl, relativeUrl);
+
+        return getContentFromInMemoryCacheOrFetchAsync(fullUrl, normalizedApiToken, maxAge, cancellationToken)
+            .thenApply(cachedContent -> getParsedContent(fullUrl, cachedContent, type));
+    }
+
+    private <T> T getParsedContent(String fullUrl, CachedContent cachedContent, TypeToken<T> type) {
+        var weight = cachedContent.getWeight();
+        var parsedContent = cachedContent.getParsedContent(type, isLazyModels(), getTracer());
+        if (cachedContent.getWeight() != weight) {
+            IN_MEMORY_CACHE.updateWeight(fullUrl, cachedContent);
+        }
+        return parsedContent;
+    }
+
+    /**
+     * Starts fetching the endpoints. Subsequent {@link #fetch} calls reuse the started requests.
+     */
+    public void prefetchAsync(
+        String apiUrl,
+        Map<String, Duration> relativeUrlsWithMaxAge,
+        @Nullable String apiToken,
+        @Nullable BuildCancellationToken cancellationToken
+    ) {
+        var normalizedApiToken = normalizeApiToken(apiToken);
+        relativeUrlsWithMaxAge.forEach((relativeUrl, maxAge) -> {
+            var fullUrl = createFullUrl(apiUrl, relativeUrl);
+            getContentFromInMemoryCacheOrFetchAsync(fullUrl, normalizedApiToken, maxAge, true, cancellationToken);
+        });
+    }
+
+    @Nullable
+    private static String normalizeApiToken(@Nullable String apiToken) {
         if (apiToken != null && apiToken.isEmpty()) {
             apiToken = null;
         }
         if (apiToken == null && isInTestOnCI()) {
             throw new IllegalStateException("GitHub REST API requests must be authenticated when running tests on CI");
         }
-
-        var fullUrl = createFullUrl(apiUrl, relativeUrl);
-
-        var content = getContentFromInMemoryCacheOrFetch(fullUrl, apiToken, cancellationToken);
-        var result = GSON.fromJson(content, type);
-        return requireNonNull(result);
+        return apiToken;
     }
 
     private static String createFullUrl(String apiUrl, String relativeUrl) {
@@ -143,60 +385,660 @@ abstract class GitHubDataFetcher implements BuildService<GitHubDataFetcherParams
     }
 
 
-    private static final ConcurrentMap<String, String> IN_MEMORY_CACHE = new ConcurrentHashMap<>();
+    // The cache outlives a single build in the Gradle daemon, so it's bounded by the cached content size
+    private static final long IN_MEMORY_CACHE_MAX_WEIGHT = 32L * 1024 * 1024;
+
+    private static final InMemoryContentCache IN_MEMORY_CACHE = new InMemoryContentCache(IN_MEMORY_CACHE_MAX_WEIGHT);
+
+    public static CacheStats getInMemoryCacheStats() {
+        return IN_MEMORY_CACHE.getStats();
+    }
+
+    @Override
+    public void close() {
+        logger.debug("In-memory cache of GitHub REST API responses: {}", getInMemoryCacheStats());
+
+        var sharedCacheDirectory = getFileCacheDirectory().getSharedDirectory();
+        if (sharedCacheDirectory != null) {
+            try {
+                var deletedEntries = FileCacheCleanup.cleanupIfDue(
+                    sharedCacheDirectory,
+                    getParameters().getSharedCacheMaxSizeBytes().getOrElse(FileCacheCleanup.DEFAULT_MAX_SIZE_BYTES),
+                    getParameters().getSharedCacheMaxAge().getOrElse(FileCacheCleanup.DEFAULT_MAX_AGE)
+                );
+                if (deletedEntries >= 0) {
+                    logger.debug("Deleted {} entries of shared cache {}", deletedEntries, sharedCacheDirectory);
+                }
+            } catch (Throwable exception) {
+                logger.warn("Cleanup of shared cache {} failed: {}", sharedCacheDirectory, exception.toString());
+            }
+        }
+
+        writeTrace();
+    }
+
+    private static final DateTimeFormatter TRACE_FILE_TIMESTAMP_FORMATTER =
+        DateTimeFormatter.ofPattern("yyyy-MM-dd-HH-mm-ss");
+
+    private void writeTrace() {
+        var tracer = getTracer();
+        if (!tracer.isEnabled()) {
+            return;
+        }
+
+        var buildDirectory = getParameters().getFirstProjectBuildDirectory();
+        if (!buildDirectory.isPresent()) {
+            return;
+        }
+
+        var traceFile = normalizePath(
+            buildDirectory.get()
+                .file(format(
+                    "reports/github-repository-info/traces/trace-%s.json",
+                    TRACE_FILE_TIMESTAMP_FORMATTER.format(LocalDateTime.now())
+                ))
+                .getAsFile()
+                .toPath()
+        );
+        try {
+            tracer.writeTo(traceFile);
+            logger.lifecycle("See the trace of GitHub repository information fetching at: {}", traceFile.toUri());
+        } catch (Throwable exception) {
+            logger.warn("Writing trace to {} failed: {}", traceFile, exception.toString());
+        }
+    }
+
+    // Static, so all builds in the same Gradle daemon share the rate limit budget
+    private static final GitHubRateLimiter RATE_LIMITER = new GitHubRateLimiter();
+
+    // Static, so latencies observed by previous builds in the same Gradle daemon are used
+    private static final LatencyTracker LATENCY_TRACKER = new LatencyTracker();
+
+    private static final double HEDGE_DELAY_PERCENTILE = 95;
+
+    private static final int MAX_CONCURRENT_REQUESTS = 16;
+
+    // Response bodies are read in HTTP client threads, so a thread must be left to receive the data
+    static final int MIN_HTTP_THREADS = MAX_CONCURRENT_REQUESTS + 1;
+
+    // A request holds its slot until its response body is read
+    private static final AsyncConcurrencyLimiter REQUEST_CONCURRENCY_LIMITER =
+        new AsyncConcurrencyLimiter(MAX_CONCURRENT_REQUESTS);
+
+    // File cache entries are read and written in these threads, as waiting for a file lock blocks
+    private static final Executor FILE_CACHE_THREADS = newCachedThreadPool(new ThreadFactoryBuilder()
+        .setNameFormat("github-repository-info-file-cache-%d")
+        .setDaemon(true)
+        .build()
+    );
+
+    // A file lock is taken only in a request slot, so prefetching many repositories doesn't hold a lock per endpoint
+    private static final Executor FILE_CACHE_EXECUTOR = task ->
+        REQUEST_CONCURRENCY_LIMITER.submit(() -> runAsync(task, FILE_CACHE_THREADS));
+
+    private CachedContent getContentFromInMemoryCacheOrFetch(
+        String fullUrl,
+        @Nullable String apiToken,
+        Duration maxAge,
+        @Nullable BuildCancellationToken cancellationToken
+    ) {
+        return joinUnwrapped(getContentFromInMemoryCacheOrFetchAsync(fullUrl, apiToken, maxAge, cancellationToken));
+    }
+
+    private CompletableFuture<CachedContent> getContentFromInMemoryCacheOrFetchAsync(
+        String fullUrl,
+        @Nullable String apiToken,
+        Duration maxAge,
+        @Nullable BuildCancellationToken cancellationToken
+    ) {
+        return getContentFromInMemoryCacheOrFetchAsync(fullUrl, apiToken, maxAge, false, cancellationToken);
+    }
 
-    private String getContentFromInMemoryCacheOrFetch(
+    /**
+     * In-memory hits of prefetching aren't counted, as they would inflate the hit ratio.
+     */
+    private CompletableFuture<CachedContent> getContentFromInMemoryCacheOrFetchAsync(
         String fullUrl,
         @Nullable String apiToken,
+        Duration maxAge,
+        boolean isPrefetch,
         @Nullable BuildCancellationToken cancellationToken
     ) {
-        return IN_MEMORY_CACHE.computeIfAbsent(fullUrl, __ ->
-            getContentFromFileCacheOrFetch(fullUrl, apiToken, cancellationToken)
+        var lookupEvent = new CacheLookupEvent();
+        lookupEvent.begin();
+        var lookup = IN_MEMORY_CACHE.getOrLoadAsync(
+            fullUrl,
+            cachedContent -> !cachedContent.isExpired(maxAge) || isOffline(),
+            staleContent -> {
+                var fetchSpan = getTracer().startAsyncSpan("fetch", "fetch", Map.of("url", fullUrl));
+                CompletableFuture<CachedContent> contentFuture;
+                try {
+                    contentFuture = isGraphQlCacheKey(fullUrl)
+                        ? getGraphQlContentFromFileCacheOrFetchAsync(fullUrl, apiToken, maxAge, cancellationToken)
+                        : getContentFromFileCacheOrFetchAsync(fullUrl, apiToken, maxAge, cancellationToken);
+                } catch (Throwable exception) {
+                    contentFuture = failedFuture(exception);
+                }
+                if (staleContent != null) {
+                    contentFuture = withStaleFallback(fullUrl, contentFuture, staleContent);
+                }
+                contentFuture.whenComplete((result, exception) -> fetchSpan.close());
+                return contentFuture;
+            }
         );
+
+        if (lookup.isHit()) {
+            if (!isPrefetch) {
+                metrics.getEndpoint(fullUrl).onInMemoryHit();
+            }
+            if (lookupEvent.isEnabled()) {
+                lookup.getContent().thenAccept(content ->
+                    lookupEvent.end(fullUrl, IN_MEMORY_CACHE_LAYER, false, content.getSizeBytes())
+                );
+            }
+        }
+        return lookup.getContent();
+    }
+
+    private static CompletableFuture<CachedContent> withStaleFallback(
+        String fullUrl,
+        CompletableFuture<CachedContent> contentFuture,
+        CachedContent staleContent
+    ) {
+        return contentFuture.exceptionally(exception -> {
+            var cause = unwrapCompletionException(exception);
+            if (!isTransientFailure(cause)) {
+                throw new CompletionException(cause);
+            }
+
+            logger.warn("Failed to fetch {}, using the stale in-memory cached response", fullUrl, cause);
+            return staleContent;
+        });
+    }
+
+    /**
+     * Responses converted from GitHub GraphQL API responses are cached under REST API URLs with this suffix.
+     * Some of their values are defaults, so they must never be used as REST API responses.
+     */
+    public static final String GRAPHQL_CACHE_KEY_SUFFIX = "#graphql";
+
+    private static boolean isGraphQlCacheKey(String fullUrl) {
+        return fullUrl.endsWith(GRAPHQL_CACHE_KEY_SUFFIX);
+    }
+
+    /**
+     * The result is cached as responses of {@code /repos/{owner}/{repo}} and {@code /repos/{owner}/{repo}/languages}
+     * with {@link #GRAPHQL_CACHE_KEY_SUFFIX}.
+     * Does nothing if there is no API token, as GitHub GraphQL API requires authentication.
+     */
+    public void prefetchRepositoryViaGraphQlAsync(
+        String apiUrl,
+        String repositoryFullName,
+        @Nullable String apiToken,
+        Duration maxAge,
+        @Nullable BuildCancellationToken cancellationToken
+    ) {
+        var normalizedApiToken = normalizeApiToken(apiToken);
+        if (normalizedApiToken == null || isOffline()) {
+            return;
+        }
+
+        var repositoryUrl = createFullUrl(apiUrl, "repos/" + repositoryFullName);
+        var repositoryKey = repositoryUrl + GRAPHQL_CACHE_KEY_SUFFIX;
+        var languagesKey = repositoryUrl + "/languages" + GRAPHQL_CACHE_KEY_SUFFIX;
+
+        Map<String, CompletableFuture<CachedContent>> newRequests = new LinkedHashMap<>();
+        for (var cacheKey : List.of(repositoryKey, languagesKey)) {
+            if (isCached(cacheKey, maxAge) || isCached(toRestUrl(cacheKey), maxAge)) {
+                continue;
+            }
+
+            var newRequest = IN_MEMORY_CACHE.startLoad(cacheKey);
+            if (newRequest != null) {
+                newRequests.put(cacheKey, newRequest);
+            }
+        }
+        if (newRequests.isEmpty()) {
+            return;
+        }
+
+        CompletableFuture<RepositoryQueryResult> resultFuture;
+        try {
+            var request = createRepositoryQueryRequest(apiUrl, repositoryFullName, normalizedApiToken);
+            var queueSpan = startRequestQueueSpan(request);
+            resultFuture = REQUEST_CONCURRENCY_LIMITER.submit(() -> {
+                queueSpan.close();
+                return sendGitHubGraphQlStreamingHttpRequestAsync(
+                    getHttpClient(),
+                    request,
+                    RATE_LIMITER,
+                    getRetryPolicy(),
+                    cancellationToken
+                ).thenApply(response -> parseRepositoryQueryResponse(apiUrl, response));
+            });
+        } catch (Throwable exception) {
+            resultFuture = failedFuture(exception);
+        }
+
+        resultFuture.whenComplete((result, exception) -> {
+            if (exception != null && !(unwrapCompletionException(exception) instanceof BuildCancelledException)) {
+                logger.warn(
+                    "Failed to fetch {} repository via GitHub GraphQL API, falling back to REST API",
+                    repositoryFullName,
+                    unwrapCompletionException(exception)
+                );
+            }
+
+            newRequests.forEach((cacheKey, newRequest) -> {
+                CompletableFuture<CachedContent> contentFuture;
+                try {
+                    if (result != null) {
+                        var json = cacheKey.equals(repositoryKey) ? result.getRepository() : result.getLanguages();
+                        contentFuture = supplyAsync(() -> storeFetchedContent(cacheKey, json), FILE_CACHE_EXECUTOR);
+                    } else if (unwrapCompletionException(exception) instanceof BuildCancelledException) {
+                        contentFuture = failedFuture(exception);
+                    } else {
+                        contentFuture = getContentFromInMemoryCacheOrFetchAsync(
+                            toRestUrl(cacheKey),
+                            normalizedApiToken,
+                            maxAge,
+                            true,
+                            cancellationToken
+                        );
+                    }
+                } catch (Throwable storeException) {
+                    contentFuture = failedFuture(storeException);
+                }
+
+                IN_MEMORY_CACHE.completeLoad(cacheKey, newRequest, contentFuture);
+            });
+        });
+    }
+
+    @SneakyThrows
+    private static RepositoryQueryResult parseRepositoryQueryResponse(
+        String apiUrl,
+        HttpResponse<InputStream> response
+    ) {
+        try (var in = openPlainHttpResponseBody(response)) {
+            return GitHubGraphQlUtils.parseRepositoryQueryResponse(apiUrl, in);
+        }
+    }
+
+    private boolean isCached(String fullUrl, Duration maxAge) {
+        var cachedContent = IN_MEMORY_CACHE.getIfPresent(fullUrl);
+        if (cachedContent != null && !cachedContent.isExpired(maxAge)) {
+            return true;
+        }
+
+        var cacheFile = getFileCacheDirectory().getFile(fullUrl);
+        if (cacheFile == null) {
+            return false;
+        }
+
+        var fetchedAtMillis = newFileCache(cacheFile, fullUrl).getFetchedAtMillis();
+        return fetchedAtMillis > 0
+            && System.currentTimeMillis() - fetchedAtMillis <= maxAge.toMillis();
+    }
+
+    private static String toRestUrl(String graphQlCacheKey) {
+        return graphQlCacheKey.substring(0, graphQlCacheKey.length() - GRAPHQL_CACHE_KEY_SUFFIX.length());
+    }
+
+    // GraphQL API responses don't have validators, so the entry is stored without them
+    private CachedContent storeFetchedContent(String cacheKey, JsonElement json) {
+        var fetchedAtMillis = System.currentTimeMillis();
+        var content = toJsonBytes(json);
+        var cacheFile = getFileCacheDirectory().getFile(cacheKey);
+        if (cacheFile != null) {
+            var metadata = FileCacheMetadata.builder()
+                .fetchedAtMillis(fetchedAtMillis)
+                .build();
+            newFileCache(cacheFile, cacheKey).setContent(out -> out.write(content), metadata);
+        }
+
+        return new CachedContent(content, fetchedAtMillis);
+    }
+
+    /**
+     * A cached GraphQL API response is never revalidated. If it's expired, REST API is used instead.
+     */
+    private CompletableFuture<CachedContent> getGraphQlContentFromFileCacheOrFetchAsync(
+        String cacheKey,
+        @Nullable String apiToken,
+        Duration maxAge,
+        @Nullable BuildCancellationToken cancellationToken
+    ) {
+        var cacheFile = getFileCacheDirectory().getFile(cacheKey);
+        if (cacheFile == null) {
+            return getContentFromInMemoryCacheOrFetchAsync(toRestUrl(cacheKey), apiToken, maxAge, cancellationToken);
+        }
+
+        var fileCache = newFileCache(cacheFile, cacheKey);
+        return supplyAsync(() -> fileCache.getEntry(in -> readJsonBytes(in, UTF_8)), FILE_CACHE_EXECUTOR)
+            .exceptionally(exception -> {
+                logger.warn("Cached response of {} can't be read", cacheKey, unwrapCompletionException(exception));
+                return null;
+            })
+            .thenCompose(entry -> {
+                if (entry != null && (!entry.isExpired(maxAge) || isOffline())) {
+                    return completedFuture(new CachedContent(entry.getContent(), entry.getFetchedAtMillis()));
+                }
+
+                return getContentFromInMemoryCacheOrFetchAsync(
+                    toRestUrl(cacheKey),
+                    apiToken,
+                    maxAge,
+                    cancellationToken
+                );
+            });
     }
 
 
-    private String getContentFromFileCacheOrFetch(
+    private FileCache newFileCache(Path cacheFile, String fullUrl) {
+        var endpoint = metrics.getEndpoint(fullUrl);
+        var tracer = getTracer();
+        return new FileCache(cacheFile, waitDuration -> {
+            endpoint.onFileLockAcquired(waitDuration);
+            tracer.recordSpanEndedNow("file cache lock wait", "file-cache", waitDuration, Map.of("url", fullUrl));
+        });
+    }
+
+    private CompletableFuture<CachedContent> getContentFromFileCacheOrFetchAsync(
         String fullUrl,
         @Nullable String apiToken,
+        Duration maxAge,
         @Nullable BuildCancellationToken cancellationToken
     ) {
-        var cacheFile = getCacheFile(fullUrl);
+        var lookupEvent = new CacheLookupEvent();
+        lookupEvent.begin();
+        var cacheFile = getFileCacheDirectory().getFile(fullUrl);
         if (cacheFile == null) {
-            return fetchContent(fullUrl, apiToken, cancellationToken);
+            return fetchContentAsync(fullUrl, apiToken, null, false, cancellationToken)
+                .thenApply(fetchedContent -> {
+                    var content = requireNonNull(fetchedContent.getContent());
+                    lookupEvent.end(fullUrl, NETWORK_CACHE_LAYER, false, content.length);
+                    return new CachedContent(content, fetchedContent.getFetchedAtMillis());
+                });
         }
 
-        var fileCache = new FileCache(cacheFile);
-        var bytes = fileCache.getOrCreateContent(() -> {
-            var content = fetchContent(fullUrl, apiToken, cancellationToken);
-            return content.getBytes(UTF_8);
+        var fileCache = new RevalidatingFileCache(
+            newFileCache(cacheFile, fullUrl),
+            fullUrl,
+            getTracer(),
+            FILE_CACHE_EXECUTOR
+        );
+        return fileCache.getOrFetchAsync(
+            isOffline() ? null : maxAge,
+            (validators, hasCachedContent) ->
+                fetchContentAsync(fullUrl, apiToken, validators, hasCachedContent, cancellationToken)
+        ).thenApply(lookup -> {
+            var content = lookup.getContent();
+            var source = lookup.getSource();
+            if (source == Source.FILE) {
+                metrics.getEndpoint(fullUrl).onFileHit();
+            }
+            if (source == Source.FILE || source == Source.STALE_FILE) {
+                lookupEvent.end(fullUrl, FILE_CACHE_LAYER, false, content.getSizeBytes());
+            } else {
+                lookupEvent.end(fullUrl, NETWORK_CACHE_LAYER, source == Source.NOT_MODIFIED, content.getSizeBytes());
+            }
+            return content;
         });
-        var content = new String(bytes, UTF_8);
-        return content;
     }
 
 
-    private String fetchContent(
+    /**
+     * With a stale fallback, the request isn't retried, and its timeout is shortened.
+     */
+    private CompletableFuture<FetchedContent> fetchContentAsync(
         String fullUrl,
         @Nullable String apiToken,
+        @Nullable FileCacheMetadata validators,
+        boolean hasStaleFallback,
         @Nullable BuildCancellationToken cancellationToken
     ) {
-        var requestUri = URI.create(fullUrl);
+        if (isOffline()) {
+            return failedFuture(new IllegalStateException(
+                "Gradle runs in offline mode, and there is no cached response of " + fullUrl
+            ));
+        }
+
+        metrics.getEndpoint(fullUrl).onNetworkFetch();
+        var projection = JsonFieldProjection.parseFromUrl(fullUrl);
+        var request = createRequest(URI.create(removeProjection(fullUrl)), apiToken, validators, hasStaleFallback);
+        var queueSpan = startRequestQueueSpan(request);
+        var firstPageFuture = REQUEST_CONCURRENCY_LIMITER.submit(() -> {
+            queueSpan.close();
+            return sendRestApiRequestAsync(request, hasStaleFallback, cancellationToken).thenApply(response ->
+                new FetchedPage(getFetchedContent(response), getLastPageNumber(response))
+            );
+        });
+        return firstPageFuture.thenCompose(firstPage -> {
+            var fetchedContent = firstPage.getContent();
+            if (fetchedContent.getContent() == null) {
+                return completedFuture(fetchedContent);
+            }
+
+            var fetchedContentFuture = firstPage.getLastPageNumber() <= 1
+                ? completedFuture(fetchedContent)
+                : fetchRemainingPagesAsync(
+                    request.uri(),
+                    fetchedContent,
+                    firstPage.getLastPageNumber(),
+                    apiToken,
+                    hasStaleFallback,
+                    cancellationToken
+                );
+            if (projection != null) {
+                fetchedContentFuture = fetchedContentFuture.thenApply(content -> project(fullUrl, content, projection));
+            }
+            return fetchedContentFuture;
+        });
+    }
+
+    private FetchedContent project(String fullUrl, FetchedContent fetchedContent, JsonFieldProjection projection) {
+        var content = requireNonNull(fetchedContent.getContent());
+        final byte[] projectedContent;
+        try (var projectSpan = getTracer().startSpan("project JSON", "parse", Map.of("url", fullUrl))) {
+            var json = parseJson(new ByteArrayInputStream(content), UTF_8);
+            projectedContent = toJsonBytes(projection.project(json));
+        }
+        return new FetchedContent(
+            projectedContent,
+            fetchedContent.getMetadata(),
+            fetchedContent.getFetchedAtMillis()
+        );
+    }
+
+    @Value
+    private static class FetchedPage {
+        FetchedContent content;
+        int lastPageNumber;
+    }
+
+    private static final int MAX_PAGES = 100;
+
+    /**
+     * Fetches pages from 2 to {@code lastPageNumber} concurrently and merges them with the first page.
+     */
+    private CompletableFuture<FetchedContent> fetchRemainingPagesAsync(
+        URI firstPageUri,
+        FetchedContent firstPageContent,
+        int lastPageNumber,
+        @Nullable String apiToken,
+        boolean hasStaleFallback,
+        @Nullable BuildCancellationToken cancellationToken
+    ) {
+        if (lastPageNumber > MAX_PAGES) {
+            logger.warn(
+                "{} has {} pages, only the first {} pages will be fetched",
+                firstPageUri,
+                lastPageNumber,
+                MAX_PAGES
+            );
+            lastPageNumber = MAX_PAGES;
+        }
+
+        List<CompletableFuture<FetchedContent>> pageContentFutures = new ArrayList<>();
+        for (int pageNumber = 2; pageNumber <= lastPageNumber; pageNumber++) {
+            var pageUri = withPageNumber(firstPageUri, pageNumber);
+            var pageRequest = createRequest(pageUri, apiToken, null, hasStaleFallback);
+            var queueSpan = startRequestQueueSpan(pageRequest);
+            pageContentFutures.add(REQUEST_CONCURRENCY_LIMITER.submit(() -> {
+                queueSpan.close();
+                return sendRestApiRequestAsync(pageRequest, hasStaleFallback, cancellationToken)
+                    .thenApply(this::getFetchedContent);
+            }));
+        }
+
+        return allOf(pageContentFutures.toArray(new CompletableFuture<?>[0])).thenApply(__ -> {
+            List<byte[]> pageContents = new ArrayList<>();
+            pageContents.add(requireNonNull(firstPageContent.getContent()));
+            for (var pageContentFuture : pageContentFutures) {
+                pageContents.add(requireNonNull(pageContentFuture.join().getContent()));
+            }
+            var mergedContent = concatJsonArrays(pageContents);
+
+            // Validators of the first page don't cover other pages, so they are not stored
+            var metadata = FileCacheMetadata.builder()
+                .fetchedAtMillis(firstPageContent.getFetchedAtMillis())
+                .build();
+            return new FetchedContent(mergedContent, metadata, firstPageContent.getFetchedAtMillis());
+        });
+    }
+
+    private FetchTracer.Span startRequestQueueSpan(HttpRequest request) {
+        return getTracer().startAsyncSpan("wait for request slot", "queue", Map.of("url", request.uri().toString()));
+    }
+
+    private CompletableFuture<HttpResponse<InputStream>> sendRestApiRequestAsync(
+        HttpRequest request,
+        boolean hasStaleFallback,
+        @Nullable BuildCancellationToken cancellationToken
+    ) {
+        var retryPolicy = hasStaleFallback ? getStaleFallbackRetryPolicy() : getRetryPolicy();
+        if (getParameters().getHedgedRequests().getOrElse(false)) {
+            var hedgeDelay = LATENCY_TRACKER.getPercentile(request.uri(), HEDGE_DELAY_PERCENTILE);
+            retryPolicy = retryPolicy.toBuilder()
+                .hedgeDelay(hedgeDelay)
+                .build();
+        }
+
+        return sendGitHubRestApiStreamingHttpRequestAsync(
+            getHttpClient(),
+            request,
+            RATE_LIMITER,
+            retryPolicy,
+            getHttpRequestListener(),
+            cancellationToken
+        );
+    }
+
+    private static void closeResponseBody(HttpResponse<InputStream> response) {
+        try {
+            response.body().close();
+        } catch (Throwable exception) {
+            logger.debug("Failed to close response body of {}", response.uri(), exception);
+        }
+    }
+
+    private static final Duration STALE_FALLBACK_MAX_TIMEOUT = Duration.ofSeconds(10);
+
+    private static HttpRequest createRequest(
+        URI requestUri,
+        @Nullable String apiToken,
+        @Nullable FileCacheMetadata validators,
+        boolean hasStaleFallback
+    ) {
         var requestBuilder = HttpRequest.newBuilder()
             .GET()
             .uri(requestUri)
             .setHeader(ACCEPT, "application/json")
             .setHeader(ACCEPT_LANGUAGE, "en-US")
             .setHeader(ACCEPT_ENCODING, "gzip");
+        var timeout = LATENCY_TRACKER.getAdaptiveTimeout(requestUri);
+        if (hasStaleFallback && (timeout == null || timeout.compareTo(STALE_FALLBACK_MAX_TIMEOUT) > 0)) {
+            timeout = STALE_FALLBACK_MAX_TIMEOUT;
+        }
+        if (timeout != null) {
+            requestBuilder.timeout(timeout);
+        }
         if (apiToken != null) {
             requestBuilder.header(AUTHORIZATION, "token " + apiToken);
         }
-        var request = requestBuilder.build();
+        if (validators != null) {
+            if (validators.getEtag() != null) {
+                requestBuilder.header(IF_NONE_MATCH, validators.getEtag());
+            }
+            if (validators.getLastModified() != null) {
+                requestBuilder.header(IF_MODIFIED_SINCE, validators.getLastModified());
+            }
+        }
+        return requestBuilder.build();
+    }
+
+    @SneakyThrows
+    private FetchedContent getFetchedContent(HttpResponse<InputStream> response) {
+        var fetchedAtMillis = System.currentTimeMillis();
+        var metadata = FileCacheMetadata.builder()
+            .etag(response.headers().firstValue(ETAG).orElse(null))
+            .lastModified(response.headers().firstValue(LAST_MODIFIED).orElse(null))
+            .fetchedAtMillis(fetchedAtMillis)
+            .build();
+
+        if (response.statusCode() == 304) {
+            metrics.getEndpoint(response.request().uri()).onNotModified();
+            closeResponseBody(response);
+            return new FetchedContent(null, metadata, fetchedAtMillis);
+        }
 
-        var response = sendGitHubRestApiHttpRequest(request, cancellationToken);
-        var bytes = getPlainHttpResponseBody(response);
         var charset = getHttpResponseCharset(response);
-        return new String(bytes, charset);
+        var args = Map.<String, Object>of("url", response.request().uri().toString());
+        try (
+            var in = openMeteredResponseBody(response);
+            var parseSpan = getTracer().startSpan("read JSON", "parse", args)
+        ) {
+            return new FetchedContent(readJsonBytes(in, charset), metadata, fetchedAtMillis);
+        }
+    }
+
+    private InputStream openMeteredResponseBody(HttpResponse<InputStream> response) {
+        var endpoint = metrics.getEndpoint(response.request().uri());
+        var tracer = getTracer();
+        var readStartNanos = System.nanoTime();
+        var wireIn = new CountingInputStream(response.body());
+        var plainIn = new CountingInputStream(openPlainHttpResponseBody(response, wireIn));
+        return new FilterInputStream(plainIn) {
+            private boolean closed;
+
+            @Override
+            public void close() throws IOException {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+
+                try {
+                    super.close();
+                } finally {
+                    endpoint.onResponseBodyRead(wireIn.getCount(), plainIn.getCount());
+                    if (tracer.isEnabled()) {
+                        Map<String, Object> args = new LinkedHashMap<>();
+                        args.put("url", response.request().uri().toString());
+                        args.put("contentEncoding", response.headers().firstValue(CONTENT_ENCODING).orElse("identity"));
+                        args.put("wireBytes", wireIn.getCount());
+                        args.put("decompressedBytes", plainIn.getCount());
+                        tracer.recordSpanEndedNow(
+                            "read response body",
+                            "http",
+                            Duration.ofNanos(System.nanoTime() - readStartNanos),
+                            args
+                        );
+                    }
+                }
+            }
+        };
     }
 
 }
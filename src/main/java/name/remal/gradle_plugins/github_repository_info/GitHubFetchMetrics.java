@@ -0,0 +1,228 @@
+package name.remal.gradle_plugins.github_repository_info;
+
+import static java.lang.Long.parseLong;
+import static name.remal.gradle_plugins.github_repository_info.JsonFieldProjection.removeProjection;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse.ResponseInfo;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.Builder;
+import lombok.Value;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * All pages and projections of an endpoint are counted together.
+ */
+class GitHubFetchMetrics implements HttpRequestListener {
+
+    private final ConcurrentMap<String, EndpointMetrics> endpoints = new ConcurrentHashMap<>();
+
+    public EndpointMetrics getEndpoint(String url) {
+        var endpointUrl = removeProjection(url);
+        var queryIndex = endpointUrl.indexOf('?');
+        if (queryIndex >= 0) {
+            endpointUrl = endpointUrl.substring(0, queryIndex);
+        }
+        return endpoints.computeIfAbsent(endpointUrl, __ -> new EndpointMetrics());
+    }
+
+    public EndpointMetrics getEndpoint(URI uri) {
+        return getEndpoint(uri.toString());
+    }
+
+
+    @Override
+    public void onAttemptStarted(HttpRequest request, int retry) {
+        var endpoint = getEndpoint(request.uri());
+        endpoint.requests.increment();
+        if (retry > 0) {
+            endpoint.retries.increment();
+        }
+    }
+
+    @Override
+    public void onResponseReceived(HttpRequest request, ResponseInfo responseInfo, Duration latency) {
+        var endpoint = getEndpoint(request.uri());
+        var latencyMillis = latency.toMillis();
+        endpoint.latencyMillis.add(latencyMillis);
+        endpoint.maxLatencyMillis.accumulate(latencyMillis);
+        if (responseInfo.statusCode() >= 400) {
+            endpoint.failedRequests.increment();
+        }
+
+        var rateLimitRemaining = responseInfo.headers().firstValue("X-RateLimit-Remaining").orElse(null);
+        if (rateLimitRemaining != null) {
+            try {
+                endpoint.rateLimitRemaining.set(parseLong(rateLimitRemaining.trim()));
+            } catch (NumberFormatException ignored) {
+                // ignore invalid values
+            }
+        }
+    }
+
+    @Override
+    public void onAttemptFailed(HttpRequest request, Throwable exception, Duration elapsed) {
+        if (exception instanceof CancellationException) {
+            // For example, a hedged attempt that lost
+            return;
+        }
+
+        getEndpoint(request.uri()).failedRequests.increment();
+    }
+
+
+    public FetchMetricsReport createReport() {
+        Map<String, EndpointMetricsReport> endpointReports = new TreeMap<>();
+        var total = new EndpointMetrics();
+        endpoints.forEach((url, endpoint) -> {
+            endpointReports.put(url, endpoint.createReport());
+            total.add(endpoint);
+        });
+
+        return FetchMetricsReport.builder()
+            .total(total.createReport())
+            .endpoints(endpointReports)
+            .build();
+    }
+
+
+    static class EndpointMetrics {
+
+        private final LongAdder inMemoryHits = new LongAdder();
+        private final LongAdder fileHits = new LongAdder();
+        private final LongAdder networkFetches = new LongAdder();
+        private final LongAdder notModified = new LongAdder();
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder retries = new LongAdder();
+        private final LongAdder failedRequests = new LongAdder();
+        private final LongAdder latencyMillis = new LongAdder();
+        private final LongAccumulator maxLatencyMillis = new LongAccumulator(Math::max, 0);
+        private final LongAdder wireBytes = new LongAdder();
+        private final LongAdder decompressedBytes = new LongAdder();
+        private final LongAdder fileLockWaitNanos = new LongAdder();
+        private final AtomicLong rateLimitRemaining = new AtomicLong(-1);
+
+        public void onInMemoryHit() {
+            inMemoryHits.increment();
+        }
+
+        public void onFileHit() {
+            fileHits.increment();
+        }
+
+        public void onNetworkFetch() {
+            networkFetches.increment();
+        }
+
+        public void onNotModified() {
+            notModified.increment();
+        }
+
+        public void onResponseBodyRead(long wireBytes, long decompressedBytes) {
+            this.wireBytes.add(wireBytes);
+            this.decompressedBytes.add(decompressedBytes);
+        }
+
+        public void onFileLockAcquired(Duration waitDuration) {
+            fileLockWaitNanos.add(waitDuration.toNanos());
+        }
+
+        private void add(EndpointMetrics other) {
+            inMemoryHits.add(other.inMemoryHits.sum());
+            fileHits.add(other.fileHits.sum());
+            networkFetches.add(other.networkFetches.sum());
+            notModified.add(other.notModified.sum());
+            requests.add(other.requests.sum());
+            retries.add(other.retries.sum());
+            failedRequests.add(other.failedRequests.sum());
+            latencyMillis.add(other.latencyMillis.sum());
+            maxLatencyMillis.accumulate(other.maxLatencyMillis.get());
+            wireBytes.add(other.wireBytes.sum());
+            decompressedBytes.add(other.decompressedBytes.sum());
+            fileLockWaitNanos.add(other.fileLockWaitNanos.sum());
+            var otherRateLimitRemaining = other.rateLimitRemaining.get();
+            if (otherRateLimitRemaining >= 0) {
+                rateLimitRemaining.accumulateAndGet(
+                    otherRateLimitRemaining,
+                    (current, value) -> current < 0 ? value : Math.min(current, value)
+                );
+            }
+        }
+
+        private EndpointMetricsReport createReport() {
+            var inMemoryHits = this.inMemoryHits.sum();
+            var fileHits = this.fileHits.sum();
+            var networkFetches = this.networkFetches.sum();
+            var lookups = inMemoryHits + fileHits + networkFetches;
+            var requests = this.requests.sum();
+            var rateLimitRemaining = this.rateLimitRemaining.get();
+            return EndpointMetricsReport.builder()
+                .lookups(lookups)
+                .inMemoryHits(inMemoryHits)
+                .fileHits(fileHits)
+                .networkFetches(networkFetches)
+                .inMemoryHitRatio(ratio(inMemoryHits, lookups))
+                .fileHitRatio(ratio(fileHits, lookups))
+                .networkFetchRatio(ratio(networkFetches, lookups))
+                .notModified(notModified.sum())
+                .requests(requests)
+                .retries(retries.sum())
+                .failedRequests(failedRequests.sum())
+                .totalLatencyMillis(latencyMillis.sum())
+                .meanLatencyMillis(requests > 0 ? latencyMillis.sum() / requests : 0)
+                .maxLatencyMillis(maxLatencyMillis.get())
+                .wireBytes(wireBytes.sum())
+                .decompressedBytes(decompressedBytes.sum())
+                .fileLockWaitMillis(Duration.ofNanos(fileLockWaitNanos.sum()).toMillis())
+                .rateLimitRemaining(rateLimitRemaining >= 0 ? rateLimitRemaining : null)
+                .build();
+        }
+
+        private static double ratio(long count, long total) {
+            return total > 0 ? (double) count / total : 0;
+        }
+
+    }
+
+
+    @Value
+    @Builder
+    static class FetchMetricsReport {
+        EndpointMetricsReport total;
+        Map<String, EndpointMetricsReport> endpoints;
+    }
+
+    @Value
+    @Builder
+    static class EndpointMetricsReport {
+        long lookups;
+        long inMemoryHits;
+        long fileHits;
+        long networkFetches;
+        double inMemoryHitRatio;
+        double fileHitRatio;
+        double networkFetchRatio;
+        long notModified;
+        long requests;
+        long retries;
+        long failedRequests;
+        long totalLatencyMillis;
+        long meanLatencyMillis;
+        long maxLatencyMillis;
+        long wireBytes;
+        long decompressedBytes;
+        long fileLockWaitMillis;
+        @Nullable
+        Long rateLimitRemaining;
+    }
+
+}
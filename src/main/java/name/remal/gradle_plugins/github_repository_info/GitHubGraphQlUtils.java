@@ -0,0 +1,393 @@
+package name.remal.gradle_plugins.github_repository_info;
+
+import static com.google.common.net.HttpHeaders.ACCEPT;
+import static com.google.common.net.HttpHeaders.ACCEPT_ENCODING;
+import static com.google.common.net.HttpHeaders.AUTHORIZATION;
+import static com.google.common.net.HttpHeaders.CONTENT_TYPE;
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Locale.ROOT;
+import static java.util.stream.Collectors.joining;
+import static lombok.AccessLevel.PRIVATE;
+import static name.remal.gradle_plugins.github_repository_info.JsonUtils.GSON;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.util.stream.StreamSupport;
+import lombok.NoArgsConstructor;
+import lombok.SneakyThrows;
+import lombok.Value;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Converts GitHub GraphQL API responses to the shape of REST API responses.
+ * Values not exposed by GraphQL API are derived where possible, or set to defaults,
+ * so the results must never be cached as REST API responses.
+ */
+@NoArgsConstructor(access = PRIVATE)
+abstract class GitHubGraphQlUtils {
+
+    private static final String REPOSITORY_QUERY = String.join("\n",
+        "query($owner: String!, $name: String!) {",
+        "  repository(owner: $owner, name: $name) {",
+        "    databaseId id name nameWithOwner description url homepageUrl sshUrl mirrorUrl",
+        "    isPrivate isFork isArchived isDisabled isTemplate visibility forkingAllowed",
+        "    hasIssuesEnabled hasProjectsEnabled hasWikiEnabled hasDiscussionsEnabled webCommitSignoffRequired",
+        "    createdAt updatedAt pushedAt diskUsage stargazerCount forkCount",
+        "    watchers { totalCount }",
+        "    issues(states: OPEN) { totalCount }",
+        "    pullRequests(states: OPEN) { totalCount }",
+        "    defaultBranchRef { name }",
+        "    primaryLanguage { name }",
+        "    repositoryTopics(first: 100) { nodes { topic { name } } }",
+        "    licenseInfo { id key name spdxId url }",
+        "    owner {",
+        "      __typename id login avatarUrl url",
+        "      ... on User { databaseId isSiteAdmin }",
+        "      ... on Organization { databaseId }",
+        "    }",
+        "    languages(first: 100, orderBy: {field: SIZE, direction: DESC}) { edges { size node { name } } }",
+        "  }",
+        "}"
+    );
+
+    public static URI getGraphQlUrl(String apiUrl) {
+        apiUrl = removeTrailingSlashes(apiUrl);
+
+        // GitHub Enterprise Server: https://HOSTNAME/api/v3 -> https://HOSTNAME/api/graphql
+        if (apiUrl.endsWith("/api/v3")) {
+            return URI.create(apiUrl.substring(0, apiUrl.length() - "/v3".length()) + "/graphql");
+        }
+
+        return URI.create(apiUrl + "/graphql");
+    }
+
+    public static HttpRequest createRepositoryQueryRequest(
+        String apiUrl,
+        String repositoryFullName,
+        String apiToken
+    ) {
+        var ownerAndName = repositoryFullName.split("/", 2);
+        if (ownerAndName.length != 2) {
+            throw new IllegalArgumentException("Invalid repository full name: " + repositoryFullName);
+        }
+
+        var variables = new JsonObject();
+        variables.addProperty("owner", ownerAndName[0]);
+        variables.addProperty("name", ownerAndName[1]);
+
+        var body = new JsonObject();
+        body.addProperty("query", REPOSITORY_QUERY);
+        body.add("variables", variables);
+
+        return HttpRequest.newBuilder()
+            .POST(BodyPublishers.ofString(GSON.toJson(body), UTF_8))
+            .uri(getGraphQlUrl(apiUrl))
+            .setHeader(ACCEPT, "application/json")
+            .setHeader(ACCEPT_ENCODING, "gzip")
+            .setHeader(CONTENT_TYPE, "application/json; charset=utf-8")
+            .setHeader(AUTHORIZATION, "bearer " + apiToken)
+            .build();
+    }
+
+    @SneakyThrows
+    public static RepositoryQueryResult parseRepositoryQueryResponse(String apiUrl, InputStream responseBody) {
+        final JsonObject response;
+        try (var jsonReader = GSON.newJsonReader(new InputStreamReader(responseBody, UTF_8))) {
+            response = JsonParser.parseReader(jsonReader).getAsJsonObject();
+        }
+
+        var errors = response.getAsJsonArray("errors");
+        if (errors != null && !errors.isEmpty()) {
+            var messages = StreamSupport.stream(errors.spliterator(), false)
+                .map(JsonElement::getAsJsonObject)
+                .map(error -> getString(error, "message"))
+                .collect(joining("\n"));
+            throw new HttpRequestException.NotRetryable("GitHub GraphQL API request failed:\n" + messages);
+        }
+
+        var data = getObject(response, "data");
+        var repository = data != null ? getObject(data, "repository") : null;
+        if (repository == null) {
+            throw new HttpRequestException.NotRetryable("GitHub GraphQL API response doesn't contain repository");
+        }
+
+        apiUrl = removeTrailingSlashes(apiUrl);
+        return new RepositoryQueryResult(
+            toRestRepository(apiUrl, repository),
+            toRestLanguages(repository)
+        );
+    }
+
+    @Value
+    public static class RepositoryQueryResult {
+
+        JsonObject repository;
+
+        JsonObject languages;
+
+    }
+
+
+    private static JsonObject toRestRepository(String apiUrl, JsonObject repository) {
+        var fullName = getString(repository, "nameWithOwner");
+        var htmlUrl = getString(repository, "url");
+        var restUrl = apiUrl + "/repos/" + fullName;
+        var stargazersCount = getInt(repository, "stargazerCount");
+        var forksCount = getInt(repository, "forkCount");
+        var openIssuesCount = getTotalCount(repository, "issues") + getTotalCount(repository, "pullRequests");
+
+        var result = new JsonObject();
+        result.add("id", repository.get("databaseId"));
+        result.add("node_id", repository.get("id"));
+        result.add("name", repository.get("name"));
+        result.addProperty("full_name", fullName);
+        result.add("owner", toRestOwner(apiUrl, getRequiredObject(repository, "owner")));
+        result.add("private", repository.get("isPrivate"));
+        result.addProperty("html_url", htmlUrl);
+        result.add("description", repository.get("description"));
+        result.add("fork", repository.get("isFork"));
+        result.addProperty("url", restUrl);
+        result.addProperty("archive_url", restUrl + "/{archive_format}{/ref}");
+        result.addProperty("assignees_url", restUrl + "/assignees{/user}");
+        result.addProperty("blobs_url", restUrl + "/git/blobs{/sha}");
+        result.addProperty("branches_url", restUrl + "/branches{/branch}");
+        result.addProperty("collaborators_url", restUrl + "/collaborators{/collaborator}");
+        result.addProperty("comments_url", restUrl + "/comments{/number}");
+        result.addProperty("commits_url", restUrl + "/commits{/sha}");
+        result.addProperty("compare_url", restUrl + "/compare/{base}...{head}");
+        result.addProperty("contents_url", restUrl + "/contents/{+path}");
+        result.addProperty("contributors_url", restUrl + "/contributors");
+        result.addProperty("deployments_url", restUrl + "/deployments");
+        result.addProperty("downloads_url", restUrl + "/downloads");
+        result.addProperty("events_url", restUrl + "/events");
+        result.addProperty("forks_url", restUrl + "/forks");
+        result.addProperty("git_commits_url", restUrl + "/git/commits{/sha}");
+        result.addProperty("git_refs_url", restUrl + "/git/refs{/sha}");
+        result.addProperty("git_tags_url", restUrl + "/git/tags{/sha}");
+        result.addProperty("git_url", htmlUrl.replaceFirst("^https?://", "git://") + ".git");
+        result.addProperty("hooks_url", restUrl + "/hooks");
+        result.addProperty("issue_comment_url", restUrl + "/issues/comments{/number}");
+        result.addProperty("issue_events_url", restUrl + "/issues/events{/number}");
+        result.addProperty("issues_url", restUrl + "/issues{/number}");
+        result.addProperty("keys_url", restUrl + "/keys{/key_id}");
+        result.addProperty("labels_url", restUrl + "/labels{/name}");
+        result.addProperty("languages_url", restUrl + "/languages");
+        result.addProperty("merges_url", restUrl + "/merges");
+        result.addProperty("milestones_url", restUrl + "/milestones{/number}");
+        result.addProperty("notifications_url", restUrl + "/notifications{?since,all,participating}");
+        result.addProperty("pulls_url", restUrl + "/pulls{/number}");
+        result.addProperty("releases_url", restUrl + "/releases{/id}");
+        result.addProperty("ssh_url", getString(repository, "sshUrl"));
+        result.addProperty("stargazers_url", restUrl + "/stargazers");
+        result.addProperty("statuses_url", restUrl + "/statuses/{sha}");
+        result.addProperty("subscribers_url", restUrl + "/subscribers");
+        result.addProperty("subscription_url", restUrl + "/subscription");
+        result.addProperty("tags_url", restUrl + "/tags");
+        result.addProperty("teams_url", restUrl + "/teams");
+        result.addProperty("trees_url", restUrl + "/git/trees{/sha}");
+        result.addProperty("clone_url", htmlUrl + ".git");
+        result.add("mirror_url", repository.get("mirrorUrl"));
+        result.addProperty("svn_url", htmlUrl);
+        result.add("homepage", nullIfEmpty(repository.get("homepageUrl")));
+        result.addProperty("language", getNestedString(repository, "primaryLanguage", "name"));
+        result.addProperty("forks", forksCount);
+        result.addProperty("forks_count", forksCount);
+        result.addProperty("stargazers_count", stargazersCount);
+        result.addProperty("watchers", stargazersCount);
+        result.addProperty("watchers_count", stargazersCount);
+        result.addProperty("subscribers_count", getTotalCount(repository, "watchers"));
+        // GraphQL API doesn't expose the number of forks in the whole network
+        result.addProperty("network_count", forksCount);
+        result.add("size", repository.get("diskUsage"));
+        result.addProperty("default_branch", getNestedString(repository, "defaultBranchRef", "name"));
+        result.addProperty("open_issues", openIssuesCount);
+        result.addProperty("open_issues_count", openIssuesCount);
+        result.add("is_template", repository.get("isTemplate"));
+        result.add("topics", toRestTopics(repository));
+        result.add("has_issues", repository.get("hasIssuesEnabled"));
+        result.add("has_projects", repository.get("hasProjectsEnabled"));
+        result.add("has_wiki", repository.get("hasWikiEnabled"));
+        // GraphQL API doesn't expose Pages and Downloads flags
+        result.addProperty("has_pages", false);
+        result.addProperty("has_downloads", true);
+        result.add("has_discussions", repository.get("hasDiscussionsEnabled"));
+        result.add("archived", repository.get("isArchived"));
+        result.add("disabled", repository.get("isDisabled"));
+        result.addProperty("visibility", getString(repository, "visibility").toLowerCase(ROOT));
+        result.add("pushed_at", repository.get("pushedAt"));
+        result.add("created_at", repository.get("createdAt"));
+        result.add("updated_at", repository.get("updatedAt"));
+        result.add("allow_forking", repository.get("forkingAllowed"));
+        result.add("web_commit_signoff_required", repository.get("webCommitSignoffRequired"));
+        result.add("license", toRestLicense(apiUrl, getObject(repository, "licenseInfo")));
+        return result;
+    }
+
+    private static JsonObject toRestOwner(String apiUrl, JsonObject owner) {
+        var login = getString(owner, "login");
+        var restUrl = apiUrl + "/users/" + login;
+
+        var result = new JsonObject();
+        result.addProperty("login", login);
+        result.add("id", owner.get("databaseId"));
+        result.add("node_id", owner.get("id"));
+        result.add("avatar_url", owner.get("avatarUrl"));
+        result.addProperty("gravatar_id", "");
+        result.addProperty("url", restUrl);
+        result.add("html_url", owner.get("url"));
+        result.addProperty("followers_url", restUrl + "/followers");
+        result.addProperty("following_url", restUrl + "/following{/other_user}");
+        result.addProperty("gists_url", restUrl + "/gists{/gist_id}");
+        result.addProperty("starred_url", restUrl + "/starred{/owner}{/repo}");
+        result.addProperty("subscriptions_url", restUrl + "/subscriptions");
+        result.addProperty("organizations_url", restUrl + "/orgs");
+        result.addProperty("repos_url", restUrl + "/repos");
+        result.addProperty("events_url", restUrl + "/events{/privacy}");
+        result.addProperty("received_events_url", restUrl + "/received_events");
+        result.add("type", owner.get("__typename"));
+        // Only users can be site admins
+        var isSiteAdmin = owner.get("isSiteAdmin");
+        result.addProperty(
+            "site_admin",
+            isSiteAdmin != null && isSiteAdmin.isJsonPrimitive() && isSiteAdmin.getAsBoolean()
+        );
+        return result;
+    }
+
+    private static JsonElement toRestLicense(String apiUrl, @Nullable JsonObject license) {
+        if (license == null) {
+            return JsonNull.INSTANCE;
+        }
+
+        var key = getString(license, "key");
+
+        var result = new JsonObject();
+        result.addProperty("key", key);
+        result.add("name", license.get("name"));
+        result.add("spdx_id", license.get("spdxId"));
+        result.addProperty("url", apiUrl + "/licenses/" + key);
+        result.add("node_id", license.get("id"));
+        result.add("html_url", license.get("url"));
+        return result;
+    }
+
+    private static JsonArray toRestTopics(JsonObject repository) {
+        var result = new JsonArray();
+        var topics = getObject(repository, "repositoryTopics");
+        var nodes = topics != null ? topics.getAsJsonArray("nodes") : null;
+        if (nodes != null) {
+            for (var node : nodes) {
+                var name = getNestedString(node.getAsJsonObject(), "topic", "name");
+                if (name != null) {
+                    result.add(name);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static JsonObject toRestLanguages(JsonObject repository) {
+        var result = new JsonObject();
+        var languages = getObject(repository, "languages");
+        var edges = languages != null ? languages.getAsJsonArray("edges") : null;
+        if (edges != null) {
+            for (var edge : edges) {
+                var edgeObject = edge.getAsJsonObject();
+                var name = getNestedString(edgeObject, "node", "name");
+                if (name != null) {
+                    result.add(name, edgeObject.get("size"));
+                }
+            }
+        }
+        return result;
+    }
+
+
+    private static String removeTrailingSlashes(String url) {
+        while (url.endsWith("/")) {
+            url = url.substring(0, url.length() - 1);
+        }
+        return url;
+    }
+
+    @Nullable
+    private static JsonObject getObject(JsonObject object, String property) {
+        var element = object.get(property);
+        if (element == null || !element.isJsonObject()) {
+            return null;
+        }
+        return element.getAsJsonObject();
+    }
+
+    private static JsonObject getRequiredObject(JsonObject object, String property) {
+        var result = getObject(object, property);
+        if (result == null) {
+            throw new HttpRequestException.NotRetryable(format(
+                "GitHub GraphQL API response doesn't contain `%s` property",
+                property
+            ));
+        }
+        return result;
+    }
+
+    private static String getString(JsonObject object, String property) {
+        var element = object.get(property);
+        if (element == null || !element.isJsonPrimitive()) {
+            throw new HttpRequestException.NotRetryable(format(
+                "GitHub GraphQL API response doesn't contain `%s` property",
+                property
+            ));
+        }
+        return element.getAsString();
+    }
+
+    @Nullable
+    private static String getNestedString(JsonObject object, String property, String nestedProperty) {
+        var nestedObject = getObject(object, property);
+        if (nestedObject == null) {
+            return null;
+        }
+
+        var element = nestedObject.get(nestedProperty);
+        if (element == null || !element.isJsonPrimitive()) {
+            return null;
+        }
+        return element.getAsString();
+    }
+
+    private static int getInt(JsonObject object, String property) {
+        var element = object.get(property);
+        if (element == null || !element.isJsonPrimitive()) {
+            return 0;
+        }
+        return element.getAsInt();
+    }
+
+    private static int getTotalCount(JsonObject object, String property) {
+        var connection = getObject(object, property);
+        if (connection == null) {
+            return 0;
+        }
+        return getInt(connection, "totalCount");
+    }
+
+    private static JsonElement nullIfEmpty(@Nullable JsonElement element) {
+        if (element == null
+            || element.isJsonNull()
+            || (element.isJsonPrimitive() && element.getAsString().isEmpty())
+        ) {
+            return JsonNull.INSTANCE;
+        }
+        return element;
+    }
+
+}
@@ -0,0 +1,194 @@
+package name.remal.gradle_plugins.github_repository_info;
+
+import static com.google.common.net.HttpHeaders.AUTHORIZATION;
+import static java.lang.Long.parseLong;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.concurrent.CompletableFuture.delayedExecutor;
+import static java.util.concurrent.CompletableFuture.failedFuture;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.apache.commons.codec.digest.DigestUtils.sha256Hex;
+
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
+import lombok.CustomLog;
+import lombok.Value;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * See <a href="https://docs.github.com/en/rest/using-the-rest-api/rate-limits-for-the-rest-api">Rate limits
+ * for the REST API</a>.
+ */
+@CustomLog
+class GitHubRateLimiter {
+
+    public static final String CORE_RESOURCE = "core";
+
+    public static final String GRAPHQL_RESOURCE = "graphql";
+
+    private static final String ANONYMOUS_TOKEN_KEY = "anonymous";
+
+    private static final int LOW_REMAINING_PERCENT = 10;
+
+    // GitHub's clock and ours can differ a bit
+    private static final Duration RESET_SLACK = Duration.ofSeconds(1);
+
+    private static final Duration MAX_DELAY = Duration.ofMinutes(1);
+
+
+    private final ConcurrentMap<RateLimitKey, RateLimitState> states = new ConcurrentHashMap<>();
+
+    private final LongSupplier currentTimeMillis;
+
+    public GitHubRateLimiter() {
+        this(System::currentTimeMillis);
+    }
+
+    GitHubRateLimiter(LongSupplier currentTimeMillis) {
+        this.currentTimeMillis = currentTimeMillis;
+    }
+
+
+    public CompletableFuture<Void> acquireAsync(HttpRequest request, String resource) {
+        var tokenKey = getTokenKey(request);
+        final long delayMillis;
+        try {
+            delayMillis = reserve(tokenKey, resource);
+        } catch (HttpRequestException exception) {
+            return failedFuture(exception);
+        }
+
+        if (delayMillis <= 0) {
+            return completedFuture(null);
+        }
+
+        logger.info(
+            "GitHub API rate limit for `{}` resource is almost exhausted, delaying {} {} by {} ms",
+            resource,
+            request.method(),
+            request.uri(),
+            delayMillis
+        );
+        return CompletableFuture.runAsync(() -> { }, delayedExecutor(delayMillis, MILLISECONDS));
+    }
+
+    public void update(HttpRequest request, HttpHeaders responseHeaders) {
+        update(getTokenKey(request), responseHeaders);
+    }
+
+
+    /**
+     * Returns how long the reserved request should be delayed, in milliseconds.
+     */
+    long reserve(String tokenKey, String resource) {
+        var state = states.get(new RateLimitKey(tokenKey, resource));
+        if (state == null) {
+            return 0;
+        }
+
+        synchronized (state) {
+            var now = currentTimeMillis.getAsLong();
+            if (now >= state.resetAtMillis) {
+                // The window has been reset, the budget is unknown until the next response
+                return 0;
+            }
+
+            if (state.remaining * 100 > state.limit * LOW_REMAINING_PERCENT) {
+                state.remaining--;
+                return 0;
+            }
+
+            final long sendAtMillis;
+            if (state.remaining <= 0) {
+                sendAtMillis = state.resetAtMillis + RESET_SLACK.toMillis();
+            } else {
+                var intervalMillis = (state.resetAtMillis - now) / state.remaining;
+                sendAtMillis = max(now, state.nextRequestAtMillis);
+                state.nextRequestAtMillis = sendAtMillis + intervalMillis;
+                state.remaining--;
+            }
+
+            var delayMillis = sendAtMillis - now;
+            if (delayMillis > MAX_DELAY.toMillis()) {
+                throw new HttpRequestException.NotRetryable(format(
+                    "GitHub API rate limit for `%s` resource is exhausted until %s",
+                    resource,
+                    Instant.ofEpochMilli(state.resetAtMillis)
+                ));
+            }
+            return delayMillis;
+        }
+    }
+
+    void update(String tokenKey, HttpHeaders responseHeaders) {
+        var limit = parseLongHeader(responseHeaders, "X-RateLimit-Limit");
+        var remaining = parseLongHeader(responseHeaders, "X-RateLimit-Remaining");
+        var resetAtSeconds = parseLongHeader(responseHeaders, "X-RateLimit-Reset");
+        if (limit == null || remaining == null || resetAtSeconds == null) {
+            return;
+        }
+
+        var resource = responseHeaders.firstValue("X-RateLimit-Resource").orElse(CORE_RESOURCE);
+        var resetAtMillis = resetAtSeconds * 1000;
+
+        var state = states.computeIfAbsent(new RateLimitKey(tokenKey, resource), __ -> new RateLimitState());
+        synchronized (state) {
+            if (resetAtMillis > state.resetAtMillis) {
+                // A new window
+                state.limit = limit;
+                state.remaining = remaining;
+                state.resetAtMillis = resetAtMillis;
+                state.nextRequestAtMillis = 0;
+
+            } else if (resetAtMillis == state.resetAtMillis) {
+                // Responses of concurrent requests can arrive in any order, so the lowest value is the most recent
+                state.limit = limit;
+                state.remaining = min(state.remaining, remaining);
+            }
+        }
+    }
+
+    static String getTokenKey(HttpRequest request) {
+        return request.headers().firstValue(AUTHORIZATION)
+            .map(authorization -> sha256Hex(authorization.getBytes(UTF_8)))
+            .orElse(ANONYMOUS_TOKEN_KEY);
+    }
+
+    @Nullable
+    private static Long parseLongHeader(HttpHeaders headers, String name) {
+        var value = headers.firstValue(name).orElse(null);
+        if (value == null) {
+            return null;
+        }
+
+        try {
+            return parseLong(value.trim());
+        } catch (NumberFormatException ignored) {
+            return null;
+        }
+    }
+
+
+    @Value
+    private static class RateLimitKey {
+        String tokenKey;
+        String resource;
+    }
+
+    private static class RateLimitState {
+        long limit;
+        long remaining;
+        long resetAtMillis;
+        long nextRequestAtMillis;
+    }
+
+}
@@ -0,0 +1,9 @@
+package name.remal.gradle_plugins.github_repository_info;
+
+import com.google.gson.reflect.TypeToken;
+
+interface GitHubRepositoryInfoEndpointFetcher {
+
+    <T> T fetch(String endpointName, TypeToken<T> type);
+
+}
@@ -2,8 +2,15 @@ package name.remal.gradle_plugins.github_repository_info;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.nio.file.Files.readAllBytes;
+import static java.nio.file.Files.readString;
+import static java.util.Collections.unmodifiableMap;
 import static java.util.Comparator.comparing;
+import static name.remal.gradle_plugins.github_repository_info.CompletableFutureUtils.joinUnwrapped;
+import static name.remal.gradle_plugins.github_repository_info.GitHubDataFetcher.GRAPHQL_CACHE_KEY_SUFFIX;
+import static name.remal.gradle_plugins.github_repository_info.GitHubRepositoryInfoPlugin.GITHUB_REPOSITORY_INFO_EXTENSION_NAME;
+import static name.remal.gradle_plugins.github_repository_info.JsonUtils.GSON;
 import static name.remal.gradle_plugins.toolkit.ConfigurationCacheSafeSystem.getConfigurationCacheSafeOptionalEnv;
+import static name.remal.gradle_plugins.toolkit.PathUtils.normalizePath;
 import static name.remal.gradle_plugins.toolkit.StringUtils.substringBefore;
 import static org.eclipse.jgit.lib.Constants.CONFIG;
 import static org.eclipse.jgit.lib.Constants.DEFAULT_REMOTE_NAME;
@@ -11,27 +18,248 @@ import static org.eclipse.jgit.lib.Constants.DOT_GIT;
 import static org.eclipse.jgit.lib.Constants.DOT_GIT_EXT;
 import static org.eclipse.jgit.transport.RemoteConfig.getAllRemoteConfigs;
 
+import com.google.errorprone.annotations.ForOverride;
+import com.google.gson.reflect.TypeToken;
 import java.io.File;
 import java.nio.file.NoSuchFileException;
+import java.time.Duration;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import javax.inject.Inject;
+import lombok.SneakyThrows;
 import name.remal.gradle_plugins.toolkit.ObjectUtils;
 import org.eclipse.jgit.lib.Config;
 import org.eclipse.jgit.transport.RemoteConfig;
 import org.eclipse.jgit.transport.URIish;
 import org.gradle.api.file.Directory;
 import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.ProjectLayout;
+import org.gradle.api.file.RegularFile;
 import org.gradle.api.model.ObjectFactory;
 import org.gradle.api.provider.Property;
+import org.gradle.api.provider.Provider;
 import org.gradle.api.provider.ProviderFactory;
 import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.TaskContainer;
+import org.gradle.api.tasks.TaskProvider;
 import org.gradle.initialization.BuildCancellationToken;
+import org.jspecify.annotations.Nullable;
 
 abstract class GitHubRepositoryInfoExtensionBase implements GitHubRepositoryInfoSettings {
 
+    private static final Duration DEFAULT_CACHE_MAX_AGE = Duration.ofHours(1);
+
+
     @Internal
     protected abstract Property<GitHubDataFetcher> getGitHubDataFetcher();
 
+    /**
+     * Relative URLs of the endpoints by endpoint name. They are all prefetched when one of them is fetched.
+     */
+    @ForOverride
+    protected abstract Map<String, String> createRepositoryEndpoints(String repositoryFullName);
+
+    @ForOverride
+    protected abstract Map<String, TypeToken<?>> createEndpointTypes();
+
+    @ForOverride
+    protected abstract Map<String, Class<? extends AbstractRetrieveGitHubRepositoryInfoTask<?>>>
+        createEndpointTaskTypes();
+
+    @Nullable
+    private TaskContainer tasks;
+
+    private final Map<String, TaskProvider<? extends AbstractRetrieveGitHubRepositoryInfoTask<?>>> endpointTasks =
+        new LinkedHashMap<>();
+
+    void setTasks(TaskContainer tasks) {
+        this.tasks = tasks;
+    }
+
+    void registerEndpointTasks() {
+        createEndpointTaskTypes().keySet().forEach(this::getOrRegisterEndpointTask);
+    }
+
+    private synchronized TaskProvider<? extends AbstractRetrieveGitHubRepositoryInfoTask<?>> getOrRegisterEndpointTask(
+        String endpointName
+    ) {
+        var task = endpointTasks.get(endpointName);
+        if (task != null) {
+            return task;
+        }
+
+        var taskType = createEndpointTaskTypes().get(endpointName);
+        if (taskType == null) {
+            throw new IllegalArgumentException("Unknown endpoint: " + endpointName);
+        }
+        if (tasks == null) {
+            throw new IllegalStateException("Endpoint tasks can't be registered before the plugin is applied");
+        }
+
+        var taskName = GITHUB_REPOSITORY_INFO_EXTENSION_NAME
+            + Character.toUpperCase(endpointName.charAt(0)) + endpointName.substring(1);
+        task = tasks.register(taskName, taskType, it -> {
+            it.setDescription("Retrieves GitHub repository information: " + endpointName);
+            it.getOutputJsonFile().set(getLayout().getBuildDirectory().file(taskName + "/output.json"));
+            it.expireOutputAfterCacheMaxAge();
+        });
+        endpointTasks.put(endpointName, task);
+        return task;
+    }
+
+    protected final <T> Provider<T> createEndpointProvider(String endpointName, TypeToken<T> type) {
+        return getUseTaskOutputs().flatMap(useTaskOutputs -> {
+            if (!useTaskOutputs) {
+                return getProviders().provider(() ->
+                    fetch(getRepositoryFullName().get(), endpointName, type)
+                );
+            }
+
+            return getOrRegisterEndpointTask(endpointName)
+                .flatMap(AbstractRetrieveGitHubRepositoryInfoTask::getOutputJsonFile)
+                .map(file -> parseTaskOutputJsonFile(file, type));
+        });
+    }
+
+    @SneakyThrows
+    private static <T> T parseTaskOutputJsonFile(RegularFile file, TypeToken<T> type) {
+        var json = readString(normalizePath(file.getAsFile().toPath()), UTF_8);
+        return GSON.fromJson(json, type);
+    }
+
+    protected final <T> T fetch(String repositoryFullName, String endpointName, TypeToken<T> type) {
+        prefetchRepository(repositoryFullName);
+
+        var relativeUrl = createRepositoryEndpoints(repositoryFullName).get(endpointName);
+        if (relativeUrl == null) {
+            throw new IllegalArgumentException("Unknown endpoint: " + endpointName);
+        }
+        relativeUrl = resolveRelativeUrl(endpointName, relativeUrl, type);
+        relativeUrl = withGraphQlCacheKeySuffix(endpointName, relativeUrl);
+
+        var result = getGitHubDataFetcher().get().fetchAsync(
+            getGithubApiUrl().get(),
+            relativeUrl,
+            getGithubApiToken().getOrNull(),
+            type,
+            resolveCacheMaxAge(endpointName),
+            getCancellationToken()
+        );
+        return joinUnwrapped(result);
+    }
+
+    private final Set<String> prefetchedRepositoryFullNames = ConcurrentHashMap.newKeySet();
+
+    private void prefetchRepository(String repositoryFullName) {
+        if (!prefetchedRepositoryFullNames.add(repositoryFullName)) {
+            return;
+        }
+
+        var dataFetcher = getGitHubDataFetcher().get();
+        var apiUrl = getGithubApiUrl().get();
+        var apiToken = getGithubApiToken().getOrNull();
+        var cancellationToken = getCancellationToken();
+
+        if (isGraphQlUsed()) {
+            var repositoryMaxAge = resolveCacheMaxAge("repository");
+            var languagesMaxAge = resolveCacheMaxAge("languages");
+            dataFetcher.prefetchRepositoryViaGraphQlAsync(
+                apiUrl,
+                repositoryFullName,
+                apiToken,
+                repositoryMaxAge.compareTo(languagesMaxAge) <= 0 ? repositoryMaxAge : languagesMaxAge,
+                cancellationToken
+            );
+        }
+
+        var endpointTypes = createEndpointTypes();
+        Map<String, Duration> relativeUrlsWithMaxAge = new LinkedHashMap<>();
+        createRepositoryEndpoints(repositoryFullName).forEach((endpointName, relativeUrl) -> {
+            var type = endpointTypes.get(endpointName);
+            if (type != null) {
+                relativeUrl = resolveRelativeUrl(endpointName, relativeUrl, type);
+            }
+            relativeUrl = withGraphQlCacheKeySuffix(endpointName, relativeUrl);
+            relativeUrlsWithMaxAge.put(relativeUrl, resolveCacheMaxAge(endpointName));
+        });
+        dataFetcher.prefetchAsync(apiUrl, relativeUrlsWithMaxAge, apiToken, cancellationToken);
+    }
+
+    private static final Set<String> GRAPHQL_ENDPOINT_NAMES = Set.of("repository", "languages");
+
+    // The GraphQL response has all the fields, so it can't be used for projected responses
+    private boolean isGraphQlUsed() {
+        var apiToken = getGithubApiToken().getOrNull();
+        return getUseGraphQl().get()
+            && apiToken != null
+            && !apiToken.isEmpty()
+            && GRAPHQL_ENDPOINT_NAMES.stream().noneMatch(this::hasRetainedFields);
+    }
+
+    private String withGraphQlCacheKeySuffix(String endpointName, String relativeUrl) {
+        if (GRAPHQL_ENDPOINT_NAMES.contains(endpointName) && isGraphQlUsed()) {
+            return relativeUrl + GRAPHQL_CACHE_KEY_SUFFIX;
+        }
+        return relativeUrl;
+    }
+
+    private boolean hasRetainedFields(String endpointName) {
+        return !getEndpointRetainedFields().getting(endpointName).getOrElse(List.of()).isEmpty();
+    }
+
+
+    /**
+     * @param repositoryFullName repository full name (e.g., {@code owner/repo})
+     */
+    public final GitHubRepositoryInfoProviders repository(String repositoryFullName) {
+        return repositories(List.of(repositoryFullName)).get(repositoryFullName);
+    }
+
+    /**
+     * All the repositories are fetched concurrently, when any of the returned providers is queried.
+     */
+    public final Map<String, GitHubRepositoryInfoProviders> repositories(Iterable<String> repositoryFullNames) {
+        Set<String> batch = new LinkedHashSet<>();
+        repositoryFullNames.forEach(batch::add);
+
+        var isBatchPrefetched = new AtomicBoolean();
+        Map<String, GitHubRepositoryInfoProviders> result = new LinkedHashMap<>();
+        for (var repositoryFullName : batch) {
+            var endpointFetcher = new GitHubRepositoryInfoEndpointFetcher() {
+                @Override
+                public <T> T fetch(String endpointName, TypeToken<T> type) {
+                    if (isBatchPrefetched.compareAndSet(false, true)) {
+                        batch.forEach(GitHubRepositoryInfoExtensionBase.this::prefetchRepository);
+                    }
+                    return GitHubRepositoryInfoExtensionBase.this.fetch(repositoryFullName, endpointName, type);
+                }
+            };
+            result.put(
+                repositoryFullName,
+                new GitHubRepositoryInfoProviders(repositoryFullName, getProviders(), endpointFetcher)
+            );
+        }
+        return unmodifiableMap(result);
+    }
+
+
+    /**
+     * Fetch {@code repository} and {@code languages} with a single GraphQL API request, if there is an API token.
+     */
+    @Internal
+    public abstract Property<Boolean> getUseGraphQl();
+
+    /**
+     * Back the properties by outputs of {@code githubRepositoryInfo*} tasks, so they can only be used as task inputs.
+     */
+    @Internal
+    public abstract Property<Boolean> getUseTaskOutputs();
 
     @Internal
     public abstract DirectoryProperty getRepositoryRootDir();
@@ -57,6 +285,21 @@ abstract class GitHubRepositoryInfoExtensionBase implements GitHubRepositoryInfo
                 .orElse(getProviders().gradleProperty("name.remal.github-repository-info.api-token"))
                 .orElse(getProviders().gradleProperty("name.remal.github-repository-info.api.token"))
         );
+        getCacheMaxAge().convention(
+            getProviders().gradleProperty("name.remal.github-repository-info.cache-max-age")
+                .map(Duration::parse)
+                .orElse(DEFAULT_CACHE_MAX_AGE)
+        );
+        getUseGraphQl().convention(
+            getProviders().gradleProperty("name.remal.github-repository-info.use-graphql")
+                .map(Boolean::parseBoolean)
+                .orElse(false)
+        );
+        getUseTaskOutputs().convention(
+            getProviders().gradleProperty("name.remal.github-repository-info.use-task-outputs")
+                .map(Boolean::parseBoolean)
+                .orElse(false)
+        );
         getGithubServerUrl().convention(
             getProviders().environmentVariable("GITHUB_SERVER_URL")
                 .orElse(getGitRemoteHost().map(host -> "https://" + host))
@@ -135,6 +378,9 @@ abstract class GitHubRepositoryInfoExtensionBase implements GitHubRepositoryInfo
     @Inject
     protected abstract ObjectFactory getObjects();
 
+    @Inject
+    protected abstract ProjectLayout getLayout();
+
     @Inject
     protected abstract BuildCancellationToken getCancellationToken();
 
@@ -0,0 +1,44 @@
+package name.remal.gradle_plugins.github_repository_info;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.Files.newBufferedWriter;
+import static name.remal.gradle_plugins.github_repository_info.JsonUtils.GSON;
+import static name.remal.gradle_plugins.toolkit.PathUtils.createParentDirectories;
+import static name.remal.gradle_plugins.toolkit.PathUtils.normalizePath;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.TaskAction;
+import org.gradle.work.DisableCachingByDefault;
+
+/**
+ * Should be executed after the tasks using GitHub repository information, as metrics are collected until then.
+ */
+@DisableCachingByDefault(because = "Metrics of the current build are written")
+public abstract class GitHubRepositoryInfoMetricsReport extends DefaultTask {
+
+    @OutputFile
+    public abstract RegularFileProperty getReportFile();
+
+    @Internal
+    protected abstract Property<GitHubDataFetcher> getGitHubDataFetcher();
+
+    {
+        getOutputs().upToDateWhen(__ -> false);
+    }
+
+    @TaskAction
+    public void execute() throws Throwable {
+        var report = getGitHubDataFetcher().get().createMetricsReport();
+
+        var reportPath = normalizePath(getReportFile().get().getAsFile().toPath());
+        createParentDirectories(reportPath);
+        try (var writer = newBufferedWriter(reportPath, UTF_8)) {
+            GSON.toJson(report, writer);
+        }
+    }
+
+}
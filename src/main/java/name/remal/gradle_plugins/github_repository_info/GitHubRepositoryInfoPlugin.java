@@ -1,13 +1,20 @@
 package name.remal.gradle_plugins.github_repository_info;
 
+import static java.lang.String.format;
 import static java.lang.String.join;
 import static java.lang.System.identityHashCode;
+import static java.util.stream.Collectors.joining;
+import static name.remal.gradle_plugins.github_repository_info.GitHubDataFetcher.MIN_HTTP_THREADS;
 import static name.remal.gradle_plugins.toolkit.CiUtils.getCiSystem;
 import static name.remal.gradle_plugins.toolkit.GradleManagedObjectsUtils.copyManagedProperties;
 import static name.remal.gradle_plugins.toolkit.ObjectUtils.doNotInline;
 import static name.remal.gradle_plugins.toolkit.git.GitUtils.findGitRepositoryRootFor;
 
+import java.io.File;
+import java.net.http.HttpClient.Version;
+import java.time.Duration;
 import java.util.Optional;
+import java.util.stream.Stream;
 import name.remal.gradle_plugins.toolkit.CiSystem;
 import org.gradle.api.Plugin;
 import org.gradle.api.Project;
@@ -17,13 +24,90 @@ public abstract class GitHubRepositoryInfoPlugin implements Plugin<Project> {
 
     public static final String GITHUB_REPOSITORY_INFO_EXTENSION_NAME = doNotInline("githubRepositoryInfo");
 
+    public static final String GITHUB_REPOSITORY_INFO_METRICS_REPORT_TASK_NAME =
+        doNotInline("githubRepositoryInfoMetricsReport");
+
     @Override
     @SuppressWarnings("unchecked")
     public void apply(Project project) {
         var dataFetcher = project.getGradle().getSharedServices().registerIfAbsent(
             getBuildServiceName(GitHubDataFetcher.class),
             GitHubDataFetcher.class,
-            __ -> { }
+            spec -> {
+                var params = spec.getParameters();
+                params.getConnectTimeout().set(
+                    project.getProviders().gradleProperty("name.remal.github-repository-info.http.connect-timeout")
+                        .map(Duration::parse)
+                );
+                var httpVersionProperty = "name.remal.github-repository-info.http.version";
+                params.getHttpVersion().set(
+                    project.getProviders().gradleProperty(httpVersionProperty)
+                        .map(httpVersion -> parseHttpVersion(httpVersionProperty, httpVersion))
+                );
+                var httpThreadsProperty = "name.remal.github-repository-info.http.threads";
+                params.getHttpThreads().set(
+                    project.getProviders().gradleProperty(httpThreadsProperty)
+                        .map(httpThreads -> parseHttpThreads(httpThreadsProperty, httpThreads))
+                );
+
+                var sharedCacheDirectory = new File(
+                    project.getGradle().getGradleUserHomeDir(),
+                    "caches/name.remal.github-repository-info"
+                );
+                params.getSharedCacheDirectory().fileProvider(
+                    project.getProviders().gradleProperty("name.remal.github-repository-info.shared-cache")
+                        .map(Boolean::parseBoolean)
+                        .map(enabled -> enabled ? sharedCacheDirectory : null)
+                );
+                params.getSharedCacheMaxSizeBytes().set(
+                    project.getProviders().gradleProperty("name.remal.github-repository-info.shared-cache.max-size-mb")
+                        .map(maxSizeMb -> Long.parseLong(maxSizeMb) * 1024 * 1024)
+                );
+                params.getSharedCacheMaxAge().set(
+                    project.getProviders().gradleProperty("name.remal.github-repository-info.shared-cache.max-age")
+                        .map(Duration::parse)
+                );
+
+                params.getMaxRetries().set(
+                    project.getProviders().gradleProperty("name.remal.github-repository-info.retry.max-retries")
+                        .map(Integer::parseInt)
+                );
+                params.getInitialRetryBackoff().set(
+                    project.getProviders().gradleProperty("name.remal.github-repository-info.retry.initial-backoff")
+                        .map(Duration::parse)
+                );
+                params.getMaxRetryBackoff().set(
+                    project.getProviders().gradleProperty("name.remal.github-repository-info.retry.max-backoff")
+                        .map(Duration::parse)
+                );
+                params.getCircuitBreakerFailureThreshold().set(
+                    project.getProviders()
+                        .gradleProperty("name.remal.github-repository-info.circuit-breaker.failure-threshold")
+                        .map(Integer::parseInt)
+                );
+                params.getCircuitBreakerOpenDuration().set(
+                    project.getProviders()
+                        .gradleProperty("name.remal.github-repository-info.circuit-breaker.open-duration")
+                        .map(Duration::parse)
+                );
+
+                params.getHedgedRequests().set(
+                    project.getProviders().gradleProperty("name.remal.github-repository-info.http.hedged-requests")
+                        .map(Boolean::parseBoolean)
+                );
+
+                params.getOffline().set(project.getGradle().getStartParameter().isOffline());
+
+                params.getLazyModels().set(
+                    project.getProviders().gradleProperty("name.remal.github-repository-info.lazy-models")
+                        .map(Boolean::parseBoolean)
+                );
+
+                params.getTrace().set(
+                    project.getProviders().gradleProperty("name.remal.github-repository-info.trace")
+                        .map(Boolean::parseBoolean)
+                );
+            }
         );
         dataFetcher.get().registerProject(project);
 
@@ -48,6 +132,58 @@ public abstract class GitHubRepositoryInfoPlugin implements Plugin<Project> {
             task.getGitHubDataFetcher().set(dataFetcher);
             task.usesService(dataFetcher);
         });
+
+        extension.setTasks(project.getTasks());
+        project.afterEvaluate(__ -> {
+            if (extension.getUseTaskOutputs().get()) {
+                extension.registerEndpointTasks();
+            }
+        });
+
+        // Metrics are collected by the build service, so they are the same for all projects of the build
+        if (project.getParent() != null) {
+            return;
+        }
+
+        project.getTasks().register(
+            GITHUB_REPOSITORY_INFO_METRICS_REPORT_TASK_NAME,
+            GitHubRepositoryInfoMetricsReport.class,
+            task -> {
+                task.setDescription("Writes metrics of GitHub repository information fetched by the current build");
+                task.getReportFile().convention(
+                    project.getLayout().getBuildDirectory().file("reports/github-repository-info/metrics.json")
+                );
+                task.getGitHubDataFetcher().set(dataFetcher);
+                task.usesService(dataFetcher);
+                task.mustRunAfter(project.getTasks().withType(AbstractRetrieveGitHubRepositoryInfoTask.class));
+            }
+        );
+    }
+
+    static Version parseHttpVersion(String propertyName, String value) {
+        try {
+            return Version.valueOf(value.trim());
+        } catch (IllegalArgumentException exception) {
+            throw new IllegalArgumentException(format(
+                "Invalid value of `%s` Gradle property: `%s`. Allowed values: %s",
+                propertyName,
+                value,
+                Stream.of(Version.values()).map(Version::name).collect(joining(", "))
+            ), exception);
+        }
+    }
+
+    static int parseHttpThreads(String propertyName, String value) {
+        var threads = Integer.parseInt(value.trim());
+        if (threads < MIN_HTTP_THREADS) {
+            throw new IllegalArgumentException(format(
+                "Invalid value of `%s` Gradle property: `%s`. It must be at least %d",
+                propertyName,
+                value,
+                MIN_HTTP_THREADS
+            ));
+        }
+        return threads;
     }
 
     private static String getBuildServiceName(Class<? extends BuildService<?>> serviceClass) {
@@ -1,5 +1,9 @@
 package name.remal.gradle_plugins.github_repository_info;
 
+import com.google.gson.reflect.TypeToken;
+import java.time.Duration;
+import java.util.List;
+import org.gradle.api.provider.MapProperty;
 import org.gradle.api.provider.Property;
 import org.gradle.api.tasks.Input;
 import org.gradle.api.tasks.Internal;
@@ -15,4 +19,33 @@ interface GitHubRepositoryInfoSettings {
     @Internal
     Property<String> getGithubApiToken();
 
+    /**
+     * How long cached responses are used without revalidation.
+     */
+    @Internal
+    Property<Duration> getCacheMaxAge();
+
+    /**
+     * Overrides {@link #getCacheMaxAge()} by endpoint name, for example, {@code contributors}.
+     */
+    @Internal
+    MapProperty<String, Duration> getEndpointCacheMaxAges();
+
+    default Duration resolveCacheMaxAge(String endpointName) {
+        return getEndpointCacheMaxAges().getting(endpointName)
+            .orElse(getCacheMaxAge())
+            .get();
+    }
+
+    /**
+     * Dot-separated paths of JSON fields to retain, like {@code license.name}, by endpoint name.
+     */
+    @Internal
+    MapProperty<String, List<String>> getEndpointRetainedFields();
+
+    default String resolveRelativeUrl(String endpointName, String relativeUrl, TypeToken<?> type) {
+        var retainedFields = getEndpointRetainedFields().getting(endpointName).getOrElse(List.of());
+        return JsonFieldProjection.withRetainedFields(relativeUrl, type, retainedFields);
+    }
+
 }
@@ -3,10 +3,17 @@ package name.remal.gradle_plugins.github_repository_info;
 import static com.google.common.net.HttpHeaders.AUTHORIZATION;
 import static lombok.AccessLevel.PRIVATE;
 import static name.remal.gradle_plugins.build_time_constants.api.BuildTimeConstants.getStringProperty;
-import static name.remal.gradle_plugins.github_repository_info.HttpClientUtils.sendHttpRequest;
+import static name.remal.gradle_plugins.github_repository_info.GitHubRateLimiter.CORE_RESOURCE;
+import static name.remal.gradle_plugins.github_repository_info.GitHubRateLimiter.GRAPHQL_RESOURCE;
+import static name.remal.gradle_plugins.github_repository_info.HttpClientUtils.sendHttpRequestAsync;
 
+import java.io.InputStream;
+import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandler;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.util.concurrent.CompletableFuture;
 import lombok.NoArgsConstructor;
 import org.gradle.initialization.BuildCancellationToken;
 import org.jspecify.annotations.Nullable;
@@ -14,32 +21,101 @@ import org.jspecify.annotations.Nullable;
 @NoArgsConstructor(access = PRIVATE)
 class GitHubRestApiHttpClientUtils {
 
-    public static HttpResponse<byte[]> sendGitHubRestApiHttpRequest(
+    /**
+     * The caller must close the response body stream.
+     */
+    public static CompletableFuture<HttpResponse<InputStream>> sendGitHubRestApiStreamingHttpRequestAsync(
+        HttpClient httpClient,
         HttpRequest request,
+        GitHubRateLimiter rateLimiter,
+        RetryPolicy retryPolicy,
+        @Nullable HttpRequestListener listener,
         @Nullable BuildCancellationToken cancellationToken
     ) {
-        return sendHttpRequest(request, cancellationToken, (response, message) -> {
-            var curRequest = response.request();
-
-            message
-                .append("GitHub REST API request ").append(curRequest.method()).append(' ').append(curRequest.uri())
-                .append(" failed with status code ").append(response.statusCode()).append('.');
-
-            response.headers().firstValue("X-RateLimit-Remaining")
-                .filter("0"::equals)
-                .ifPresent(__ -> {
-                    var isAuthenticated = curRequest.headers().firstValue(AUTHORIZATION).isPresent();
-                    if (!isAuthenticated) {
-                        message.append('\n')
-                            .append("Rate limit exceeded, consider setting GitHub REST API key,"
-                                + " which is not set right now."
-                                + " See the \"Configuration\" section in the documentation for more details: "
-                            )
-                            .append(getStringProperty("repository.html-url"))
-                            .append("#configuration .");
-                    }
-                });
-        });
+        return sendGitHubApiHttpRequestAsync(
+            httpClient,
+            request,
+            BodyHandlers.ofInputStream(),
+            CORE_RESOURCE,
+            rateLimiter,
+            retryPolicy,
+            listener,
+            cancellationToken
+        );
+    }
+
+    /**
+     * The caller must close the response body stream.
+     */
+    public static CompletableFuture<HttpResponse<InputStream>> sendGitHubGraphQlStreamingHttpRequestAsync(
+        HttpClient httpClient,
+        HttpRequest request,
+        GitHubRateLimiter rateLimiter,
+        RetryPolicy retryPolicy,
+        @Nullable BuildCancellationToken cancellationToken
+    ) {
+        return sendGitHubApiHttpRequestAsync(
+            httpClient,
+            request,
+            BodyHandlers.ofInputStream(),
+            GRAPHQL_RESOURCE,
+            rateLimiter,
+            retryPolicy,
+            null,
+            cancellationToken
+        );
+    }
+
+    private static <T> CompletableFuture<HttpResponse<T>> sendGitHubApiHttpRequestAsync(
+        HttpClient httpClient,
+        HttpRequest request,
+        BodyHandler<T> bodyHandler,
+        String rateLimitResource,
+        GitHubRateLimiter rateLimiter,
+        RetryPolicy retryPolicy,
+        @Nullable HttpRequestListener listener,
+        @Nullable BuildCancellationToken cancellationToken
+    ) {
+        // Every response updates the rate limit, including responses of retried attempts
+        BodyHandler<T> rateLimitTrackingBodyHandler = responseInfo -> {
+            rateLimiter.update(request, responseInfo.headers());
+            return bodyHandler.apply(responseInfo);
+        };
+
+        return rateLimiter.acquireAsync(request, rateLimitResource).thenCompose(__ ->
+            sendHttpRequestAsync(
+                httpClient,
+                request,
+                rateLimitTrackingBodyHandler,
+                retryPolicy,
+                listener,
+                cancellationToken,
+                GitHubRestApiHttpClientUtils::generateErrorMessage
+            )
+        );
+    }
+
+    private static void generateErrorMessage(HttpResponse<?> response, StringBuilder message) {
+        var curRequest = response.request();
+
+        message
+            .append("GitHub REST API request ").append(curRequest.method()).append(' ').append(curRequest.uri())
+            .append(" failed with status code ").append(response.statusCode()).append('.');
+
+        response.headers().firstValue("X-RateLimit-Remaining")
+            .filter("0"::equals)
+            .ifPresent(__ -> {
+                var isAuthenticated = curRequest.headers().firstValue(AUTHORIZATION).isPresent();
+                if (!isAuthenticated) {
+                    message.append('\n')
+                        .append("Rate limit exceeded, consider setting GitHub REST API key,"
+                            + " which is not set right now."
+                            + " See the \"Configuration\" section in the documentation for more details: "
+                        )
+                        .append(getStringProperty("repository.html-url"))
+                        .append("#configuration .");
+                }
+            });
     }
 
 }
@@ -0,0 +1,95 @@
+package name.remal.gradle_plugins.github_repository_info;
+
+import static com.google.common.net.HttpHeaders.LINK;
+import static java.lang.Integer.parseInt;
+import static java.util.regex.Pattern.CASE_INSENSITIVE;
+import static lombok.AccessLevel.PRIVATE;
+
+import java.net.URI;
+import java.net.http.HttpResponse;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+import lombok.NoArgsConstructor;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * See <a href="https://docs.github.com/en/rest/using-the-rest-api/using-pagination-in-the-rest-api">Using pagination
+ * in the REST API</a>.
+ */
+@NoArgsConstructor(access = PRIVATE)
+abstract class GitHubRestApiPaginationUtils {
+
+    private static final Pattern LINK_ITEM = Pattern.compile(
+        "<([^>]+)>\\s*;\\s*rel\\s*=\\s*\"?([^\",;]+)\"?",
+        CASE_INSENSITIVE
+    );
+
+    private static final Pattern PAGE_PARAM = Pattern.compile("([?&])page=(\\d+)");
+
+    public static Map<String, URI> parseLinkHeader(@Nullable String value) {
+        Map<String, URI> result = new LinkedHashMap<>();
+        if (value == null || value.isBlank()) {
+            return result;
+        }
+
+        var matcher = LINK_ITEM.matcher(value);
+        while (matcher.find()) {
+            var uri = URI.create(matcher.group(1).trim());
+            for (var rel : matcher.group(2).trim().split("\\s+")) {
+                result.putIfAbsent(rel, uri);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns {@code 1} if the response is not paginated.
+     */
+    public static int getLastPageNumber(HttpResponse<?> response) {
+        var links = parseLinkHeader(response.headers().firstValue(LINK).orElse(null));
+        var lastUri = links.get("last");
+        if (lastUri == null) {
+            return 1;
+        }
+
+        var pageNumber = getPageNumber(lastUri);
+        return pageNumber != null ? pageNumber : 1;
+    }
+
+    @Nullable
+    public static Integer getPageNumber(URI uri) {
+        var query = uri.getRawQuery();
+        if (query == null) {
+            return null;
+        }
+
+        var matcher = PAGE_PARAM.matcher('?' + query);
+        if (matcher.find()) {
+            return parseInt(matcher.group(2));
+        }
+        return null;
+    }
+
+    public static URI withPageNumber(URI uri, int pageNumber) {
+        var uriString = uri.toString();
+        var matcher = PAGE_PARAM.matcher(uriString);
+        if (matcher.find()) {
+            return URI.create(
+                uriString.substring(0, matcher.start())
+                    + matcher.group(1) + "page=" + pageNumber
+                    + uriString.substring(matcher.end())
+            );
+        }
+
+        var fragmentPos = uriString.indexOf('#');
+        var fragment = "";
+        if (fragmentPos >= 0) {
+            fragment = uriString.substring(fragmentPos);
+            uriString = uriString.substring(0, fragmentPos);
+        }
+        var delimiter = uri.getRawQuery() == null ? '?' : '&';
+        return URI.create(uriString + delimiter + "page=" + pageNumber + fragment);
+    }
+
+}
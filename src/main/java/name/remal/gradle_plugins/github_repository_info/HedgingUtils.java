@@ -0,0 +1,104 @@
+package name.remal.gradle_plugins.github_repository_info;
+
+import static java.util.concurrent.CompletableFuture.delayedExecutor;
+import static java.util.concurrent.CompletableFuture.failedFuture;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static lombok.AccessLevel.PRIVATE;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor(access = PRIVATE)
+abstract class HedgingUtils {
+
+    /**
+     * The task must be safe to execute twice. Once a task succeeds, the other one is cancelled.
+     * If the other one has already succeeded too, its result is passed to {@code discardResult}.
+     */
+    public static <T> CompletableFuture<T> hedgeAsync(
+        Supplier<CompletableFuture<T>> task,
+        Duration hedgeDelay,
+        Consumer<T> discardResult
+    ) {
+        var result = new CompletableFuture<T>();
+        var attempts = new HedgedAttempts<T>();
+
+        startAttempt(task, result, attempts, discardResult);
+
+        CompletableFuture.runAsync(
+            () -> {
+                synchronized (attempts) {
+                    if (result.isDone()) {
+                        return;
+                    }
+                    attempts.started++;
+                }
+                startAttempt(task, result, attempts, discardResult);
+            },
+            delayedExecutor(hedgeDelay.toMillis(), MILLISECONDS)
+        );
+
+        return result;
+    }
+
+    private static <T> void startAttempt(
+        Supplier<CompletableFuture<T>> task,
+        CompletableFuture<T> result,
+        HedgedAttempts<T> attempts,
+        Consumer<T> discardResult
+    ) {
+        CompletableFuture<T> attempt;
+        try {
+            attempt = task.get();
+        } catch (Throwable exception) {
+            attempt = failedFuture(exception);
+        }
+
+        synchronized (attempts) {
+            attempts.futures.add(attempt);
+        }
+        if (result.isDone()) {
+            // The other attempt has succeeded while this one was being started
+            attempt.cancel(true);
+        }
+
+        var currentAttempt = attempt;
+        attempt.whenComplete((value, exception) -> {
+            if (exception == null) {
+                if (result.complete(value)) {
+                    attempts.cancelAllExcept(currentAttempt);
+                } else {
+                    discardResult.accept(value);
+                }
+                return;
+            }
+
+            synchronized (attempts) {
+                attempts.failed++;
+                if (attempts.failed < attempts.started) {
+                    // Another attempt is still running
+                    return;
+                }
+            }
+            result.completeExceptionally(exception);
+        });
+    }
+
+    private static class HedgedAttempts<T> {
+        final List<CompletableFuture<T>> futures = new ArrayList<>();
+        int started = 1;
+        int failed;
+
+        synchronized void cancelAllExcept(CompletableFuture<T> winner) {
+            futures.stream()
+                .filter(future -> future != winner)
+                .forEach(future -> future.cancel(true));
+        }
+    }
+
+}
@@ -0,0 +1,29 @@
+package name.remal.gradle_plugins.github_repository_info;
+
+import java.net.http.HttpClient.Version;
+import java.time.Duration;
+import lombok.Builder;
+import lombok.Value;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Clients with equal settings are shared by all builds in the same Gradle daemon, so connections are reused.
+ */
+@Value
+@Builder(toBuilder = true)
+class HttpClientSettings {
+
+    public static final HttpClientSettings DEFAULT = HttpClientSettings.builder().build();
+
+    // null means the JDK default: HTTP/2 with a fallback to HTTP/1.1
+    @Nullable
+    Version version;
+
+    @Builder.Default
+    Duration connectTimeout = Duration.ofSeconds(10);
+
+    // Threads of the client's executor. null means the JDK default executor, that creates threads as needed.
+    @Nullable
+    Integer threads;
+
+}
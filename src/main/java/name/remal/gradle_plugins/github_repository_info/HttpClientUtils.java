@@ -7,19 +7,33 @@ import static java.lang.Long.parseLong;
 import static java.lang.String.format;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.time.format.DateTimeFormatter.RFC_1123_DATE_TIME;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.concurrent.CompletableFuture.delayedExecutor;
+import static java.util.concurrent.CompletableFuture.failedFuture;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.function.Function.identity;
 import static java.util.regex.Pattern.CASE_INSENSITIVE;
 import static lombok.AccessLevel.PRIVATE;
+import static name.remal.gradle_plugins.github_repository_info.CompletableFutureUtils.unwrapCompletionException;
+import static name.remal.gradle_plugins.github_repository_info.HedgingUtils.hedgeAsync;
 
 import com.google.common.collect.ImmutableSet;
+import com.google.common.io.CountingInputStream;
 import com.google.common.net.MediaType;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.http.HttpClient;
 import java.net.http.HttpClient.Redirect;
 import java.net.http.HttpRequest;
 import java.net.http.HttpRequest.BodyPublishers;
 import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandler;
+import java.net.http.HttpResponse.BodySubscribers;
 import java.nio.charset.Charset;
 import java.time.Duration;
 import java.time.Instant;
@@ -27,12 +41,17 @@ import java.time.ZonedDateTime;
 import java.time.format.DateTimeParseException;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.function.BiConsumer;
 import java.util.function.Supplier;
 import java.util.regex.Pattern;
 import java.util.zip.GZIPInputStream;
 import lombok.NoArgsConstructor;
 import lombok.SneakyThrows;
+import name.remal.gradle_plugins.github_repository_info.JfrEvents.HttpRequestEvent;
 import org.gradle.api.BuildCancelledException;
 import org.gradle.initialization.BuildCancellationToken;
 import org.jspecify.annotations.Nullable;
@@ -40,9 +59,30 @@ import org.jspecify.annotations.Nullable;
 @NoArgsConstructor(access = PRIVATE)
 abstract class HttpClientUtils {
 
-    private static final HttpClient HTTP_CLIENT = HttpClient.newBuilder()
-        .followRedirects(Redirect.NORMAL)
-        .build();
+    private static final ConcurrentMap<HttpClientSettings, HttpClient> HTTP_CLIENTS = new ConcurrentHashMap<>();
+
+    public static HttpClient getHttpClient(HttpClientSettings settings) {
+        return HTTP_CLIENTS.computeIfAbsent(settings, HttpClientUtils::createHttpClient);
+    }
+
+    private static HttpClient createHttpClient(HttpClientSettings settings) {
+        var builder = HttpClient.newBuilder()
+            .followRedirects(Redirect.NORMAL)
+            .connectTimeout(settings.getConnectTimeout());
+        var version = settings.getVersion();
+        if (version != null) {
+            builder.version(version);
+        }
+        var threads = settings.getThreads();
+        if (threads != null) {
+            builder.executor(newFixedThreadPool(threads, new ThreadFactoryBuilder()
+                .setNameFormat("github-repository-info-http-%d")
+                .setDaemon(true)
+                .build()
+            ));
+        }
+        return builder.build();
+    }
 
 
     private static final Duration DEFAULT_REQUEST_TIMEOUT = Duration.ofMinutes(1);
@@ -57,186 +97,370 @@ abstract class HttpClientUtils {
         "TRACE"
     );
 
-    private static final int MAX_RETRIES = 5;
-
-    private static final Duration BASE_TIMEOUT_BETWEEN_RETRIES = Duration.ofSeconds(1);
-
-    private static final Duration MAX_RETRY_AFTER = Duration.ofSeconds(10);
-
-
     private static final Pattern TEXT_MEDIA_TYPE =
         Pattern.compile("\\b(?:text|html|json|xml|javascript|css|yaml)\\b", CASE_INSENSITIVE);
 
 
-    public static HttpResponse<byte[]> sendHttpRequest(
-        HttpRequest request,
-        @Nullable BuildCancellationToken cancellationToken
-    ) {
-        return sendHttpRequest(request, cancellationToken, null);
-    }
-
-    public static HttpResponse<byte[]> sendHttpRequest(
+    /**
+     * {@code bodyHandler} should return a {@code byte[]} or an {@link InputStream}, that the caller must close.
+     * Only idempotent requests are retried.
+     */
+    public static <T> CompletableFuture<HttpResponse<T>> sendHttpRequestAsync(
+        HttpClient httpClient,
         HttpRequest request,
+        BodyHandler<T> bodyHandler,
+        RetryPolicy retryPolicy,
+        @Nullable HttpRequestListener listener,
         @Nullable BuildCancellationToken cancellationToken,
-        @Nullable BiConsumer<HttpResponse<byte[]>, StringBuilder> errorMessageHeaderGenerator
+        @Nullable BiConsumer<HttpResponse<?>, StringBuilder> errorMessageHeaderGenerator
     ) {
         if (errorMessageHeaderGenerator == null) {
             errorMessageHeaderGenerator = HttpClientUtils::generateDefaultErrorMessage;
         }
 
-        var timeout = request.timeout().orElse(null);
-        if (timeout == null) {
-            request = newHttpRequestBuilderFrom(request)
-                .timeout(DEFAULT_REQUEST_TIMEOUT)
-                .build();
-        }
+        request = withDefaultTimeout(request);
 
         if (isIdempotentRequest(request)) {
-            return sendRequestWithRetries(request, cancellationToken, errorMessageHeaderGenerator);
+            return sendRequestWithRetriesAsync(
+                httpClient,
+                request,
+                bodyHandler,
+                retryPolicy,
+                listener,
+                0,
+                cancellationToken,
+                errorMessageHeaderGenerator
+            );
         } else {
-            return sendRequestWithoutRetries(request, cancellationToken, errorMessageHeaderGenerator);
+            return sendHttpRequestImplAsync(
+                httpClient,
+                request,
+                bodyHandler,
+                false,
+                retryPolicy.getCircuitBreaker(),
+                listener,
+                0,
+                cancellationToken,
+                errorMessageHeaderGenerator
+            );
         }
     }
 
-    private static void generateDefaultErrorMessage(HttpResponse<byte[]> response, StringBuilder message) {
+    private static void generateDefaultErrorMessage(HttpResponse<?> response, StringBuilder message) {
         var curRequest = response.request();
         message
             .append("HTTP request ").append(curRequest.method()).append(' ').append(curRequest.uri())
             .append(" failed with status code ").append(response.statusCode()).append('.');
     }
 
+    private static HttpRequest withDefaultTimeout(HttpRequest request) {
+        if (request.timeout().isPresent()) {
+            return request;
+        }
+
+        return newHttpRequestBuilderFrom(request)
+            .timeout(DEFAULT_REQUEST_TIMEOUT)
+            .build();
+    }
+
     private static boolean isIdempotentRequest(HttpRequest request) {
         var method = request.method();
         return IDEMPOTENT_HTTP_METHODS.contains(method);
     }
 
-    @SneakyThrows
-    private static HttpResponse<byte[]> sendRequestWithRetries(
+    // The circuit breaker is checked before every attempt, as other requests can open the circuit
+    private static <T> CompletableFuture<HttpResponse<T>> sendRequestWithRetriesAsync(
+        HttpClient httpClient,
         HttpRequest request,
+        BodyHandler<T> bodyHandler,
+        RetryPolicy retryPolicy,
+        @Nullable HttpRequestListener listener,
+        int retry,
         @Nullable BuildCancellationToken cancellationToken,
-        BiConsumer<HttpResponse<byte[]>, StringBuilder> errorMessageHeaderGenerator
+        BiConsumer<HttpResponse<?>, StringBuilder> errorMessageHeaderGenerator
     ) {
-        for (int attempt = 1; attempt <= MAX_RETRIES; attempt++) {
-            if (cancellationToken != null && cancellationToken.isCancellationRequested()) {
-                throw new BuildCancelledException();
-            }
+        if (cancellationToken != null && cancellationToken.isCancellationRequested()) {
+            return failedFuture(new BuildCancelledException());
+        }
 
-            try {
-                return sendHttpRequestImpl(request, true, cancellationToken, errorMessageHeaderGenerator);
-
-            } catch (HttpRequestException.Retryable exception) {
-                if (attempt < MAX_RETRIES) {
-                    var sleepDuration = BASE_TIMEOUT_BETWEEN_RETRIES.multipliedBy(attempt);
-                    var retryAfter = exception.getRetryAfter();
-                    if (retryAfter != null
-                        && retryAfter.compareTo(sleepDuration) > 0
-                        && retryAfter.compareTo(MAX_RETRY_AFTER) <= 0
-                    ) {
-                        sleepDuration = retryAfter;
-                    }
-                    Thread.sleep(sleepDuration.toMillis());
-                } else {
-                    throw exception;
+        Supplier<CompletableFuture<HttpResponse<T>>> sendAttempt = () -> sendHttpRequestImplAsync(
+            httpClient,
+            request,
+            bodyHandler,
+            true,
+            retryPolicy.getCircuitBreaker(),
+            listener,
+            retry,
+            cancellationToken,
+            errorMessageHeaderGenerator
+        );
+
+        // Each attempt is hedged separately, so nothing is sent while a retry is waiting
+        var hedgeDelay = retryPolicy.getHedgeDelay();
+        var attempt = hedgeDelay != null
+            ? hedgeAsync(sendAttempt, hedgeDelay, HttpClientUtils::closeResponseBody)
+            : sendAttempt.get();
+
+        return attempt
+            .<CompletableFuture<HttpResponse<T>>>handle((response, exception) -> {
+                if (exception == null) {
+                    return completedFuture(response);
                 }
-            }
-        }
 
-        throw new AssertionError("unreachable");
-    }
+                var cause = unwrapCompletionException(exception);
+                if (cause instanceof HttpRequestException.Retryable) {
+                    var retryAfter = ((HttpRequestException.Retryable) cause).getRetryAfter();
+                    var delay = retryPolicy.getDelayBeforeRetry(retry + 1, retryAfter);
+                    if (delay != null) {
+                        if (listener != null) {
+                            listener.onRetryScheduled(request, retry + 1, delay);
+                        }
+                        var executor = delayedExecutor(delay.toMillis(), MILLISECONDS);
+                        return CompletableFuture.runAsync(() -> { }, executor).thenCompose(__ ->
+                            sendRequestWithRetriesAsync(
+                                httpClient,
+                                request,
+                                bodyHandler,
+                                retryPolicy,
+                                listener,
+                                retry + 1,
+                                cancellationToken,
+                                errorMessageHeaderGenerator
+                            )
+                        );
+                    }
+                }
 
-    private static HttpResponse<byte[]> sendRequestWithoutRetries(
-        HttpRequest request,
-        @Nullable BuildCancellationToken cancellationToken,
-        BiConsumer<HttpResponse<byte[]>, StringBuilder> errorMessageHeaderGenerator
-    ) {
-        return sendHttpRequestImpl(request, false, cancellationToken, errorMessageHeaderGenerator);
+                return failedFuture(cause);
+            })
+            .thenCompose(identity());
     }
 
-    @SneakyThrows
-    @SuppressWarnings("java:S3776")
-    private static HttpResponse<byte[]> sendHttpRequestImpl(
+    private static <T> CompletableFuture<HttpResponse<T>> sendHttpRequestImplAsync(
+        HttpClient httpClient,
         HttpRequest request,
+        BodyHandler<T> bodyHandler,
         boolean isRetryable,
+        @Nullable CircuitBreaker circuitBreaker,
+        @Nullable HttpRequestListener listener,
+        int retry,
         @Nullable BuildCancellationToken cancellationToken,
-        BiConsumer<HttpResponse<byte[]>, StringBuilder> errorMessageHeaderGenerator
+        BiConsumer<HttpResponse<?>, StringBuilder> errorMessageHeaderGenerator
     ) {
-        var currentThread = Thread.currentThread();
-        Runnable cancellationCallback = currentThread::interrupt;
+        if (circuitBreaker != null) {
+            try {
+                circuitBreaker.acquire(request);
+            } catch (HttpRequestException exception) {
+                return failedFuture(exception);
+            }
+        }
+
+        if (listener != null) {
+            listener.onAttemptStarted(request, retry);
+        }
+
+        var event = new HttpRequestEvent();
+        event.begin();
+        var startNanos = System.nanoTime();
+        BodyHandler<T> listeningBodyHandler = bodyHandler;
+        if (listener != null) {
+            // The body handler is called when the response headers are received
+            listeningBodyHandler = responseInfo -> {
+                var latency = Duration.ofNanos(System.nanoTime() - startNanos);
+                listener.onResponseReceived(request, responseInfo, latency);
+                return bodyHandler.apply(responseInfo);
+            };
+        }
+
+        var eventBodyHandler = withRequestEvent(listeningBodyHandler, event, request, retry);
+        var responseFuture = httpClient.sendAsync(request, eventBodyHandler);
+
+        Runnable cancellationCallback = () -> responseFuture.cancel(true);
         if (cancellationToken != null) {
             cancellationToken.addCallback(cancellationCallback);
         }
 
-        final HttpResponse<byte[]> response;
-        try {
-            response = HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        var result = responseFuture
+            .handle((response, exception) -> {
+                if (cancellationToken != null) {
+                    cancellationToken.removeCallback(cancellationCallback);
+                }
 
-        } catch (InterruptedException exception) {
-            Thread.currentThread().interrupt();
-            throw new BuildCancelledException();
+                if (exception != null) {
+                    var cause = unwrapCompletionException(exception);
+                    event.end(request, retry, 0, 0, cause);
+                    if (listener != null) {
+                        listener.onAttemptFailed(request, cause, Duration.ofNanos(System.nanoTime() - startNanos));
+                    }
+                    if (cause instanceof CancellationException || cause instanceof InterruptedException) {
+                        throw new BuildCancelledException();
+                    } else if (cause instanceof IOException) {
+                        if (circuitBreaker != null) {
+                            circuitBreaker.onFailure(request);
+                        }
+                        throw createSendFailureException(request, isRetryable, cause);
+                    }
+                    throw new HttpRequestException.NotRetryable(format(
+                        "Failed to send request to GitHub REST API: %s %s",
+                        request.method(),
+                        request.uri()
+                    ), cause);
+                }
 
-        } catch (IOException exception) {
-            var message = format(
-                "Failed to send request to GitHub REST API: %s %s",
-                request.method(),
-                request.uri()
-            );
-            if (isRetryable) {
-                throw new HttpRequestException.Retryable(message, null, exception);
-            } else {
-                throw new HttpRequestException.NotRetryable(message, exception);
-            }
+                var body = response.body();
+                if (!(body instanceof InputStream)) {
+                    var bytes = body instanceof byte[] ? ((byte[]) body).length : 0;
+                    event.end(request, retry, response.statusCode(), bytes, null);
+                }
+                if (circuitBreaker != null) {
+                    if (isCircuitBreakerFailureStatusCode(response.statusCode())) {
+                        circuitBreaker.onFailure(request);
+                    } else {
+                        circuitBreaker.onSuccess(request);
+                    }
+                }
 
-        } finally {
-            if (cancellationToken != null) {
-                cancellationToken.removeCallback(cancellationCallback);
+                validateHttpResponse(response, isRetryable, errorMessageHeaderGenerator);
+                return response;
+            });
+
+        // For example, a hedged attempt is cancelled if the other one succeeds
+        result.whenComplete((__, exception) -> {
+            if (result.isCancelled()) {
+                responseFuture.cancel(true);
+                // The response can be received before the request is cancelled
+                responseFuture.thenAccept(HttpClientUtils::closeResponseBody);
             }
+        });
+        return result;
+    }
+
+    /**
+     * The event of a streamed response ends when its body is closed, so the number of received bytes is known.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> BodyHandler<T> withRequestEvent(
+        BodyHandler<T> bodyHandler,
+        HttpRequestEvent event,
+        HttpRequest request,
+        int retry
+    ) {
+        if (!event.isEnabled()) {
+            return bodyHandler;
         }
 
-        var statusCode = response.statusCode();
-        if (statusCode >= 300) {
-            var message = new StringBuilder();
-            errorMessageHeaderGenerator.accept(response, message);
+        return responseInfo -> BodySubscribers.mapping(bodyHandler.apply(responseInfo), body -> {
+            if (!(body instanceof InputStream)) {
+                return body;
+            }
 
-            Supplier<StringBuilder> withNewLineIfNeeded = () -> {
-                if (message.length() > 0) {
-                    message.append('\n');
+            var countingIn = new CountingInputStream((InputStream) body);
+            return (T) new FilterInputStream(countingIn) {
+                private boolean closed;
+
+                @Override
+                public void close() throws IOException {
+                    if (closed) {
+                        return;
+                    }
+                    closed = true;
+
+                    try {
+                        super.close();
+                    } finally {
+                        event.end(request, retry, responseInfo.statusCode(), countingIn.getCount(), null);
+                    }
                 }
-                return message;
             };
+        });
+    }
+
+    private static void closeResponseBody(HttpResponse<?> response) {
+        var body = response.body();
+        if (body instanceof Closeable) {
+            try {
+                ((Closeable) body).close();
+            } catch (IOException ignored) {
+                // the response is discarded anyway
+            }
+        }
+    }
 
-            var responseBody = response.body();
-            if (responseBody.length == 0) {
+    private static HttpRequestException createSendFailureException(
+        HttpRequest request,
+        boolean isRetryable,
+        Throwable exception
+    ) {
+        var message = format(
+            "Failed to send request to GitHub REST API: %s %s",
+            request.method(),
+            request.uri()
+        );
+        if (isRetryable) {
+            return new HttpRequestException.Retryable(message, null, exception);
+        } else {
+            return new HttpRequestException.NotRetryable(message, exception);
+        }
+    }
+
+    private static void validateHttpResponse(
+        HttpResponse<?> response,
+        boolean isRetryable,
+        BiConsumer<HttpResponse<?>, StringBuilder> errorMessageHeaderGenerator
+    ) {
+        var statusCode = response.statusCode();
+        if (statusCode < 300 || statusCode == 304) {
+            // 304 Not Modified can be returned for conditional requests only
+            return;
+        }
+
+        var message = new StringBuilder();
+        errorMessageHeaderGenerator.accept(response, message);
+
+        Supplier<StringBuilder> withNewLineIfNeeded = () -> {
+            if (message.length() > 0) {
+                message.append('\n');
+            }
+            return message;
+        };
+
+        var responseBody = readHttpResponseBodyBytes(response);
+        if (responseBody.length == 0) {
+            withNewLineIfNeeded.get()
+                .append("Response body is empty.");
+        } else {
+            var decompressedContent = HttpClientUtils.getPlainHttpResponseBody(response, responseBody);
+            if (decompressedContent.length > 8192) {
+                withNewLineIfNeeded.get()
+                    .append("Response body of ").append(decompressedContent.length).append(" bytes.");
+            } else if (HttpClientUtils.isTextHttpResponse(response)) {
+                var charset = HttpClientUtils.getHttpResponseCharset(response);
+                var content = new String(decompressedContent, charset);
                 withNewLineIfNeeded.get()
-                    .append("Response body is empty.");
+                    .append("Response body:\n").append(content).append('\n');
             } else {
-                var decompressedContent = HttpClientUtils.getPlainHttpResponseBody(response);
-                if (decompressedContent.length > 8192) {
-                    withNewLineIfNeeded.get()
-                        .append("Response body of ").append(decompressedContent.length).append(" bytes.");
-                } else if (HttpClientUtils.isTextHttpResponse(response)) {
-                    var charset = HttpClientUtils.getHttpResponseCharset(response);
-                    var content = new String(decompressedContent, charset);
-                    withNewLineIfNeeded.get()
-                        .append("Response body:\n").append(content).append('\n');
-                } else {
-                    withNewLineIfNeeded.get()
-                        .append("Binary response body of ").append(decompressedContent.length).append(" bytes.");
-                }
+                withNewLineIfNeeded.get()
+                    .append("Binary response body of ").append(decompressedContent.length).append(" bytes.");
             }
+        }
 
-            if (statusCode == 408
-                || statusCode == 429
-                || statusCode >= 500
-            ) {
-                if (isRetryable) {
-                    var retryAfter = HttpClientUtils.parseHttpResponseRetryAfterHeader(response);
-                    throw new HttpRequestException.Retryable(message.toString(), retryAfter);
-                }
-            }
-            throw new HttpRequestException.NotRetryable(message.toString());
+        if (isRetryable && isRetryableStatusCode(statusCode)) {
+            var retryAfter = HttpClientUtils.parseHttpResponseRetryAfterHeader(response);
+            throw new HttpRequestException.Retryable(message.toString(), statusCode, retryAfter);
         }
+        throw new HttpRequestException.NotRetryable(message.toString(), statusCode);
+    }
 
-        return response;
+    private static boolean isRetryableStatusCode(int statusCode) {
+        return statusCode == 408
+            || statusCode == 429
+            || statusCode >= 500;
+    }
+
+    // 429 Too Many Requests means that the host is available, and it's handled by the rate limiter
+    private static boolean isCircuitBreakerFailureStatusCode(int statusCode) {
+        return statusCode == 408
+            || statusCode >= 500;
     }
 
 
@@ -260,16 +484,46 @@ abstract class HttpClientUtils {
 
 
     @SneakyThrows
-    public static byte[] getPlainHttpResponseBody(HttpResponse<byte[]> response) {
-        var plainOut = new ByteArrayOutputStream();
-        if (isGzipEncodingHttpResponse(response)) {
-            try (var unGzipIn = new GZIPInputStream(new ByteArrayInputStream(response.body()))) {
-                unGzipIn.transferTo(plainOut);
+    private static byte[] getPlainHttpResponseBody(HttpResponse<?> response, byte[] body) {
+        if (!isGzipEncodingHttpResponse(response)) {
+            return body;
+        }
+
+        try (var unGzipIn = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return unGzipIn.readAllBytes();
+        }
+    }
+
+    public static InputStream openPlainHttpResponseBody(HttpResponse<InputStream> response) {
+        return openPlainHttpResponseBody(response, response.body());
+    }
+
+    @SneakyThrows
+    public static InputStream openPlainHttpResponseBody(HttpResponse<?> response, InputStream body) {
+        if (!isGzipEncodingHttpResponse(response)) {
+            return body;
+        }
+
+        try {
+            return new GZIPInputStream(body, 8192);
+        } catch (Throwable exception) {
+            body.close();
+            throw exception;
+        }
+    }
+
+    @SneakyThrows
+    private static byte[] readHttpResponseBodyBytes(HttpResponse<?> response) {
+        var body = response.body();
+        if (body instanceof byte[]) {
+            return (byte[]) body;
+        } else if (body instanceof InputStream) {
+            try (var in = (InputStream) body) {
+                return in.readAllBytes();
             }
         } else {
-            plainOut.write(response.body());
+            return new byte[0];
         }
-        return plainOut.toByteArray();
     }
 
     private static boolean isGzipEncodingHttpResponse(HttpResponse<?> response) {
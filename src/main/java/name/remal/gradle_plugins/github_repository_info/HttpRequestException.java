@@ -1,13 +1,37 @@
 package name.remal.gradle_plugins.github_repository_info;
 
+import java.io.IOException;
 import java.time.Duration;
 import lombok.Getter;
 import org.jspecify.annotations.Nullable;
 
 public abstract class HttpRequestException extends RuntimeException {
 
-    private HttpRequestException(String message) {
+    // 0 if no response was received
+    @Getter
+    private final int statusCode;
+
+    private HttpRequestException(String message, int statusCode) {
         super(message);
+        this.statusCode = statusCode;
+    }
+
+    public static boolean isTransientFailure(Throwable exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof CircuitOpen) {
+                return true;
+            }
+            if (cause instanceof HttpRequestException) {
+                var statusCode = ((HttpRequestException) cause).getStatusCode();
+                if (statusCode != 0) {
+                    return statusCode == 408 || statusCode >= 500;
+                }
+            }
+            if (cause instanceof IOException) {
+                return true;
+            }
+        }
+        return false;
     }
 
 
@@ -18,7 +42,11 @@ public abstract class HttpRequestException extends RuntimeException {
         private final Duration retryAfter;
 
         Retryable(String message, @Nullable Duration retryAfter) {
-            super(message);
+            this(message, 0, retryAfter);
+        }
+
+        Retryable(String message, int statusCode, @Nullable Duration retryAfter) {
+            super(message, statusCode);
             this.retryAfter = retryAfter;
         }
 
@@ -31,7 +59,11 @@ public abstract class HttpRequestException extends RuntimeException {
 
     public static class NotRetryable extends HttpRequestException {
         NotRetryable(String message) {
-            super(message);
+            this(message, 0);
+        }
+
+        NotRetryable(String message, int statusCode) {
+            super(message, statusCode);
         }
 
         NotRetryable(String message, @Nullable Throwable cause) {
@@ -40,4 +72,10 @@ public abstract class HttpRequestException extends RuntimeException {
         }
     }
 
+    public static class CircuitOpen extends NotRetryable {
+        CircuitOpen(String message) {
+            super(message);
+        }
+    }
+
 }
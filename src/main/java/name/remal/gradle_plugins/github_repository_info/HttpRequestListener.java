@@ -0,0 +1,61 @@
+package name.remal.gradle_plugins.github_repository_info;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse.ResponseInfo;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Methods are called in threads of the HTTP client, so they must be thread-safe and fast.
+ */
+interface HttpRequestListener {
+
+    /**
+     * @param retry the number of the retry, {@code 0} for the first attempt
+     */
+    default void onAttemptStarted(HttpRequest request, int retry) {
+        // do nothing by default
+    }
+
+    default void onResponseReceived(HttpRequest request, ResponseInfo responseInfo, Duration latency) {
+        // do nothing by default
+    }
+
+    default void onAttemptFailed(HttpRequest request, Throwable exception, Duration elapsed) {
+        // do nothing by default
+    }
+
+    /**
+     * @param retry the number of the scheduled retry, starting from {@code 1}
+     */
+    default void onRetryScheduled(HttpRequest request, int retry, Duration delay) {
+        // do nothing by default
+    }
+
+
+    static HttpRequestListener compositeOf(HttpRequestListener... listeners) {
+        var listenersList = List.of(listeners);
+        return new HttpRequestListener() {
+            @Override
+            public void onAttemptStarted(HttpRequest request, int retry) {
+                listenersList.forEach(listener -> listener.onAttemptStarted(request, retry));
+            }
+
+            @Override
+            public void onResponseReceived(HttpRequest request, ResponseInfo responseInfo, Duration latency) {
+                listenersList.forEach(listener -> listener.onResponseReceived(request, responseInfo, latency));
+            }
+
+            @Override
+            public void onAttemptFailed(HttpRequest request, Throwable exception, Duration elapsed) {
+                listenersList.forEach(listener -> listener.onAttemptFailed(request, exception, elapsed));
+            }
+
+            @Override
+            public void onRetryScheduled(HttpRequest request, int retry, Duration delay) {
+                listenersList.forEach(listener -> listener.onRetryScheduled(request, retry, delay));
+            }
+        };
+    }
+
+}
@@ -0,0 +1,109 @@
+package name.remal.gradle_plugins.github_repository_info;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.concurrent.CompletableFuture.failedFuture;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Predicate;
+import lombok.Value;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Concurrent loads of the same URL are shared. No I/O is done while holding a map lock.
+ */
+class InMemoryContentCache {
+
+    private final Cache<String, CachedContent> cache;
+
+    private final ConcurrentMap<String, CompletableFuture<CachedContent>> inFlightLoads = new ConcurrentHashMap<>();
+
+    public InMemoryContentCache(long maxWeight) {
+        this.cache = CacheBuilder.newBuilder()
+            .maximumWeight(maxWeight)
+            .weigher((String url, CachedContent content) -> content.getWeight())
+            .recordStats()
+            .build();
+    }
+
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
+    @Nullable
+    public CachedContent getIfPresent(String url) {
+        return cache.getIfPresent(url);
+    }
+
+    // Guava computes the weight only on writes
+    public void updateWeight(String url, CachedContent content) {
+        cache.asMap().replace(url, content, content);
+    }
+
+    public Lookup getOrLoadAsync(String url, Predicate<CachedContent> isUsable, Loader loader) {
+        var cachedContent = cache.getIfPresent(url);
+        if (cachedContent != null && isUsable.test(cachedContent)) {
+            return new Lookup(completedFuture(cachedContent), true);
+        }
+
+        var newLoad = new CompletableFuture<CachedContent>();
+        var inFlightLoad = inFlightLoads.putIfAbsent(url, newLoad);
+        if (inFlightLoad != null) {
+            // A copy, so a caller can't complete the shared future for everyone else
+            return new Lookup(inFlightLoad.copy(), true);
+        }
+
+        CompletableFuture<CachedContent> contentFuture;
+        try {
+            contentFuture = loader.load(cachedContent);
+        } catch (Throwable exception) {
+            contentFuture = failedFuture(exception);
+        }
+        completeLoad(url, newLoad, contentFuture);
+        return new Lookup(newLoad.copy(), false);
+    }
+
+    /**
+     * Returns {@code null} if a load of the URL is already in flight.
+     */
+    @Nullable
+    public CompletableFuture<CachedContent> startLoad(String url) {
+        var newLoad = new CompletableFuture<CachedContent>();
+        return inFlightLoads.putIfAbsent(url, newLoad) == null ? newLoad : null;
+    }
+
+    public void completeLoad(
+        String url,
+        CompletableFuture<CachedContent> load,
+        CompletableFuture<CachedContent> contentFuture
+    ) {
+        contentFuture.whenComplete((content, exception) -> {
+            try {
+                if (exception == null) {
+                    cache.put(url, content);
+                    load.complete(content);
+                } else {
+                    load.completeExceptionally(exception);
+                }
+            } finally {
+                inFlightLoads.remove(url, load);
+            }
+        });
+    }
+
+    @Value
+    public static class Lookup {
+        CompletableFuture<CachedContent> content;
+        boolean hit;
+    }
+
+    @FunctionalInterface
+    public interface Loader {
+        CompletableFuture<CachedContent> load(@Nullable CachedContent unusableContent);
+    }
+
+}
@@ -0,0 +1,135 @@
+package name.remal.gradle_plugins.github_repository_info;
+
+import static lombok.AccessLevel.PRIVATE;
+
+import java.net.http.HttpRequest;
+import java.nio.file.Path;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import lombok.NoArgsConstructor;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Fields are filled only if an event is going to be committed, so events are cheap without a recording.
+ */
+@NoArgsConstructor(access = PRIVATE)
+abstract class JfrEvents {
+
+    private static final String CATEGORY = "GitHub Repository Info";
+
+    public static final String IN_MEMORY_CACHE_LAYER = "in-memory";
+
+    public static final String FILE_CACHE_LAYER = "file";
+
+    public static final String NETWORK_CACHE_LAYER = "network";
+
+
+    @Name("name.remal.github_repository_info.HttpRequest")
+    @Label("GitHub HTTP Request")
+    @Description("An attempt to send an HTTP request, until its response is received,"
+        + " or until its response body is closed if it's streamed")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static class HttpRequestEvent extends Event {
+
+        @Label("URL")
+        String url;
+
+        @Label("Method")
+        String method;
+
+        @Label("Retry")
+        @Description("The number of the retry, 0 for the first attempt")
+        int retry;
+
+        @Label("Status Code")
+        @Description("The response status code, 0 if no response is received")
+        int statusCode;
+
+        @Label("Response Body Size")
+        @Description("Received bytes of the response body, before decompression")
+        @DataAmount
+        long bytes;
+
+        @Label("Failure")
+        @Nullable
+        String failure;
+
+        public void end(HttpRequest request, int retry, int statusCode, long bytes, @Nullable Throwable failure) {
+            end();
+            if (shouldCommit()) {
+                this.url = request.uri().toString();
+                this.method = request.method();
+                this.retry = retry;
+                this.statusCode = statusCode;
+                this.bytes = bytes;
+                this.failure = failure != null ? failure.toString() : null;
+                commit();
+            }
+        }
+
+    }
+
+
+    @Name("name.remal.github_repository_info.CacheLookup")
+    @Label("GitHub Cache Lookup")
+    @Description("A lookup of an endpoint's content, that is served by the in-memory cache, the file cache,"
+        + " or the network")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static class CacheLookupEvent extends Event {
+
+        @Label("URL")
+        String url;
+
+        @Label("Cache Layer")
+        @Description("The layer that served the content: in-memory, file, or network")
+        String cacheLayer;
+
+        @Label("Not Modified")
+        @Description("Whether the file cache was revalidated by a network request, and the cached content was used")
+        boolean notModified;
+
+        @Label("Content Size")
+        @DataAmount
+        long bytes;
+
+        public void end(String url, String cacheLayer, boolean notModified, long bytes) {
+            end();
+            if (shouldCommit()) {
+                this.url = url;
+                this.cacheLayer = cacheLayer;
+                this.notModified = notModified;
+                this.bytes = bytes;
+                commit();
+            }
+        }
+
+    }
+
+
+    @Name("name.remal.github_repository_info.FileLock")
+    @Label("GitHub File Cache Lock")
+    @Description("Acquisition of a file lock of a file cache entry, that can be held by another process")
+    @Category(CATEGORY)
+    static class FileLockEvent extends Event {
+
+        @Label("Lock File")
+        String lockFile;
+
+        public void end(Path lockFile) {
+            end();
+            if (shouldCommit()) {
+                this.lockFile = lockFile.toString();
+                commit();
+            }
+        }
+
+    }
+
+}
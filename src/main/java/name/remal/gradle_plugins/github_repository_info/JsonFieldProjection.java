@@ -0,0 +1,209 @@
+package name.remal.gradle_plugins.github_repository_info;
+
+import static java.lang.String.join;
+import static name.remal.gradle_plugins.github_repository_info.info.GitHubInfoTypeProperties.findType;
+import static name.remal.gradle_plugins.github_repository_info.info.GitHubInfoTypeProperties.getPropertyType;
+import static name.remal.gradle_plugins.github_repository_info.info.GitHubInfoTypeProperties.getRequiredProperties;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.reflect.TypeToken;
+import java.lang.reflect.ParameterizedType;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import name.remal.gradle_plugins.github_repository_info.info.GitHubInfoType;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Encoded as the URL fragment, like {@code repos/owner/repo#type=GitHubFullRepository&fields=html_url,license.name},
+ * so the caches keep projected responses separately from full responses.
+ */
+@EqualsAndHashCode
+@ToString
+class JsonFieldProjection {
+
+    private static final String TYPE_PARAM = "type";
+
+    private static final String FIELDS_PARAM = "fields";
+
+    private static final Pattern FIELD = Pattern.compile("[\\w+-]+(\\.[\\w+-]+)*");
+
+
+    public static String withRetainedFields(String relativeUrl, TypeToken<?> type, Collection<String> fields) {
+        if (fields.isEmpty()) {
+            return relativeUrl;
+        }
+
+        Set<String> sortedFields = new TreeSet<>();
+        for (var field : fields) {
+            field = field.trim();
+            if (!FIELD.matcher(field).matches()) {
+                throw new IllegalArgumentException("Invalid JSON field path: " + field);
+            }
+            sortedFields.add(field);
+        }
+
+        var fragment = new StringBuilder();
+        var infoType = getInfoType(type);
+        if (infoType != null) {
+            fragment.append(TYPE_PARAM).append('=').append(infoType.getSimpleName()).append('&');
+        }
+        fragment.append(FIELDS_PARAM).append('=').append(join(",", sortedFields));
+        return removeProjection(relativeUrl) + '#' + fragment;
+    }
+
+    @Nullable
+    @SuppressWarnings("unchecked")
+    private static Class<? extends GitHubInfoType> getInfoType(TypeToken<?> type) {
+        var javaType = type.getType();
+        if (javaType instanceof ParameterizedType && type.getRawType() == List.class) {
+            javaType = ((ParameterizedType) javaType).getActualTypeArguments()[0];
+        }
+        if (javaType instanceof Class<?> && GitHubInfoType.class.isAssignableFrom((Class<?>) javaType)) {
+            return (Class<? extends GitHubInfoType>) javaType;
+        }
+        return null;
+    }
+
+    @Nullable
+    public static JsonFieldProjection parseFromUrl(String url) {
+        var fragmentIndex = url.indexOf('#');
+        if (fragmentIndex < 0) {
+            return null;
+        }
+
+        Map<String, String> params = new LinkedHashMap<>();
+        for (var param : url.substring(fragmentIndex + 1).split("&")) {
+            var delimIndex = param.indexOf('=');
+            if (delimIndex > 0) {
+                params.put(param.substring(0, delimIndex), param.substring(delimIndex + 1));
+            }
+        }
+
+        var fields = params.get(FIELDS_PARAM);
+        if (fields == null || fields.isEmpty()) {
+            return null;
+        }
+
+        Class<? extends GitHubInfoType> type = null;
+        var typeName = params.get(TYPE_PARAM);
+        if (typeName != null) {
+            type = findType(typeName);
+            if (type == null) {
+                throw new IllegalArgumentException("Unknown GitHub info type in " + url);
+            }
+        }
+
+        return new JsonFieldProjection(type, List.of(fields.split(",")));
+    }
+
+    public static String removeProjection(String url) {
+        var fragmentIndex = url.indexOf('#');
+        return fragmentIndex >= 0 ? url.substring(0, fragmentIndex) : url;
+    }
+
+
+    @Getter
+    @Nullable
+    private final Class<? extends GitHubInfoType> type;
+
+    @Getter
+    private final Set<String> fields;
+
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private final FieldTree fieldTree = new FieldTree();
+
+    JsonFieldProjection(@Nullable Class<? extends GitHubInfoType> type, Collection<String> fields) {
+        this.type = type;
+        this.fields = Set.copyOf(new TreeSet<>(fields));
+        this.fields.forEach(fieldTree::add);
+    }
+
+    public JsonElement project(JsonElement json) {
+        return project(json, type, fieldTree);
+    }
+
+    private static JsonElement project(
+        JsonElement json,
+        @Nullable Class<? extends GitHubInfoType> type,
+        FieldTree fieldTree
+    ) {
+        if (fieldTree.isWhole()) {
+            return json;
+        }
+
+        if (json.isJsonArray()) {
+            var result = new JsonArray();
+            json.getAsJsonArray().forEach(element -> result.add(project(element, type, fieldTree)));
+            return result;
+        }
+
+        if (!json.isJsonObject()) {
+            return json;
+        }
+
+        var requiredProperties = type != null ? getRequiredProperties(type) : Set.<String>of();
+        var result = new JsonObject();
+        for (var entry : json.getAsJsonObject().entrySet()) {
+            var property = entry.getKey();
+            var propertyType = type != null ? getPropertyType(type, property) : null;
+            var propertyTree = fieldTree.getChildren().get(property);
+            if (propertyTree == null) {
+                if (!requiredProperties.contains(property)) {
+                    continue;
+                }
+
+                // A required object keeps only its own required properties
+                propertyTree = propertyType != null ? FieldTree.REQUIRED_ONLY : FieldTree.WHOLE;
+            }
+
+            result.add(property, project(entry.getValue(), propertyType, propertyTree));
+        }
+        return result;
+    }
+
+
+    @Getter
+    private static class FieldTree {
+
+        static final FieldTree WHOLE = new FieldTree(true);
+
+        static final FieldTree REQUIRED_ONLY = new FieldTree(false);
+
+        private boolean whole;
+
+        private final Map<String, FieldTree> children = new LinkedHashMap<>();
+
+        FieldTree() {
+            this(false);
+        }
+
+        private FieldTree(boolean whole) {
+            this.whole = whole;
+        }
+
+        void add(String field) {
+            var node = this;
+            for (var property : field.split("\\.")) {
+                if (node.whole) {
+                    return;
+                }
+                node = node.children.computeIfAbsent(property, __ -> new FieldTree());
+            }
+            node.whole = true;
+            node.children.clear();
+        }
+
+    }
+
+}
@@ -1,13 +1,32 @@
 package name.remal.gradle_plugins.github_repository_info;
 
 import static com.google.gson.Strictness.LENIENT;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static lombok.AccessLevel.PRIVATE;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonSyntaxException;
 import com.google.gson.TypeAdapterFactory;
+import com.google.gson.stream.MalformedJsonException;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.Charset;
+import java.util.List;
 import java.util.ServiceLoader;
 import lombok.NoArgsConstructor;
+import lombok.SneakyThrows;
 
 @NoArgsConstructor(access = PRIVATE)
 abstract class JsonUtils {
@@ -21,8 +40,139 @@ abstract class JsonUtils {
 
         ServiceLoader.load(TypeAdapterFactory.class, GitHubJsonDeserializer.class.getClassLoader())
             .forEach(gsonBuilder::registerTypeAdapterFactory);
+        gsonBuilder.registerTypeAdapterFactory(AbstractLazyGitHubInfoType.TYPE_ADAPTER_FACTORY);
 
         GSON = gsonBuilder.create();
     }
 
+
+    @SneakyThrows
+    public static JsonElement parseJson(InputStream in, Charset charset) {
+        try (var jsonReader = GSON.newJsonReader(new InputStreamReader(in, charset))) {
+            return JsonParser.parseReader(jsonReader);
+        }
+    }
+
+    /**
+     * Returns the content encoded in UTF-8. It's validated without building a JSON tree.
+     */
+    @SneakyThrows
+    public static byte[] readJsonBytes(InputStream in, Charset charset) {
+        if (!UTF_8.equals(charset)) {
+            in = new ByteArrayInputStream(new String(in.readAllBytes(), charset).getBytes(UTF_8));
+        }
+
+        var bytes = new ByteArrayOutputStream();
+        var copyingIn = new CopyingInputStream(in, bytes);
+        try (var jsonReader = GSON.newJsonReader(new InputStreamReader(copyingIn, UTF_8))) {
+            jsonReader.skipValue();
+            // The reader stops after the JSON value, so the rest of the content is copied explicitly
+            copyingIn.transferTo(OutputStream.nullOutputStream());
+        } catch (MalformedJsonException | EOFException exception) {
+            throw new JsonSyntaxException(exception);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static byte[] concatJsonArrays(List<byte[]> arrays) {
+        var out = new ByteArrayOutputStream();
+        out.write('[');
+        var isEmpty = true;
+        for (var array : arrays) {
+            var start = skipWhitespace(array, 0);
+            var end = trimWhitespace(array, start, array.length);
+            if (end - start < 2 || array[start] != '[' || array[end - 1] != ']') {
+                throw new JsonSyntaxException("Not a JSON array");
+            }
+
+            var elementsStart = skipWhitespace(array, start + 1);
+            var elementsEnd = trimWhitespace(array, elementsStart, end - 1);
+            if (elementsStart == elementsEnd) {
+                continue;
+            }
+
+            if (!isEmpty) {
+                out.write(',');
+            }
+            out.write(array, elementsStart, elementsEnd - elementsStart);
+            isEmpty = false;
+        }
+        out.write(']');
+        return out.toByteArray();
+    }
+
+    private static int skipWhitespace(byte[] content, int pos) {
+        while (pos < content.length && isWhitespace(content[pos])) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static int trimWhitespace(byte[] content, int start, int end) {
+        while (end > start && isWhitespace(content[end - 1])) {
+            end--;
+        }
+        return end;
+    }
+
+    private static boolean isWhitespace(byte ch) {
+        return ch == ' ' || ch == '\n' || ch == '\r' || ch == '\t';
+    }
+
+    @SneakyThrows
+    public static void writeJson(JsonElement json, OutputStream out) {
+        var writer = new OutputStreamWriter(out, UTF_8);
+        GSON.toJson(json, writer);
+        writer.flush();
+    }
+
+    public static byte[] toJsonBytes(JsonElement json) {
+        return json.toString().getBytes(UTF_8);
+    }
+
+    private static class CopyingInputStream extends FilterInputStream {
+
+        private final OutputStream copyTo;
+
+        CopyingInputStream(InputStream in, OutputStream copyTo) {
+            super(in);
+            this.copyTo = copyTo;
+        }
+
+        @Override
+        public int read() throws IOException {
+            var result = super.read();
+            if (result >= 0) {
+                copyTo.write(result);
+            }
+            return result;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            var result = super.read(buffer, offset, length);
+            if (result > 0) {
+                copyTo.write(buffer, offset, result);
+            }
+            return result;
+        }
+
+        @Override
+        public long skip(long count) throws IOException {
+            if (count <= 0) {
+                return 0;
+            }
+
+            // Skipped bytes must be copied too
+            var buffer = new byte[(int) min(count, 8192)];
+            return max(read(buffer, 0, buffer.length), 0);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+    }
+
 }
@@ -0,0 +1,92 @@
+package name.remal.gradle_plugins.github_repository_info;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse.ResponseInfo;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.jspecify.annotations.Nullable;
+
+class LatencyTracker implements HttpRequestListener {
+
+    static final int WINDOW_SIZE = 200;
+
+    static final int MIN_SAMPLES = 20;
+
+    private static final int TIMEOUT_TO_P99_RATIO = 4;
+
+    private static final Duration MIN_TIMEOUT = Duration.ofSeconds(10);
+
+    private static final Duration MAX_TIMEOUT = Duration.ofMinutes(1);
+
+
+    private final ConcurrentMap<String, LatencyWindow> windows = new ConcurrentHashMap<>();
+
+    @Override
+    public void onResponseReceived(HttpRequest request, ResponseInfo responseInfo, Duration latency) {
+        record(request.uri(), latency);
+    }
+
+    public void record(URI uri, Duration latency) {
+        var window = windows.computeIfAbsent(getHost(uri), __ -> new LatencyWindow());
+        synchronized (window) {
+            window.latencyMillis[window.next] = latency.toMillis();
+            window.next = (window.next + 1) % WINDOW_SIZE;
+            window.size = min(window.size + 1, WINDOW_SIZE);
+        }
+    }
+
+    @Nullable
+    public Duration getPercentile(URI uri, double percentile) {
+        var window = windows.get(getHost(uri));
+        if (window == null) {
+            return null;
+        }
+
+        final long[] sortedLatencyMillis;
+        synchronized (window) {
+            if (window.size < MIN_SAMPLES) {
+                return null;
+            }
+            sortedLatencyMillis = Arrays.copyOf(window.latencyMillis, window.size);
+        }
+
+        Arrays.sort(sortedLatencyMillis);
+        var index = (int) Math.ceil(percentile / 100 * sortedLatencyMillis.length) - 1;
+        index = max(0, min(index, sortedLatencyMillis.length - 1));
+        return Duration.ofMillis(sortedLatencyMillis[index]);
+    }
+
+    @Nullable
+    public Duration getAdaptiveTimeout(URI uri) {
+        var p99 = getPercentile(uri, 99);
+        if (p99 == null) {
+            return null;
+        }
+
+        var timeout = p99.multipliedBy(TIMEOUT_TO_P99_RATIO);
+        if (timeout.compareTo(MIN_TIMEOUT) < 0) {
+            return MIN_TIMEOUT;
+        } else if (timeout.compareTo(MAX_TIMEOUT) > 0) {
+            return MAX_TIMEOUT;
+        }
+        return timeout;
+    }
+
+    private static String getHost(URI uri) {
+        var authority = uri.getRawAuthority();
+        return authority != null ? authority : uri.toString();
+    }
+
+    private static class LatencyWindow {
+        final long[] latencyMillis = new long[WINDOW_SIZE];
+        int next;
+        int size;
+    }
+
+}
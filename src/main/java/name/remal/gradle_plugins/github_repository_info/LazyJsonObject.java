@@ -0,0 +1,336 @@
+package name.remal.gradle_plugins.github_repository_info;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.unmodifiableList;
+import static java.util.Collections.unmodifiableMap;
+import static name.remal.gradle_plugins.github_repository_info.JsonUtils.GSON;
+
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.reflect.TypeToken;
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import lombok.SneakyThrows;
+import name.remal.gradle_plugins.github_repository_info.info.GitHubInfoType;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Property values are deserialized on first access. All the objects of a document share its content.
+ */
+final class LazyJsonObject {
+
+    public static boolean isLazilyParseable(TypeToken<?> type) {
+        return getLazyElementType(type.getType()) != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> T parseLazily(byte[] content, TypeToken<T> type) {
+        var value = materialize(content, skipWhitespace(content, 0), trimEnd(content, content.length), type.getType());
+        if (value == null) {
+            throw new JsonSyntaxException("JSON content is null");
+        }
+        return (T) value;
+    }
+
+
+    private final byte[] content;
+
+    private final int start;
+
+    private final int end;
+
+    private final Map<String, Integer> propertyIndexes;
+
+    private final int[] valueRanges;
+
+    // A value can be materialized concurrently more than once, which is harmless
+    private final AtomicReferenceArray<Object> values;
+
+    private static final Object NOT_MATERIALIZED = new Object();
+
+    private static final Object NULL = new Object();
+
+    LazyJsonObject(byte[] content, int start, int end) {
+        this.content = content;
+        this.start = start;
+        this.end = end;
+
+        Map<String, Integer> propertyIndexes = new LinkedHashMap<>();
+        List<Integer> valueRanges = new ArrayList<>();
+        var pos = expect(content, start, '{');
+        pos = skipWhitespace(content, pos);
+        if (peek(content, pos) != '}') {
+            while (true) {
+                pos = skipWhitespace(content, pos);
+                var nameEnd = skipValue(content, pos);
+                var name = readString(content, pos, nameEnd);
+                pos = expect(content, skipWhitespace(content, nameEnd), ':');
+                var valueStart = skipWhitespace(content, pos);
+                var valueEnd = skipValue(content, valueStart);
+                propertyIndexes.put(name, valueRanges.size() / 2);
+                valueRanges.add(valueStart);
+                valueRanges.add(valueEnd);
+
+                pos = skipWhitespace(content, valueEnd);
+                if (peek(content, pos) == ',') {
+                    pos++;
+                } else {
+                    expect(content, pos, '}');
+                    break;
+                }
+            }
+        }
+
+        this.propertyIndexes = propertyIndexes;
+        this.valueRanges = valueRanges.stream().mapToInt(Integer::intValue).toArray();
+        this.values = new AtomicReferenceArray<>(propertyIndexes.size());
+        for (int i = 0; i < propertyIndexes.size(); i++) {
+            this.values.set(i, NOT_MATERIALIZED);
+        }
+    }
+
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public <T> T get(String property, Type type) {
+        var index = propertyIndexes.get(property);
+        if (index == null) {
+            return null;
+        }
+
+        var value = values.get(index);
+        if (value == NOT_MATERIALIZED) {
+            value = materialize(content, valueRanges[index * 2], valueRanges[index * 2 + 1], type);
+            if (value == null) {
+                value = NULL;
+            }
+            values.compareAndSet(index, NOT_MATERIALIZED, value);
+        }
+        return value != NULL ? (T) value : null;
+    }
+
+    public <T> T getRequired(String property, Type type) {
+        T value = get(property, type);
+        if (value == null) {
+            throw new IllegalStateException("Required JSON property is absent or null: " + property);
+        }
+        return value;
+    }
+
+    public <T> T getOrDefault(String property, Type type, T defaultValue) {
+        T value = get(property, type);
+        return value != null ? value : defaultValue;
+    }
+
+    public String toJson() {
+        return new String(content, start, end - start, UTF_8);
+    }
+
+    @Override
+    public boolean equals(@Nullable Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof LazyJsonObject)) {
+            return false;
+        }
+        var otherObject = (LazyJsonObject) other;
+        return Arrays.equals(content, start, end, otherObject.content, otherObject.start, otherObject.end);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 1;
+        for (int i = start; i < end; i++) {
+            result = 31 * result + content[i];
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return toJson();
+    }
+
+
+    @Nullable
+    private static Object materialize(byte[] content, int start, int end, Type type) {
+        if (isNull(content, start, end)) {
+            return null;
+        }
+
+        var lazyElementType = getLazyElementType(type);
+        if (lazyElementType == null) {
+            return deserialize(content, start, end, type);
+        }
+
+        if (lazyElementType == type) {
+            return LazyGitHubInfoTypes.create(lazyElementType, new LazyJsonObject(content, start, end));
+        }
+
+        List<GitHubInfoType> elements = new ArrayList<>();
+        var pos = expect(content, start, '[');
+        pos = skipWhitespace(content, pos);
+        if (peek(content, pos) != ']') {
+            while (true) {
+                var elementStart = skipWhitespace(content, pos);
+                var elementEnd = skipValue(content, elementStart);
+                elements.add(LazyGitHubInfoTypes.create(
+                    lazyElementType,
+                    new LazyJsonObject(content, elementStart, elementEnd)
+                ));
+
+                pos = skipWhitespace(content, elementEnd);
+                if (peek(content, pos) == ',') {
+                    pos++;
+                } else {
+                    expect(content, pos, ']');
+                    break;
+                }
+            }
+        }
+        return unmodifiableList(elements);
+    }
+
+    @Nullable
+    private static Class<?> getLazyElementType(Type type) {
+        var elementType = type;
+        if (type instanceof ParameterizedType && ((ParameterizedType) type).getRawType() == List.class) {
+            elementType = ((ParameterizedType) type).getActualTypeArguments()[0];
+        }
+        if (elementType instanceof Class<?> && LazyGitHubInfoTypes.isSupported((Class<?>) elementType)) {
+            return (Class<?>) elementType;
+        }
+        return null;
+    }
+
+    @SneakyThrows
+    private static Object deserialize(byte[] content, int start, int end, Type type) {
+        var in = new ByteArrayInputStream(content, start, end - start);
+        try (var jsonReader = GSON.newJsonReader(new InputStreamReader(in, UTF_8))) {
+            Object result = GSON.fromJson(jsonReader, type);
+            if (result instanceof List) {
+                return unmodifiableList((List<?>) result);
+            } else if (result instanceof Map) {
+                return unmodifiableMap((Map<?, ?>) result);
+            }
+            return result;
+        }
+    }
+
+
+    private static boolean isNull(byte[] content, int start, int end) {
+        return end - start == 4
+            && content[start] == 'n'
+            && content[start + 1] == 'u'
+            && content[start + 2] == 'l'
+            && content[start + 3] == 'l';
+    }
+
+    private static String readString(byte[] content, int start, int end) {
+        expect(content, start, '"');
+        for (int i = start + 1; i < end - 1; i++) {
+            if (content[i] == '\\') {
+                return GSON.fromJson(new String(content, start, end - start, UTF_8), String.class);
+            }
+        }
+        return new String(content, start + 1, end - start - 2, UTF_8);
+    }
+
+    private static int skipValue(byte[] content, int pos) {
+        checkNotEnd(content, pos);
+        var ch = content[pos];
+        if (ch == '"') {
+            return skipString(content, pos);
+        } else if (ch == '{' || ch == '[') {
+            int depth = 0;
+            while (true) {
+                checkNotEnd(content, pos);
+                ch = content[pos];
+                if (ch == '"') {
+                    pos = skipString(content, pos);
+                    continue;
+                }
+                if (ch == '{' || ch == '[') {
+                    depth++;
+                } else if (ch == '}' || ch == ']') {
+                    depth--;
+                    if (depth == 0) {
+                        return pos + 1;
+                    }
+                }
+                pos++;
+            }
+        }
+
+        while (pos < content.length) {
+            ch = content[pos];
+            if (ch == ',' || ch == '}' || ch == ']' || isWhitespace(ch)) {
+                break;
+            }
+            pos++;
+        }
+        return pos;
+    }
+
+    private static int skipString(byte[] content, int pos) {
+        pos++;
+        while (true) {
+            checkNotEnd(content, pos);
+            var ch = content[pos];
+            if (ch == '\\') {
+                pos += 2;
+            } else if (ch == '"') {
+                return pos + 1;
+            } else {
+                pos++;
+            }
+        }
+    }
+
+    private static int skipWhitespace(byte[] content, int pos) {
+        while (pos < content.length && isWhitespace(content[pos])) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static int trimEnd(byte[] content, int end) {
+        while (end > 0 && isWhitespace(content[end - 1])) {
+            end--;
+        }
+        return end;
+    }
+
+    private static boolean isWhitespace(byte ch) {
+        return ch == ' ' || ch == '\n' || ch == '\r' || ch == '\t';
+    }
+
+    private static int expect(byte[] content, int pos, char expected) {
+        checkNotEnd(content, pos);
+        if (content[pos] != expected) {
+            throw new JsonSyntaxException(
+                "Expected '" + expected + "' at position " + pos + ", but got '" + (char) content[pos] + "'"
+            );
+        }
+        return pos + 1;
+    }
+
+    private static byte peek(byte[] content, int pos) {
+        checkNotEnd(content, pos);
+        return content[pos];
+    }
+
+    private static void checkNotEnd(byte[] content, int pos) {
+        if (pos >= content.length) {
+            throw new JsonSyntaxException("Unexpected end of JSON content");
+        }
+    }
+
+}
@@ -0,0 +1,154 @@
+package name.remal.gradle_plugins.github_repository_info;
+
+import static java.lang.reflect.Modifier.isStatic;
+import static java.util.Collections.newSetFromMap;
+import static java.util.Collections.unmodifiableList;
+import static lombok.AccessLevel.PRIVATE;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.NoArgsConstructor;
+import lombok.SneakyThrows;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Estimates the heap size of an object graph, assuming a 64-bit JVM with compact strings.
+ * JDK classes are not walked into, except for strings, arrays, collections, and maps.
+ */
+@NoArgsConstructor(access = PRIVATE)
+abstract class RetainedSizeEstimator {
+
+    private static final int OBJECT_HEADER_BYTES = 16;
+
+    private static final int REFERENCE_BYTES = 8;
+
+    private static final int MAP_ENTRY_BYTES = OBJECT_HEADER_BYTES + 4 * REFERENCE_BYTES;
+
+    private static final int JDK_OBJECT_BYTES = 24;
+
+    /**
+     * {@code excluded} objects and objects reachable only via them are not counted.
+     */
+    @SneakyThrows
+    public static long estimateRetainedSizeBytes(Object root, Object... excluded) {
+        var visited = newSetFromMap(new IdentityHashMap<>());
+        visited.addAll(List.of(excluded));
+
+        var queue = new ArrayDeque<>();
+        queue.add(root);
+        long sizeBytes = 0;
+        while (!queue.isEmpty()) {
+            var object = queue.poll();
+            if (!visited.add(object)) {
+                continue;
+            }
+
+            sizeBytes += getShallowSizeBytes(object, queue);
+        }
+        return sizeBytes;
+    }
+
+    private static long getShallowSizeBytes(Object object, Collection<Object> references) throws Throwable {
+        if (object instanceof String) {
+            return OBJECT_HEADER_BYTES + REFERENCE_BYTES + OBJECT_HEADER_BYTES + ((String) object).length();
+        }
+
+        var type = object.getClass();
+        if (type.isArray()) {
+            var length = Array.getLength(object);
+            var componentType = type.getComponentType();
+            if (componentType.isPrimitive()) {
+                return OBJECT_HEADER_BYTES + (long) length * getPrimitiveSizeBytes(componentType);
+            }
+
+            for (var element : (Object[]) object) {
+                addReference(references, element);
+            }
+            return OBJECT_HEADER_BYTES + (long) length * REFERENCE_BYTES;
+        }
+
+        if (object instanceof Collection) {
+            var collection = (Collection<?>) object;
+            collection.forEach(element -> addReference(references, element));
+            return 2 * OBJECT_HEADER_BYTES + (long) collection.size() * REFERENCE_BYTES;
+        }
+
+        if (object instanceof Map) {
+            var map = (Map<?, ?>) object;
+            map.forEach((key, value) -> {
+                addReference(references, key);
+                addReference(references, value);
+            });
+            return 2 * OBJECT_HEADER_BYTES + (long) map.size() * MAP_ENTRY_BYTES;
+        }
+
+        if (object instanceof Enum || object instanceof Boolean) {
+            // Shared instances
+            return 0;
+        }
+
+        if (isJdkClass(type)) {
+            return JDK_OBJECT_BYTES;
+        }
+
+        long sizeBytes = OBJECT_HEADER_BYTES;
+        for (var field : INSTANCE_FIELDS.get(type)) {
+            var fieldType = field.getType();
+            if (fieldType.isPrimitive()) {
+                sizeBytes += getPrimitiveSizeBytes(fieldType);
+            } else {
+                sizeBytes += REFERENCE_BYTES;
+                addReference(references, field.get(object));
+            }
+        }
+        return sizeBytes;
+    }
+
+    private static void addReference(Collection<Object> references, @Nullable Object value) {
+        if (value != null) {
+            references.add(value);
+        }
+    }
+
+    private static int getPrimitiveSizeBytes(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        } else if (type == int.class || type == float.class) {
+            return 4;
+        } else if (type == short.class || type == char.class) {
+            return 2;
+        }
+        return 1;
+    }
+
+    private static boolean isJdkClass(Class<?> type) {
+        var className = type.getName();
+        return className.startsWith("java.") || className.startsWith("javax.") || className.startsWith("jdk.");
+    }
+
+    private static final ClassValue<List<Field>> INSTANCE_FIELDS = new ClassValue<>() {
+        @Override
+        protected List<Field> computeValue(Class<?> type) {
+            List<Field> fields = new ArrayList<>();
+            for (var currentType = type; currentType != null; currentType = currentType.getSuperclass()) {
+                if (isJdkClass(currentType)) {
+                    break;
+                }
+
+                for (var field : currentType.getDeclaredFields()) {
+                    if (!isStatic(field.getModifiers()) && field.trySetAccessible()) {
+                        fields.add(field);
+                    }
+                }
+            }
+            return unmodifiableList(fields);
+        }
+    };
+
+}
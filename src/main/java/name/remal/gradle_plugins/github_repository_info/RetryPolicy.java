@@ -0,0 +1,73 @@
+package name.remal.gradle_plugins.github_repository_info;
+
+import static java.lang.Math.min;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import lombok.Builder;
+import lombok.Value;
+import org.jspecify.annotations.Nullable;
+
+@Value
+@Builder(toBuilder = true)
+class RetryPolicy {
+
+    public static final RetryPolicy DEFAULT = RetryPolicy.builder().build();
+
+    @Builder.Default
+    int maxRetries = 5;
+
+    @Builder.Default
+    Duration initialBackoff = Duration.ofSeconds(1);
+
+    @Builder.Default
+    Duration maxBackoff = Duration.ofSeconds(30);
+
+    @Builder.Default
+    double multiplier = 2;
+
+    // From 0 (no jitter) to 1 (the delay is random between zero and the backoff)
+    @Builder.Default
+    double jitterFactor = 0.5;
+
+    @Builder.Default
+    Duration maxRetryAfter = Duration.ofMinutes(1);
+
+    @Nullable
+    CircuitBreaker circuitBreaker;
+
+    // If an attempt takes longer, a duplicate attempt is sent, and the first received response is used
+    @Nullable
+    Duration hedgeDelay;
+
+
+    /**
+     * @param retry the number of the retry, starting from {@code 1}
+     */
+    @Nullable
+    public Duration getDelayBeforeRetry(int retry, @Nullable Duration retryAfter) {
+        return getDelayBeforeRetry(retry, retryAfter, ThreadLocalRandom.current().nextDouble());
+    }
+
+    @Nullable
+    Duration getDelayBeforeRetry(int retry, @Nullable Duration retryAfter, double random) {
+        if (retry > maxRetries) {
+            return null;
+        }
+
+        if (retryAfter != null && retryAfter.compareTo(maxRetryAfter) > 0) {
+            return null;
+        }
+
+        var backoffMillis = initialBackoff.toMillis() * Math.pow(multiplier, retry - 1);
+        backoffMillis = min(backoffMillis, maxBackoff.toMillis());
+        backoffMillis -= backoffMillis * jitterFactor * random;
+        var delay = Duration.ofMillis((long) backoffMillis);
+
+        if (retryAfter != null && retryAfter.compareTo(delay) > 0) {
+            delay = retryAfter;
+        }
+        return delay;
+    }
+
+}
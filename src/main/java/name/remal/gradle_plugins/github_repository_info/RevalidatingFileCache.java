@@ -0,0 +1,176 @@
+package name.remal.gradle_plugins.github_repository_info;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.concurrent.CompletableFuture.supplyAsync;
+import static name.remal.gradle_plugins.github_repository_info.CompletableFutureUtils.unwrapCompletionException;
+import static name.remal.gradle_plugins.github_repository_info.HttpRequestException.isTransientFailure;
+import static name.remal.gradle_plugins.github_repository_info.JsonUtils.readJsonBytes;
+
+import com.google.gson.JsonParseException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import lombok.CustomLog;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import name.remal.gradle_plugins.github_repository_info.FileCache.FileCacheEntry;
+import name.remal.gradle_plugins.github_repository_info.FileCache.FileCacheMetadata;
+import name.remal.gradle_plugins.github_repository_info.FileCache.LockedEntry;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A file cache entry, that is revalidated with a conditional request when it's expired.
+ * The entry is locked only while it's read or written, never while it's fetched.
+ */
+@RequiredArgsConstructor
+@CustomLog
+class RevalidatingFileCache {
+
+    private final FileCache fileCache;
+
+    private final String url;
+
+    private final FetchTracer tracer;
+
+    // File locks are waited for in this executor, so HTTP client threads are never blocked by them
+    private final Executor fileExecutor;
+
+    /**
+     * If fetching fails because of a transient failure, the expired cached content is used.
+     */
+    public CompletableFuture<Lookup> getOrFetchAsync(@Nullable Duration maxAge, Fetcher fetcher) {
+        return supplyAsync(this::readEntry, fileExecutor).thenCompose(cachedEntry -> {
+            if (cachedEntry != null && !cachedEntry.isExpired(maxAge)) {
+                return completedFuture(new Lookup(toCachedContent(cachedEntry), Source.FILE));
+            }
+
+            var cachedMetadata = cachedEntry != null ? cachedEntry.getMetadata() : null;
+            var lookupFuture = fetcher.fetch(cachedMetadata, cachedEntry != null).thenApplyAsync(
+                fetchedContent -> store(fetchedContent, cachedEntry),
+                fileExecutor
+            );
+            if (cachedEntry == null) {
+                return lookupFuture;
+            }
+
+            return lookupFuture.exceptionally(exception -> {
+                var cause = unwrapCompletionException(exception);
+                if (!isTransientFailure(cause)) {
+                    throw new CompletionException(cause);
+                }
+
+                logger.warn("Failed to revalidate cached response of {}, using the cached response", url, cause);
+                return new Lookup(toCachedContent(cachedEntry), Source.STALE_FILE);
+            });
+        });
+    }
+
+    /**
+     * An entry that can't be parsed is fetched again.
+     */
+    @Nullable
+    private FileCacheEntry<byte[]> readEntry() {
+        try (var readSpan = tracer.startSpan("file cache read", "file-cache", Map.of("url", url))) {
+            return fileCache.getEntry(in -> readJsonBytes(in, UTF_8));
+        } catch (JsonParseException exception) {
+            logger.warn("Cached response of {} can't be parsed, fetching it again", url, exception);
+            return null;
+        }
+    }
+
+    /**
+     * Another build can update the entry while it's fetched, so a newer entry is never overwritten.
+     */
+    private Lookup store(FetchedContent fetchedContent, @Nullable FileCacheEntry<byte[]> cachedEntry) {
+        var content = fetchedContent.getContent();
+        if (content == null) {
+            if (cachedEntry == null) {
+                throw new IllegalStateException("Not modified response for not cached content: " + url);
+            }
+
+            var cachedMetadata = cachedEntry.getMetadata();
+            var metadata = withCachedValidators(fetchedContent.getMetadata(), cachedMetadata);
+            updateEntry(entry -> {
+                if (Objects.equals(entry.readMetadata(), cachedMetadata)) {
+                    entry.writeMetadata(metadata);
+                }
+            });
+            var cachedContent = new CachedContent(cachedEntry.getContent(), metadata.getFetchedAtMillis());
+            return new Lookup(cachedContent, Source.NOT_MODIFIED);
+        }
+
+        var fetchedAtMillis = fetchedContent.getFetchedAtMillis();
+        updateEntry(entry -> {
+            var currentMetadata = entry.readMetadata();
+            if (currentMetadata == null || currentMetadata.getFetchedAtMillis() <= fetchedAtMillis) {
+                entry.writeContent(out -> out.write(content), fetchedContent.getMetadata());
+            }
+        });
+        var fetchedCachedContent = new CachedContent(content, fetchedAtMillis);
+        return new Lookup(fetchedCachedContent, Source.NETWORK);
+    }
+
+    /**
+     * The fetched content is used even if it can't be stored.
+     */
+    private void updateEntry(Consumer<LockedEntry> action) {
+        try (var writeSpan = tracer.startSpan("file cache write", "file-cache", Map.of("url", url))) {
+            fileCache.withLockedEntry(entry -> {
+                action.accept(entry);
+                return null;
+            });
+        } catch (Throwable exception) {
+            logger.warn("Failed to store fetched response of {} in the file cache", url, exception);
+        }
+    }
+
+    /**
+     * {@code 304} responses don't have to repeat the validators.
+     */
+    private static FileCacheMetadata withCachedValidators(
+        FileCacheMetadata metadata,
+        @Nullable FileCacheMetadata cachedMetadata
+    ) {
+        if (cachedMetadata == null) {
+            return metadata;
+        }
+
+        var metadataBuilder = metadata.toBuilder();
+        if (metadata.getEtag() == null) {
+            metadataBuilder.etag(cachedMetadata.getEtag());
+        }
+        if (metadata.getLastModified() == null) {
+            metadataBuilder.lastModified(cachedMetadata.getLastModified());
+        }
+        return metadataBuilder.build();
+    }
+
+    private static CachedContent toCachedContent(FileCacheEntry<byte[]> entry) {
+        return new CachedContent(entry.getContent(), entry.getFetchedAtMillis());
+    }
+
+
+    @FunctionalInterface
+    public interface Fetcher {
+        CompletableFuture<FetchedContent> fetch(@Nullable FileCacheMetadata validators, boolean hasCachedContent);
+    }
+
+    public enum Source {
+        FILE,
+        NETWORK,
+        NOT_MODIFIED,
+        STALE_FILE,
+    }
+
+    @Value
+    public static class Lookup {
+        CachedContent content;
+        Source source;
+    }
+
+}
@@ -0,0 +1,54 @@
+package name.remal.gradle_plugins.github_repository_info;
+
+import static java.util.concurrent.CompletableFuture.allOf;
+import static java.util.concurrent.CompletableFuture.failedFuture;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Test;
+
+class AsyncConcurrencyLimiterTest {
+
+    final AsyncConcurrencyLimiter limiter = new AsyncConcurrencyLimiter(2, Runnable::run);
+
+    @Test
+    void tasksAboveLimitAreQueued() {
+        List<CompletableFuture<Integer>> tasks = new ArrayList<>();
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            var task = new CompletableFuture<Integer>();
+            tasks.add(task);
+            results.add(limiter.submit(() -> task));
+        }
+
+        assertEquals(2, limiter.getRunningTasks());
+        assertEquals(3, limiter.getQueuedTasks());
+
+        for (int i = 0; i < tasks.size(); i++) {
+            tasks.get(i).complete(i);
+        }
+
+        allOf(results.toArray(new CompletableFuture<?>[0])).join();
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i, results.get(i).join());
+        }
+        assertEquals(0, limiter.getRunningTasks());
+        assertEquals(0, limiter.getQueuedTasks());
+    }
+
+    @Test
+    void failedTaskReleasesSlot() {
+        var failed = limiter.submit(() -> failedFuture(new IllegalStateException()));
+        var thrown = limiter.submit(() -> {
+            throw new IllegalStateException();
+        });
+
+        assertTrue(failed.isCompletedExceptionally());
+        assertTrue(thrown.isCompletedExceptionally());
+        assertEquals(0, limiter.getRunningTasks());
+    }
+
+}
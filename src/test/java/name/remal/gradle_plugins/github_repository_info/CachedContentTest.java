@@ -0,0 +1,52 @@
+package name.remal.gradle_plugins.github_repository_info;
+
+import static name.remal.gradle_plugins.github_repository_info.GitHubApiFixtures.FULL_REPOSITORY;
+import static name.remal.gradle_plugins.github_repository_info.GitHubApiFixtures.loadFixtureBytes;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.google.gson.reflect.TypeToken;
+import name.remal.gradle_plugins.github_repository_info.info.GitHubFullRepository;
+import org.junit.jupiter.api.Test;
+
+class CachedContentTest {
+
+    static final TypeToken<GitHubFullRepository> TYPE = TypeToken.get(GitHubFullRepository.class);
+
+    final byte[] content = loadFixtureBytes(FULL_REPOSITORY);
+
+    final CachedContent cachedContent = new CachedContent(content, System.currentTimeMillis());
+
+    @Test
+    void weightIsContentSizeBeforeParsing() {
+        assertEquals(content.length, cachedContent.getWeight());
+    }
+
+    @Test
+    void parsedContentIncreasesWeight() {
+        cachedContent.getParsedContent(TYPE, false, FetchTracer.DISABLED);
+
+        assertThat(cachedContent.getWeight()).isGreaterThan(content.length);
+    }
+
+    @Test
+    void lazilyParsedContentIncreasesWeight() {
+        cachedContent.getParsedContent(TYPE, false, FetchTracer.DISABLED);
+        var weight = cachedContent.getWeight();
+
+        cachedContent.getParsedContent(TYPE, true, FetchTracer.DISABLED);
+
+        assertThat(cachedContent.getWeight()).isGreaterThan(weight);
+    }
+
+    @Test
+    void parsedContentIsReused() {
+        var parsedContent = cachedContent.getParsedContent(TYPE, true, FetchTracer.DISABLED);
+        var weight = cachedContent.getWeight();
+
+        assertSame(parsedContent, cachedContent.getParsedContent(TYPE, true, FetchTracer.DISABLED));
+        assertEquals(weight, cachedContent.getWeight());
+    }
+
+}
@@ -0,0 +1,85 @@
+package name.remal.gradle_plugins.github_repository_info;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class CircuitBreakerTest {
+
+    static final HttpRequest REQUEST = HttpRequest.newBuilder(URI.create("https://api.github.com/repos/o/r")).build();
+
+    static final HttpRequest OTHER_HOST_REQUEST = HttpRequest.newBuilder(URI.create("https://ghe.local/o/r")).build();
+
+    final AtomicLong currentTimeMillis = new AtomicLong(1_000_000);
+
+    final CircuitBreaker circuitBreaker = new CircuitBreaker(3, Duration.ofSeconds(10), currentTimeMillis::get);
+
+    @Test
+    void closedUntilThresholdIsReached() {
+        circuitBreaker.onFailure(REQUEST);
+        circuitBreaker.onFailure(REQUEST);
+        assertDoesNotThrow(() -> circuitBreaker.acquire(REQUEST));
+
+        circuitBreaker.onFailure(REQUEST);
+        assertThrows(HttpRequestException.NotRetryable.class, () -> circuitBreaker.acquire(REQUEST));
+    }
+
+    @Test
+    void successResetsFailures() {
+        circuitBreaker.onFailure(REQUEST);
+        circuitBreaker.onFailure(REQUEST);
+        circuitBreaker.onSuccess(REQUEST);
+        circuitBreaker.onFailure(REQUEST);
+        assertDoesNotThrow(() -> circuitBreaker.acquire(REQUEST));
+    }
+
+    @Test
+    void hostsAreIndependent() {
+        open();
+        assertDoesNotThrow(() -> circuitBreaker.acquire(OTHER_HOST_REQUEST));
+    }
+
+    @Test
+    void singleProbeIsAllowedAfterOpenDuration() {
+        open();
+        currentTimeMillis.addAndGet(10_000);
+
+        assertDoesNotThrow(() -> circuitBreaker.acquire(REQUEST));
+        assertThrows(HttpRequestException.NotRetryable.class, () -> circuitBreaker.acquire(REQUEST));
+    }
+
+    @Test
+    void successfulProbeClosesCircuit() {
+        open();
+        currentTimeMillis.addAndGet(10_000);
+        circuitBreaker.acquire(REQUEST);
+
+        circuitBreaker.onSuccess(REQUEST);
+        assertDoesNotThrow(() -> circuitBreaker.acquire(REQUEST));
+        assertDoesNotThrow(() -> circuitBreaker.acquire(REQUEST));
+    }
+
+    @Test
+    void failedProbeOpensCircuitAgain() {
+        open();
+        currentTimeMillis.addAndGet(10_000);
+        circuitBreaker.acquire(REQUEST);
+
+        circuitBreaker.onFailure(REQUEST);
+        currentTimeMillis.addAndGet(5_000);
+        assertThrows(HttpRequestException.NotRetryable.class, () -> circuitBreaker.acquire(REQUEST));
+    }
+
+
+    private void open() {
+        for (int i = 0; i < circuitBreaker.getFailureThreshold(); i++) {
+            circuitBreaker.onFailure(REQUEST);
+        }
+    }
+
+}
@@ -0,0 +1,91 @@
+package name.remal.gradle_plugins.github_repository_info;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.Files.readString;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.gson.JsonParser;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import name.remal.gradle_plugins.github_repository_info.FetchTracer.TraceEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class FetchTracerTest {
+
+    static final HttpRequest REQUEST = HttpRequest.newBuilder(
+        URI.create("https://api.github.com/repos/owner/repo")
+    ).build();
+
+    @TempDir
+    Path tempDir;
+
+    final FetchTracer tracer = new FetchTracer();
+
+    @Test
+    void disabledTracerRecordsNothing() {
+        var disabledTracer = FetchTracer.DISABLED;
+        disabledTracer.startSpan("span", "test", null).close();
+        disabledTracer.startAsyncSpan("async span", "test", null).close();
+        disabledTracer.recordSpanEndedNow("ended span", "test", Duration.ofMillis(1), null);
+        disabledTracer.onRetryScheduled(REQUEST, 1, Duration.ofSeconds(1));
+
+        assertThat(disabledTracer.getEvents()).isEmpty();
+    }
+
+    @Test
+    void spanIsCompleteEventOfCurrentThread() {
+        try (var span = tracer.startSpan("span", "test", Map.of("key", "value"))) {
+            // do nothing
+        }
+
+        assertThat(tracer.getEvents()).singleElement().satisfies(event -> {
+            assertEquals("span", event.getName());
+            assertEquals("test", event.getCat());
+            assertEquals("X", event.getPh());
+            assertTrue(event.getDur() >= 0);
+            assertEquals(Map.of("key", "value"), event.getArgs());
+        });
+    }
+
+    @Test
+    void asyncSpanIsPairOfEventsWithSameId() {
+        tracer.startAsyncSpan("first", "test", null).close();
+        tracer.startAsyncSpan("second", "test", null).close();
+
+        var events = tracer.getEvents();
+        assertThat(events).extracting(TraceEvent::getPh).containsExactly("b", "e", "b", "e");
+        assertEquals(events.get(0).getId(), events.get(1).getId());
+        assertEquals(events.get(2).getId(), events.get(3).getId());
+        assertThat(events.get(0).getId()).isNotEqualTo(events.get(2).getId());
+    }
+
+    @Test
+    void retryBackoffEndsAfterDelay() {
+        tracer.onRetryScheduled(REQUEST, 1, Duration.ofSeconds(2));
+
+        var events = tracer.getEvents();
+        assertThat(events).extracting(TraceEvent::getName).containsOnly("retry backoff");
+        assertEquals(2_000_000, events.get(1).getTs() - events.get(0).getTs());
+    }
+
+    @Test
+    void writeTo() throws Throwable {
+        tracer.startSpan("span", "test", null).close();
+
+        var file = tempDir.resolve("traces/trace.json");
+        tracer.writeTo(file);
+
+        var json = JsonParser.parseString(readString(file, UTF_8)).getAsJsonObject();
+        var traceEvents = json.getAsJsonArray("traceEvents");
+        assertThat(traceEvents).hasSize(2);
+        assertEquals("thread_name", traceEvents.get(0).getAsJsonObject().get("name").getAsString());
+        assertEquals("span", traceEvents.get(1).getAsJsonObject().get("name").getAsString());
+    }
+
+}
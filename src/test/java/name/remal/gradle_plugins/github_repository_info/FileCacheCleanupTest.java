@@ -0,0 +1,96 @@
+package name.remal.gradle_plugins.github_repository_info;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.Files.exists;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static name.remal.gradle_plugins.github_repository_info.FileCacheCleanup.CLEANUP_LOCK_FILE_NAME;
+import static name.remal.gradle_plugins.github_repository_info.FileCacheCleanup.LAST_CLEANUP_MARKER_FILE_NAME;
+import static name.remal.gradle_plugins.github_repository_info.FileCacheCleanup.cleanup;
+import static name.remal.gradle_plugins.github_repository_info.FileCacheCleanup.cleanupIfDue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.time.Duration;
+import name.remal.gradle_plugins.github_repository_info.FileCache.FileCacheMetadata;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class FileCacheCleanupTest {
+
+    @TempDir
+    Path cacheDir;
+
+    @Test
+    void expiredEntriesAreDeleted() {
+        var expired = createEntry("expired", 10, Duration.ofDays(31));
+        var fresh = createEntry("fresh", 10, Duration.ofDays(1));
+
+        assertEquals(1, cleanup(cacheDir, Long.MAX_VALUE, Duration.ofDays(30)));
+
+        assertFalse(exists(expired));
+        assertFalse(exists(expired.resolveSibling(expired.getFileName() + ".metadata")));
+        assertTrue(exists(fresh));
+    }
+
+    @Test
+    void oldestEntriesAreDeletedUntilSizeIsWithinLimit() {
+        var oldest = createEntry("oldest", 100, Duration.ofHours(3));
+        var older = createEntry("older", 100, Duration.ofHours(2));
+        var newest = createEntry("newest", 100, Duration.ofHours(1));
+        var entrySize = new FileCache(newest).getSizeBytes();
+
+        assertEquals(2, cleanup(cacheDir, entrySize, Duration.ofDays(30)));
+
+        assertFalse(exists(oldest));
+        assertFalse(exists(older));
+        assertTrue(exists(newest));
+    }
+
+    @Test
+    void cleanupRunsOncePerInterval() {
+        createEntry("expired", 10, Duration.ofDays(31));
+
+        assertEquals(1, cleanupIfDue(cacheDir, Long.MAX_VALUE, Duration.ofDays(30)));
+
+        createEntry("expired", 10, Duration.ofDays(31));
+        assertEquals(-1, cleanupIfDue(cacheDir, Long.MAX_VALUE, Duration.ofDays(30)));
+    }
+
+    @Test
+    void cleanupIsSkippedWhileLocked() throws Throwable {
+        createEntry("expired", 10, Duration.ofDays(31));
+
+        var lockFile = cacheDir.resolve(CLEANUP_LOCK_FILE_NAME);
+        try (var lockChannel = FileChannel.open(lockFile, CREATE, WRITE); var lock = lockChannel.lock()) {
+            assertEquals(-1, cleanupIfDue(cacheDir, Long.MAX_VALUE, Duration.ofDays(30)));
+        }
+
+        assertFalse(exists(cacheDir.resolve(LAST_CLEANUP_MARKER_FILE_NAME)));
+        assertEquals(1, cleanupIfDue(cacheDir, Long.MAX_VALUE, Duration.ofDays(30)));
+    }
+
+    @Test
+    void lockFilesAreKept() {
+        var expired = createEntry("expired", 10, Duration.ofDays(31));
+
+        assertEquals(1, cleanup(cacheDir, Long.MAX_VALUE, Duration.ofDays(30)));
+
+        assertFalse(exists(expired));
+        assertTrue(exists(expired.resolveSibling(expired.getFileName() + ".lock")));
+    }
+
+
+    private Path createEntry(String name, int contentSize, Duration age) {
+        var file = cacheDir.resolve(name + ".json");
+        var metadata = FileCacheMetadata.builder()
+            .fetchedAtMillis(System.currentTimeMillis() - age.toMillis())
+            .build();
+        new FileCache(file).setContent(out -> out.write("x".repeat(contentSize).getBytes(UTF_8)), metadata);
+        return file;
+    }
+
+}
@@ -0,0 +1,75 @@
+package name.remal.gradle_plugins.github_repository_info;
+
+import static name.remal.gradle_plugins.toolkit.PathUtils.normalizePath;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicReference;
+import lombok.RequiredArgsConstructor;
+import org.gradle.api.Project;
+import org.gradle.api.file.Directory;
+import org.gradle.api.provider.Provider;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@RequiredArgsConstructor
+class FileCacheDirectoryTest {
+
+    static final String URL = "https://api.github.com/repos/owner/repo";
+
+    final Project project;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void sharedDirectoryIsUsed() {
+        var sharedDirectory = tempDir.resolve("shared");
+        var directory = new FileCacheDirectory(sharedDirectory, () -> project.getLayout().getBuildDirectory());
+
+        assertTrue(directory.isShared());
+        assertEquals(sharedDirectory, directory.getDirectory());
+        assertEquals(sharedDirectory, directory.getFile(URL).getParent());
+    }
+
+    @Test
+    void buildDirectoryIsUsedIfNotShared() {
+        var directory = new FileCacheDirectory(null, () -> project.getLayout().getBuildDirectory());
+
+        var buildDirectory = normalizePath(project.getLayout().getBuildDirectory().get().getAsFile().toPath());
+        assertEquals(buildDirectory.resolve("tmp/.cache/name.remal.github-repository-info"), directory.getDirectory());
+    }
+
+    @Test
+    void directoryIsResolvedAgainIfBuildDirectoryChanges() {
+        var otherBuildDirectory = project.getLayout().dir(project.provider(() -> tempDir.resolve("other").toFile()));
+        var buildDirectory = new AtomicReference<Provider<Directory>>(project.getLayout().getBuildDirectory());
+        var directory = new FileCacheDirectory(null, buildDirectory::get);
+        var file = directory.getFile(URL);
+
+        buildDirectory.set(otherBuildDirectory);
+
+        assertNotEquals(file, directory.getFile(URL));
+        assertTrue(directory.getFile(URL).startsWith(normalizePath(tempDir.resolve("other"))));
+    }
+
+    @Test
+    void fileNamesDependOnUrl() {
+        var directory = new FileCacheDirectory(tempDir, () -> project.getLayout().getBuildDirectory());
+
+        assertEquals(directory.getFile(URL), directory.getFile(URL));
+        assertNotEquals(directory.getFile(URL), directory.getFile(URL + "/languages"));
+    }
+
+    @Test
+    void noFileWithoutDirectory() {
+        var directory = new FileCacheDirectory(null, () -> project.provider(() -> (Directory) null));
+
+        assertNull(directory.getDirectory());
+        assertNull(directory.getFile(URL));
+    }
+
+}
@@ -0,0 +1,308 @@
+package name.remal.gradle_plugins.github_repository_info;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toList;
+import static name.remal.gradle_plugins.github_repository_info.JsonUtils.parseJson;
+import static name.remal.gradle_plugins.github_repository_info.JsonUtils.writeJson;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import lombok.RequiredArgsConstructor;
+import name.remal.gradle_plugins.github_repository_info.FileCache.FileCacheMetadata;
+import name.remal.gradle_plugins.github_repository_info.GitHubDataFetcher.GitHubDataFetcherParams;
+import name.remal.gradle_plugins.github_repository_info.GitHubFetchMetrics.EndpointMetricsReport;
+import org.gradle.api.Project;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+@RequiredArgsConstructor
+class GitHubDataFetcherTest {
+
+    static final String API_TOKEN = "token";
+
+    static final String REPOSITORY_PATH = "/repos/owner/repo";
+
+    static final Duration MAX_AGE = Duration.ofHours(1);
+
+    static final JsonObject CACHED_REPOSITORY = JsonParser.parseString("{\"full_name\":\"owner/cached\"}")
+        .getAsJsonObject();
+
+    final Project project;
+
+    final MockGitHubApiServer server = new MockGitHubApiServer();
+
+    {
+        server.addRepository("owner/repo");
+    }
+
+    @AfterEach
+    void afterEach() {
+        server.close();
+    }
+
+    @Test
+    void freshContentIsServedFromInMemoryCache() {
+        var fetcher = createFetcher();
+        var repository = fetchRepository(fetcher, MAX_AGE);
+        var cachedRepository = fetchRepository(fetcher, MAX_AGE);
+
+        assertEquals(repository, cachedRepository);
+        assertEquals(1, server.getRequestCount(REPOSITORY_PATH));
+        var metrics = getEndpointMetrics(fetcher, REPOSITORY_PATH);
+        assertEquals(1, metrics.getInMemoryHits());
+        assertEquals(0, metrics.getFileHits());
+        assertEquals(1, metrics.getNetworkFetches());
+    }
+
+    @Test
+    void freshContentIsServedFromFileCache() {
+        var fetcher = createFetcher();
+        createCacheEntry(fetcher, REPOSITORY_PATH, CACHED_REPOSITORY, Duration.ofMinutes(1));
+
+        var repository = fetchRepository(fetcher, MAX_AGE);
+
+        assertEquals(CACHED_REPOSITORY, repository);
+        assertEquals(0, server.getRequestCount(REPOSITORY_PATH));
+        var metrics = getEndpointMetrics(fetcher, REPOSITORY_PATH);
+        assertEquals(0, metrics.getInMemoryHits());
+        assertEquals(1, metrics.getFileHits());
+        assertEquals(0, metrics.getNetworkFetches());
+    }
+
+    @Test
+    void concurrentFetchesAreDeduplicated() {
+        server.setLatency(Duration.ofMillis(200));
+        var fetcher = createFetcher();
+
+        List<CompletableFuture<JsonObject>> repositoryFutures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            repositoryFutures.add(fetcher.fetchAsync(
+                server.getApiUrl(),
+                REPOSITORY_PATH,
+                API_TOKEN,
+                JsonObject.class,
+                MAX_AGE,
+                null
+            ));
+        }
+        var repositories = repositoryFutures.stream()
+            .map(CompletableFuture::join)
+            .collect(toList());
+
+        assertThat(repositories).hasSize(8).containsOnly(repositories.get(0));
+        assertEquals(1, server.getRequestCount(REPOSITORY_PATH));
+        var metrics = getEndpointMetrics(fetcher, REPOSITORY_PATH);
+        assertEquals(7, metrics.getInMemoryHits());
+        assertEquals(1, metrics.getNetworkFetches());
+    }
+
+    @Test
+    void fetchAsyncReturnsSameContentAsFetch() {
+        var fetcher = createFetcher();
+        var repository = fetcher.fetchAsync(
+            server.getApiUrl(),
+            REPOSITORY_PATH,
+            API_TOKEN,
+            JsonObject.class,
+            MAX_AGE,
+            null
+        ).join();
+
+        assertEquals("repo", repository.get("name").getAsString());
+        assertEquals(repository, fetchRepository(fetcher, MAX_AGE));
+        assertEquals(1, server.getRequestCount(REPOSITORY_PATH));
+    }
+
+    @Test
+    void fetchReusesPrefetchedContent() {
+        server.setLatency(Duration.ofMillis(200));
+        var fetcher = createFetcher();
+        var languagesPath = "/repos/owner/repo/languages";
+        fetcher.prefetchAsync(
+            server.getApiUrl(),
+            Map.of(REPOSITORY_PATH, MAX_AGE, languagesPath, MAX_AGE),
+            API_TOKEN,
+            null
+        );
+
+        fetchRepository(fetcher, MAX_AGE);
+        fetcher.fetch(server.getApiUrl(), languagesPath, API_TOKEN, JsonObject.class, MAX_AGE, null);
+
+        assertEquals(1, server.getRequestCount(REPOSITORY_PATH));
+        assertEquals(1, server.getRequestCount(languagesPath));
+        assertEquals(1, getEndpointMetrics(fetcher, REPOSITORY_PATH).getInMemoryHits());
+        assertEquals(1, getEndpointMetrics(fetcher, languagesPath).getInMemoryHits());
+    }
+
+    @Test
+    void prefetchHitsAreNotCounted() {
+        var fetcher = createFetcher();
+        fetchRepository(fetcher, MAX_AGE);
+
+        fetcher.prefetchAsync(server.getApiUrl(), Map.of(REPOSITORY_PATH, MAX_AGE), API_TOKEN, null);
+
+        var metrics = getEndpointMetrics(fetcher, REPOSITORY_PATH);
+        assertEquals(1, metrics.getLookups());
+        assertEquals(0, metrics.getInMemoryHits());
+    }
+
+    @Test
+    void allPagesAreFetched() {
+        server.addRepository("owner/popular-repo", 75);
+        var contributorsPath = "/repos/owner/popular-repo/contributors";
+        var fetcher = createFetcher();
+
+        var contributors = fetcher.fetch(
+            server.getApiUrl(),
+            contributorsPath,
+            API_TOKEN,
+            JsonArray.class,
+            MAX_AGE,
+            null
+        );
+
+        assertEquals(75, contributors.size());
+        assertEquals(75, Set.copyOf(contributors.asList()).size());
+        assertEquals(3, server.getRequestCount(contributorsPath));
+    }
+
+    @Test
+    void offlineUsesExpiredFileCacheEntry() {
+        var fetcher = createFetcher(params -> params.getOffline().set(true));
+        createCacheEntry(fetcher, REPOSITORY_PATH, CACHED_REPOSITORY, Duration.ofDays(365));
+
+        var repository = fetchRepository(fetcher, MAX_AGE);
+
+        assertEquals(CACHED_REPOSITORY, repository);
+        assertEquals(0, server.getRequestCount());
+    }
+
+    @Test
+    void offlineFailsWithoutFileCacheEntry() {
+        var fetcher = createFetcher(params -> params.getOffline().set(true));
+
+        assertThatThrownBy(() -> fetchRepository(fetcher, MAX_AGE))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("offline mode");
+        assertEquals(0, server.getRequestCount());
+    }
+
+    @Test
+    void staleContentIsUsedIfServerFails() {
+        var fetcher = createFetcher();
+        var repository = fetchRepository(fetcher, MAX_AGE);
+
+        server.injectFaults(1, 503, null);
+        var staleRepository = fetchRepository(fetcher, Duration.ZERO);
+
+        assertEquals(repository, staleRepository);
+        assertEquals(2, server.getRequestCount(REPOSITORY_PATH));
+    }
+
+    @Test
+    void staleContentIsNotUsedIfRepositoryIsNotFound() {
+        var fetcher = createFetcher();
+        fetchRepository(fetcher, MAX_AGE);
+
+        server.injectFaults(1, 404, null);
+
+        assertThatThrownBy(() -> fetchRepository(fetcher, Duration.ZERO))
+            .isInstanceOf(HttpRequestException.NotRetryable.class);
+        assertEquals(2, server.getRequestCount(REPOSITORY_PATH));
+    }
+
+    @Test
+    void expiredEntryIsRevalidatedWithEtag() throws Throwable {
+        var fetcher = createFetcher();
+        var repository = fetchRepository(fetcher, MAX_AGE);
+
+        Thread.sleep(10);
+        var revalidatedRepository = fetchRepository(fetcher, Duration.ZERO);
+
+        assertEquals(repository, revalidatedRepository);
+        assertEquals(2, server.getRequestCount(REPOSITORY_PATH));
+        assertEquals(1, getEndpointMetrics(fetcher, REPOSITORY_PATH).getNotModified());
+    }
+
+    @Test
+    void expiredEntryIsRevalidatedWithLastModified() throws Throwable {
+        server.disableEtags();
+        var fetcher = createFetcher();
+        var repository = fetchRepository(fetcher, MAX_AGE);
+
+        Thread.sleep(10);
+        var revalidatedRepository = fetchRepository(fetcher, Duration.ZERO);
+
+        assertEquals(repository, revalidatedRepository);
+        assertEquals(2, server.getRequestCount(REPOSITORY_PATH));
+        assertEquals(1, getEndpointMetrics(fetcher, REPOSITORY_PATH).getNotModified());
+    }
+
+    @Test
+    void modifiedContentReplacesExpiredEntry() throws Throwable {
+        server.disableEtags();
+        var fetcher = createFetcher();
+        var repository = fetchRepository(fetcher, MAX_AGE);
+
+        server.updateRepository("owner/repo", json -> json.addProperty("description", "modified"));
+        Thread.sleep(10);
+        var modifiedRepository = fetchRepository(fetcher, Duration.ZERO);
+
+        assertNotEquals(repository, modifiedRepository);
+        assertEquals("modified", modifiedRepository.get("description").getAsString());
+        assertEquals(0, getEndpointMetrics(fetcher, REPOSITORY_PATH).getNotModified());
+
+        var cacheFile = requireNonNull(fetcher.getCacheFile(server.getApiUrl(), REPOSITORY_PATH));
+        var cachedEntry = requireNonNull(new FileCache(cacheFile).getEntry(in -> parseJson(in, UTF_8)));
+        assertEquals(modifiedRepository, cachedEntry.getContent());
+    }
+
+
+    private GitHubDataFetcher createFetcher() {
+        return createFetcher(params -> { });
+    }
+
+    private GitHubDataFetcher createFetcher(Consumer<GitHubDataFetcherParams> paramsConfigurer) {
+        var fetcher = project.getGradle().getSharedServices().registerIfAbsent(
+            "gitHubDataFetcher",
+            GitHubDataFetcher.class,
+            spec -> {
+                spec.getParameters().getMaxRetries().set(0);
+                paramsConfigurer.accept(spec.getParameters());
+            }
+        ).get();
+        fetcher.registerProject(project);
+        return fetcher;
+    }
+
+    private void createCacheEntry(GitHubDataFetcher fetcher, String path, JsonElement content, Duration age) {
+        var cacheFile = requireNonNull(fetcher.getCacheFile(server.getApiUrl(), path));
+        var metadata = FileCacheMetadata.builder()
+            .fetchedAtMillis(System.currentTimeMillis() - age.toMillis())
+            .build();
+        new FileCache(cacheFile).setContent(out -> writeJson(content, out), metadata);
+    }
+
+    private JsonObject fetchRepository(GitHubDataFetcher fetcher, Duration maxAge) {
+        return fetcher.fetch(server.getApiUrl(), REPOSITORY_PATH, API_TOKEN, JsonObject.class, maxAge, null);
+    }
+
+    private EndpointMetricsReport getEndpointMetrics(GitHubDataFetcher fetcher, String path) {
+        return fetcher.createMetricsReport().getEndpoints().get(server.getApiUrl() + path);
+    }
+
+}
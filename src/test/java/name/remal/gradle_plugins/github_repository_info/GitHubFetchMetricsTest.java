@@ -0,0 +1,140 @@
+package name.remal.gradle_plugins.github_repository_info;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient.Version;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse.ResponseInfo;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import org.jspecify.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+
+class GitHubFetchMetricsTest {
+
+    static final String CONTRIBUTORS_URL = "https://api.github.com/repos/owner/repo/contributors";
+
+    static final String LANGUAGES_URL = "https://api.github.com/repos/owner/repo/languages";
+
+    final GitHubFetchMetrics metrics = new GitHubFetchMetrics();
+
+    @Test
+    void pagesAreCountedAsSingleEndpoint() {
+        sendRequest(CONTRIBUTORS_URL + "?per_page=100", 0, 200, Duration.ofMillis(100), 4999);
+        sendRequest(CONTRIBUTORS_URL + "?per_page=100&page=2", 0, 200, Duration.ofMillis(300), 4998);
+
+        var report = metrics.createReport();
+        assertThat(report.getEndpoints()).containsOnlyKeys(CONTRIBUTORS_URL);
+
+        var endpoint = report.getEndpoints().get(CONTRIBUTORS_URL);
+        assertEquals(2, endpoint.getRequests());
+        assertEquals(400, endpoint.getTotalLatencyMillis());
+        assertEquals(200, endpoint.getMeanLatencyMillis());
+        assertEquals(300, endpoint.getMaxLatencyMillis());
+        assertEquals(4998, endpoint.getRateLimitRemaining());
+    }
+
+    @Test
+    void retriesAndFailures() {
+        sendRequest(LANGUAGES_URL, 0, 503, Duration.ofMillis(10), null);
+        metrics.onAttemptStarted(request(LANGUAGES_URL), 1);
+        metrics.onAttemptFailed(request(LANGUAGES_URL), new IOException(), Duration.ofMillis(10));
+        sendRequest(LANGUAGES_URL, 2, 200, Duration.ofMillis(10), null);
+
+        var endpoint = metrics.createReport().getEndpoints().get(LANGUAGES_URL);
+        assertEquals(3, endpoint.getRequests());
+        assertEquals(2, endpoint.getRetries());
+        assertEquals(2, endpoint.getFailedRequests());
+        assertNull(endpoint.getRateLimitRemaining());
+    }
+
+    @Test
+    void cacheHitRatios() {
+        var endpoint = metrics.getEndpoint(LANGUAGES_URL);
+        endpoint.onInMemoryHit();
+        endpoint.onInMemoryHit();
+        endpoint.onFileHit();
+        endpoint.onNetworkFetch();
+        endpoint.onResponseBodyRead(100, 400);
+        endpoint.onFileLockAcquired(Duration.ofMillis(5));
+
+        var report = metrics.createReport().getEndpoints().get(LANGUAGES_URL);
+        assertEquals(4, report.getLookups());
+        assertEquals(0.5, report.getInMemoryHitRatio());
+        assertEquals(0.25, report.getFileHitRatio());
+        assertEquals(0.25, report.getNetworkFetchRatio());
+        assertEquals(100, report.getWireBytes());
+        assertEquals(400, report.getDecompressedBytes());
+        assertEquals(5, report.getFileLockWaitMillis());
+    }
+
+    @Test
+    void projectionsAreCountedAsSingleEndpoint() {
+        metrics.getEndpoint(LANGUAGES_URL).onNetworkFetch();
+        metrics.getEndpoint(LANGUAGES_URL + "#fields=Java").onNetworkFetch();
+
+        var report = metrics.createReport();
+        assertThat(report.getEndpoints()).containsOnlyKeys(LANGUAGES_URL);
+        assertEquals(2, report.getEndpoints().get(LANGUAGES_URL).getLookups());
+    }
+
+    @Test
+    void totalIsSumOfEndpoints() {
+        sendRequest(CONTRIBUTORS_URL, 0, 200, Duration.ofMillis(100), 10);
+        sendRequest(LANGUAGES_URL, 0, 200, Duration.ofMillis(200), 20);
+
+        var total = metrics.createReport().getTotal();
+        assertEquals(2, total.getRequests());
+        assertEquals(200, total.getMaxLatencyMillis());
+        assertEquals(10, total.getRateLimitRemaining());
+    }
+
+
+    private void sendRequest(
+        String url,
+        int retry,
+        int statusCode,
+        Duration latency,
+        @Nullable Integer rateLimitRemaining
+    ) {
+        var request = request(url);
+        metrics.onAttemptStarted(request, retry);
+        metrics.onResponseReceived(request, responseInfo(statusCode, rateLimitRemaining), latency);
+    }
+
+    private static HttpRequest request(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).build();
+    }
+
+    private static ResponseInfo responseInfo(
+        int statusCode,
+        @Nullable Integer rateLimitRemaining
+    ) {
+        Map<String, List<String>> headers = rateLimitRemaining != null
+            ? Map.of("X-RateLimit-Remaining", List.of(rateLimitRemaining.toString()))
+            : Map.of();
+        return new ResponseInfo() {
+            @Override
+            public int statusCode() {
+                return statusCode;
+            }
+
+            @Override
+            public HttpHeaders headers() {
+                return HttpHeaders.of(headers, (name, value) -> true);
+            }
+
+            @Override
+            public Version version() {
+                return Version.HTTP_1_1;
+            }
+        };
+    }
+
+}
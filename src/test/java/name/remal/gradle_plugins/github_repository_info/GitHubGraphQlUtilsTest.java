@@ -0,0 +1,157 @@
+package name.remal.gradle_plugins.github_repository_info;
+
+import static com.google.common.net.HttpHeaders.AUTHORIZATION;
+import static com.google.common.net.HttpHeaders.CONTENT_TYPE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+import static name.remal.gradle_plugins.github_repository_info.CompletableFutureUtils.joinUnwrapped;
+import static name.remal.gradle_plugins.github_repository_info.GitHubGraphQlUtils.createRepositoryQueryRequest;
+import static name.remal.gradle_plugins.github_repository_info.GitHubGraphQlUtils.getGraphQlUrl;
+import static name.remal.gradle_plugins.github_repository_info.GitHubGraphQlUtils.parseRepositoryQueryResponse;
+import static name.remal.gradle_plugins.github_repository_info.GitHubRestApiHttpClientUtils.sendGitHubGraphQlStreamingHttpRequestAsync;
+import static name.remal.gradle_plugins.github_repository_info.HttpClientUtils.getHttpClient;
+import static name.remal.gradle_plugins.github_repository_info.HttpClientUtils.openPlainHttpResponseBody;
+import static name.remal.gradle_plugins.github_repository_info.JsonUtils.GSON;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.gson.JsonParser;
+import com.google.gson.reflect.TypeToken;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayInputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import name.remal.gradle_plugins.github_repository_info.info.GitHubFullRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class GitHubGraphQlUtilsTest {
+
+    static final String RESPONSE = String.join("\n",
+        "{\"data\": {\"repository\": {",
+        "  \"databaseId\": 123, \"id\": \"R_123\", \"name\": \"repo\", \"nameWithOwner\": \"owner/repo\",",
+        "  \"description\": \"Description\", \"url\": \"https://github.com/owner/repo\", \"homepageUrl\": \"\",",
+        "  \"sshUrl\": \"git@github.com:owner/repo.git\", \"mirrorUrl\": null,",
+        "  \"isPrivate\": false, \"isFork\": false, \"isArchived\": false, \"isDisabled\": false,",
+        "  \"isTemplate\": false, \"visibility\": \"PUBLIC\", \"forkingAllowed\": true,",
+        "  \"hasIssuesEnabled\": true, \"hasProjectsEnabled\": false, \"hasWikiEnabled\": false,",
+        "  \"hasDiscussionsEnabled\": false, \"webCommitSignoffRequired\": false,",
+        "  \"createdAt\": \"2020-01-01T00:00:00Z\", \"updatedAt\": \"2024-01-01T00:00:00Z\",",
+        "  \"pushedAt\": \"2024-01-02T00:00:00Z\",",
+        "  \"diskUsage\": 1024, \"stargazerCount\": 42, \"forkCount\": 7,",
+        "  \"watchers\": {\"totalCount\": 5},",
+        "  \"issues\": {\"totalCount\": 3},",
+        "  \"pullRequests\": {\"totalCount\": 2},",
+        "  \"defaultBranchRef\": {\"name\": \"main\"},",
+        "  \"primaryLanguage\": {\"name\": \"Java\"},",
+        "  \"repositoryTopics\": {\"nodes\": [{\"topic\": {\"name\": \"gradle\"}}]},",
+        "  \"licenseInfo\": {\"id\": \"L_mit\", \"key\": \"mit\", \"name\": \"MIT License\", \"spdxId\": \"MIT\",",
+        "    \"url\": \"http://choosealicense.com/licenses/mit/\"},",
+        "  \"owner\": {\"__typename\": \"User\", \"id\": \"U_1\", \"login\": \"owner\",",
+        "    \"avatarUrl\": \"https://avatars.githubusercontent.com/u/1\", \"url\": \"https://github.com/owner\",",
+        "    \"databaseId\": 1, \"isSiteAdmin\": true},",
+        "  \"languages\": {\"edges\": [",
+        "    {\"size\": 1000, \"node\": {\"name\": \"Java\"}},",
+        "    {\"size\": 10, \"node\": {\"name\": \"Groovy\"}}",
+        "  ]}",
+        "}}}"
+    );
+
+    HttpServer server;
+
+    final AtomicReference<String> receivedAuthorization = new AtomicReference<>();
+
+    final AtomicReference<String> receivedBody = new AtomicReference<>();
+
+    @BeforeEach
+    void beforeEach() throws Throwable {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/graphql", exchange -> {
+            try {
+                receivedAuthorization.set(exchange.getRequestHeaders().getFirst(AUTHORIZATION));
+                receivedBody.set(new String(exchange.getRequestBody().readAllBytes(), UTF_8));
+
+                var bytes = RESPONSE.getBytes(UTF_8);
+                exchange.getResponseHeaders().set(CONTENT_TYPE, "application/json; charset=utf-8");
+                exchange.sendResponseHeaders(200, bytes.length);
+                exchange.getResponseBody().write(bytes);
+            } finally {
+                exchange.close();
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void afterEach() {
+        server.stop(0);
+    }
+
+    @Test
+    void graphQlUrl() {
+        assertEquals(URI.create("https://api.github.com/graphql"), getGraphQlUrl("https://api.github.com/"));
+        assertEquals(URI.create("https://ghes.local/api/graphql"), getGraphQlUrl("https://ghes.local/api/v3"));
+    }
+
+    @Test
+    void repositoryQuery() throws Throwable {
+        var apiUrl = "http://localhost:" + server.getAddress().getPort();
+        var request = createRepositoryQueryRequest(apiUrl, "owner/repo", "token");
+        var httpClient = getHttpClient(HttpClientSettings.DEFAULT);
+        var response = joinUnwrapped(sendGitHubGraphQlStreamingHttpRequestAsync(
+            httpClient,
+            request,
+            new GitHubRateLimiter(),
+            RetryPolicy.DEFAULT,
+            null
+        ));
+
+        final GitHubGraphQlUtils.RepositoryQueryResult result;
+        try (var in = openPlainHttpResponseBody(response)) {
+            result = parseRepositoryQueryResponse(apiUrl, in);
+        }
+
+        assertEquals("bearer token", receivedAuthorization.get());
+        var variables = JsonParser.parseString(receivedBody.get()).getAsJsonObject().getAsJsonObject("variables");
+        assertEquals("owner", variables.get("owner").getAsString());
+        assertEquals("repo", variables.get("name").getAsString());
+
+        var repository = GSON.fromJson(result.getRepository(), GitHubFullRepository.class);
+        assertEquals(123, repository.getId());
+        assertEquals("owner/repo", repository.getFullName());
+        assertEquals("owner", repository.getOwner().getLogin());
+        assertTrue(result.getRepository().getAsJsonObject("owner").get("site_admin").getAsBoolean());
+        assertEquals(apiUrl + "/repos/owner/repo", repository.getUrl());
+        assertEquals("https://github.com/owner/repo.git", repository.getCloneUrl());
+        assertEquals("main", repository.getDefaultBranch());
+        assertEquals(42, repository.getStargazersCount());
+        assertEquals(5, repository.getOpenIssuesCount());
+        assertEquals("MIT", requireNonNull(repository.getLicense()).getSpdxId());
+        assertThat(repository.getTopics()).containsExactly("gradle");
+
+        Map<String, Integer> languages = GSON.fromJson(
+            result.getLanguages(),
+            new TypeToken<Map<String, Integer>>() { }.getType()
+        );
+        assertThat(languages).containsExactly(
+            Map.entry("Java", 1000),
+            Map.entry("Groovy", 10)
+        );
+    }
+
+    @Test
+    void errors() {
+        var response = "{\"errors\": [{\"message\": \"Could not resolve to a Repository\"}]}";
+        var exception = assertThrows(HttpRequestException.NotRetryable.class, () ->
+            parseRepositoryQueryResponse("https://api.github.com", new ByteArrayInputStream(response.getBytes(UTF_8)))
+        );
+        assertThat(exception.getMessage()).contains("Could not resolve to a Repository");
+    }
+
+}
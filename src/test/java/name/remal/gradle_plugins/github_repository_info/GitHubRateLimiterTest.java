@@ -0,0 +1,83 @@
+package name.remal.gradle_plugins.github_repository_info;
+
+import static name.remal.gradle_plugins.github_repository_info.GitHubRateLimiter.CORE_RESOURCE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.net.http.HttpHeaders;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class GitHubRateLimiterTest {
+
+    static final String TOKEN_KEY = "token";
+
+    final AtomicLong currentTimeMillis = new AtomicLong(1_000_000);
+
+    final GitHubRateLimiter rateLimiter = new GitHubRateLimiter(currentTimeMillis::get);
+
+    @Test
+    void unknownRateLimit() {
+        assertEquals(0, rateLimiter.reserve(TOKEN_KEY, CORE_RESOURCE));
+    }
+
+    @Test
+    void enoughRemaining() {
+        rateLimiter.update(TOKEN_KEY, rateLimitHeaders(5000, 4000, 2_000));
+        assertEquals(0, rateLimiter.reserve(TOKEN_KEY, CORE_RESOURCE));
+    }
+
+    @Test
+    void lowRemainingRequestsAreSpread() {
+        rateLimiter.update(TOKEN_KEY, rateLimitHeaders(100, 2, 1_010));
+        assertEquals(0, rateLimiter.reserve(TOKEN_KEY, CORE_RESOURCE));
+        assertEquals(5_000, rateLimiter.reserve(TOKEN_KEY, CORE_RESOURCE));
+    }
+
+    @Test
+    void exhaustedRemainingWaitsForReset() {
+        rateLimiter.update(TOKEN_KEY, rateLimitHeaders(100, 0, 1_010));
+        assertEquals(11_000, rateLimiter.reserve(TOKEN_KEY, CORE_RESOURCE));
+    }
+
+    @Test
+    void exhaustedRemainingWithFarResetFails() {
+        rateLimiter.update(TOKEN_KEY, rateLimitHeaders(100, 0, 4_600));
+        assertThrows(HttpRequestException.NotRetryable.class, () -> rateLimiter.reserve(TOKEN_KEY, CORE_RESOURCE));
+    }
+
+    @Test
+    void resetWindow() {
+        rateLimiter.update(TOKEN_KEY, rateLimitHeaders(100, 0, 1_010));
+        currentTimeMillis.set(1_010_000);
+        assertEquals(0, rateLimiter.reserve(TOKEN_KEY, CORE_RESOURCE));
+    }
+
+    @Test
+    void outdatedResponseDoesNotIncreaseRemaining() {
+        rateLimiter.update(TOKEN_KEY, rateLimitHeaders(100, 0, 1_010));
+        rateLimiter.update(TOKEN_KEY, rateLimitHeaders(100, 50, 1_010));
+        assertEquals(11_000, rateLimiter.reserve(TOKEN_KEY, CORE_RESOURCE));
+    }
+
+    @Test
+    void rateLimitsAreTrackedPerToken() {
+        rateLimiter.update(TOKEN_KEY, rateLimitHeaders(100, 0, 1_010));
+        assertEquals(0, rateLimiter.reserve("other", CORE_RESOURCE));
+    }
+
+    static HttpHeaders rateLimitHeaders(long limit, long remaining, long resetAtSeconds) {
+        return HttpHeaders.of(
+            Map.of(
+                "X-RateLimit-Limit", List.of(String.valueOf(limit)),
+                "X-RateLimit-Remaining", List.of(String.valueOf(remaining)),
+                "X-RateLimit-Reset", List.of(String.valueOf(resetAtSeconds)),
+                "X-RateLimit-Resource", List.of(CORE_RESOURCE)
+            ),
+            (name, value) -> true
+        );
+    }
+
+}
@@ -1,12 +1,18 @@
 package name.remal.gradle_plugins.github_repository_info;
 
+import static name.remal.gradle_plugins.github_repository_info.GitHubRepositoryInfoPlugin.GITHUB_REPOSITORY_INFO_METRICS_REPORT_TASK_NAME;
 import static name.remal.gradle_plugins.toolkit.reflection.ReflectionUtils.packageNameOf;
 import static name.remal.gradle_plugins.toolkit.reflection.ReflectionUtils.unwrapGeneratedSubclass;
 import static name.remal.gradle_plugins.toolkit.testkit.ProjectValidations.executeAfterEvaluateActions;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.mock;
 
+import java.net.http.HttpClient.Version;
 import java.util.List;
 import java.util.Map;
 import lombok.RequiredArgsConstructor;
@@ -15,6 +21,8 @@ import name.remal.gradle_plugins.github_repository_info.info.GitHubFullRepositor
 import name.remal.gradle_plugins.github_repository_info.info.GitHubLicenseContent;
 import name.remal.gradle_plugins.toolkit.testkit.TaskValidations;
 import org.gradle.api.Project;
+import org.gradle.api.Task;
+import org.gradle.testfixtures.ProjectBuilder;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -56,6 +64,91 @@ class GitHubRepositoryInfoPluginTest {
         );
     }
 
+    @Test
+    void otherRepositoriesProvidersAreLazy() {
+        var extension = project.getExtensions().getByType(GitHubRepositoryInfoExtension.class);
+
+        var repository = extension.repository("owner/repo");
+        assertEquals("owner/repo", repository.getRepositoryFullName());
+
+        var repositories = extension.repositories(List.of("owner/repo1", "owner/repo2"));
+        assertThat(repositories).containsOnlyKeys("owner/repo1", "owner/repo2");
+    }
+
+    @Test
+    void extensionPropertiesCarryTaskDependenciesIfTaskOutputsAreUsed() {
+        var extension = project.getExtensions().getByType(GitHubRepositoryInfoExtension.class);
+        extension.getUseTaskOutputs().set(true);
+
+        var consumer = project.getTasks().register("consumer", task ->
+            task.dependsOn(extension.getRepository(), extension.getContributors())
+        ).get();
+
+        assertThat(consumer.getTaskDependencies().getDependencies(consumer))
+            .extracting(Task::getName)
+            .containsExactlyInAnyOrder(
+                "githubRepositoryInfoRepository",
+                "githubRepositoryInfoContributors"
+            );
+    }
+
+    @Test
+    void endpointTasksAreNotRegisteredByDefault() {
+        executeAfterEvaluateActions(project);
+
+        assertThat(project.getTasks().withType(AbstractRetrieveGitHubRepositoryInfoTask.class).getNames()).isEmpty();
+    }
+
+    @Test
+    void endpointTasksAreRegisteredIfTaskOutputsAreUsed() {
+        var extension = project.getExtensions().getByType(GitHubRepositoryInfoExtension.class);
+        extension.getUseTaskOutputs().set(true);
+
+        executeAfterEvaluateActions(project);
+
+        assertThat(project.getTasks().withType(AbstractRetrieveGitHubRepositoryInfoTask.class).getNames())
+            .containsExactlyInAnyOrder(
+                "githubRepositoryInfoRepository",
+                "githubRepositoryInfoLicenseFile",
+                "githubRepositoryInfoContributors",
+                "githubRepositoryInfoLanguages"
+            );
+    }
+
+    @Test
+    void metricsReportTaskIsRegisteredInRootProjectOnly() {
+        var childProject = ProjectBuilder.builder().withParent(project).build();
+        childProject.getPluginManager().apply(GitHubRepositoryInfoPlugin.class);
+
+        assertNotNull(project.getTasks().findByName(GITHUB_REPOSITORY_INFO_METRICS_REPORT_TASK_NAME));
+        assertNull(childProject.getTasks().findByName(GITHUB_REPOSITORY_INFO_METRICS_REPORT_TASK_NAME));
+    }
+
+    @Test
+    void httpVersionIsParsed() {
+        assertEquals(Version.HTTP_1_1, GitHubRepositoryInfoPlugin.parseHttpVersion("http.version", " HTTP_1_1 "));
+
+        var exception = assertThrows(IllegalArgumentException.class, () ->
+            GitHubRepositoryInfoPlugin.parseHttpVersion("http.version", "HTTP/3")
+        );
+        assertThat(exception.getMessage())
+            .contains("`http.version`")
+            .contains("`HTTP/3`")
+            .contains("HTTP_1_1, HTTP_2");
+    }
+
+    @Test
+    void httpThreadsAreParsed() {
+        assertEquals(32, GitHubRepositoryInfoPlugin.parseHttpThreads("http.threads", " 32 "));
+
+        var exception = assertThrows(IllegalArgumentException.class, () ->
+            GitHubRepositoryInfoPlugin.parseHttpThreads("http.threads", "1")
+        );
+        assertThat(exception.getMessage())
+            .contains("`http.threads`")
+            .contains("`1`");
+    }
+
     @Test
     void pluginTasksDoNotHavePropertyProblems() {
         executeAfterEvaluateActions(project);
@@ -0,0 +1,178 @@
+package name.remal.gradle_plugins.github_repository_info;
+
+import static com.google.common.net.HttpHeaders.ETAG;
+import static com.google.common.net.HttpHeaders.IF_NONE_MATCH;
+import static name.remal.gradle_plugins.github_repository_info.CompletableFutureUtils.joinUnwrapped;
+import static name.remal.gradle_plugins.github_repository_info.GitHubRestApiHttpClientUtils.sendGitHubRestApiStreamingHttpRequestAsync;
+import static name.remal.gradle_plugins.github_repository_info.HttpClientUtils.getHttpClient;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import org.jspecify.annotations.Nullable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class GitHubRestApiHttpClientUtilsTest {
+
+    final MockGitHubApiServer server = new MockGitHubApiServer();
+
+    final GitHubRateLimiter rateLimiter = new GitHubRateLimiter();
+
+    final LatencyTracker latencyTracker = new LatencyTracker();
+
+    RetryPolicy retryPolicy = RetryPolicy.DEFAULT;
+
+    {
+        server.addRepository("owner/repo");
+    }
+
+    @AfterEach
+    void afterEach() {
+        server.close();
+    }
+
+    @Test
+    void retryableResponsesAreRetriedAfterRetryAfterDelay() throws Throwable {
+        server.injectFaults(1, 503, Duration.ofSeconds(2));
+
+        var startNanos = System.nanoTime();
+        var response = send("/repos/owner/repo/languages", null);
+        var elapsed = Duration.ofNanos(System.nanoTime() - startNanos);
+
+        assertEquals(200, response.statusCode());
+        assertEquals(2, server.getRequestCount());
+        assertThat(elapsed).isGreaterThanOrEqualTo(Duration.ofSeconds(2));
+    }
+
+    @Test
+    void retriesAreLimited() {
+        retryPolicy = RetryPolicy.builder()
+            .maxRetries(2)
+            .initialBackoff(Duration.ofMillis(10))
+            .build();
+        server.injectFaults(5, 503, null);
+
+        assertThrows(HttpRequestException.Retryable.class, () ->
+            send("/repos/owner/repo/languages", null)
+        );
+        assertEquals(3, server.getRequestCount());
+    }
+
+    @Test
+    void retryAfterLongerThanMaxIsNotWaitedFor() {
+        server.injectFaults(1, 503, Duration.ofHours(1));
+
+        assertThrows(HttpRequestException.Retryable.class, () ->
+            send("/repos/owner/repo/languages", null)
+        );
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    void openCircuitBreakerFailsFast() {
+        retryPolicy = RetryPolicy.builder()
+            .maxRetries(0)
+            .circuitBreaker(new CircuitBreaker(2, Duration.ofHours(1)))
+            .build();
+        server.injectFaults(2, 503, null);
+
+        assertThrows(HttpRequestException.Retryable.class, () -> send("/repos/owner/repo", null));
+        assertThrows(HttpRequestException.Retryable.class, () -> send("/repos/owner/repo", null));
+        assertThrows(HttpRequestException.NotRetryable.class, () -> send("/repos/owner/repo", null));
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    void tooManyRequestsDoNotOpenCircuitBreaker() throws Throwable {
+        retryPolicy = RetryPolicy.builder()
+            .maxRetries(0)
+            .circuitBreaker(new CircuitBreaker(2, Duration.ofHours(1)))
+            .build();
+        server.injectFaults(2, 429, null);
+
+        assertThrows(HttpRequestException.Retryable.class, () -> send("/repos/owner/repo", null));
+        assertThrows(HttpRequestException.Retryable.class, () -> send("/repos/owner/repo", null));
+        assertEquals(200, send("/repos/owner/repo", null).statusCode());
+        assertEquals(3, server.getRequestCount());
+    }
+
+    @Test
+    void latencyOfEveryAttemptIsRecorded() throws Throwable {
+        server.setLatency(Duration.ofMillis(50));
+
+        for (int i = 0; i < LatencyTracker.MIN_SAMPLES; i++) {
+            send("/repos/owner/repo", null);
+        }
+
+        var uri = URI.create(server.getApiUrl());
+        assertThat(latencyTracker.getPercentile(uri, 50)).isGreaterThanOrEqualTo(Duration.ofMillis(50));
+    }
+
+    @Test
+    void slowAttemptIsHedged() throws Throwable {
+        retryPolicy = retryPolicy.toBuilder()
+            .hedgeDelay(Duration.ofMillis(50))
+            .build();
+        server.setLatency(Duration.ofMillis(500));
+
+        var response = send("/repos/owner/repo", null);
+
+        assertEquals(200, response.statusCode());
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    void noHedgeWhileRetryIsWaiting() throws Throwable {
+        retryPolicy = retryPolicy.toBuilder()
+            .hedgeDelay(Duration.ofMillis(100))
+            .build();
+        server.injectFaults(1, 503, Duration.ofSeconds(1));
+
+        var response = send("/repos/owner/repo", null);
+
+        assertEquals(200, response.statusCode());
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    void notFoundIsNotRetried() {
+        assertThrows(HttpRequestException.NotRetryable.class, () ->
+            send("/repos/owner/unknown", null)
+        );
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    void notModifiedIfEtagMatches() throws Throwable {
+        var response = send("/repos/owner/repo", null);
+        var etag = response.headers().firstValue(ETAG).orElseThrow();
+
+        var notModifiedResponse = send("/repos/owner/repo", etag);
+        assertEquals(304, notModifiedResponse.statusCode());
+    }
+
+
+    private HttpResponse<InputStream> send(String relativeUrl, @Nullable String etag) throws Throwable {
+        var request = HttpRequest.newBuilder(URI.create(server.getApiUrl() + relativeUrl));
+        if (etag != null) {
+            request.header(IF_NONE_MATCH, etag);
+        }
+        var response = joinUnwrapped(sendGitHubRestApiStreamingHttpRequestAsync(
+            getHttpClient(HttpClientSettings.DEFAULT),
+            request.build(),
+            rateLimiter,
+            retryPolicy,
+            latencyTracker,
+            null
+        ));
+        response.body().close();
+        return response;
+    }
+
+}
@@ -0,0 +1,63 @@
+package name.remal.gradle_plugins.github_repository_info;
+
+import static name.remal.gradle_plugins.github_repository_info.GitHubRestApiPaginationUtils.getPageNumber;
+import static name.remal.gradle_plugins.github_repository_info.GitHubRestApiPaginationUtils.parseLinkHeader;
+import static name.remal.gradle_plugins.github_repository_info.GitHubRestApiPaginationUtils.withPageNumber;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.net.URI;
+import org.junit.jupiter.api.Test;
+
+class GitHubRestApiPaginationUtilsTest {
+
+    @Test
+    void parseLinkHeaderWithAllRelations() {
+        var links = parseLinkHeader(
+            "<https://api.github.com/repositories/1/contributors?per_page=100&page=2>; rel=\"next\", "
+                + "<https://api.github.com/repositories/1/contributors?per_page=100&page=5>; rel=\"last\""
+        );
+
+        assertThat(links).containsOnlyKeys("next", "last");
+        assertEquals(
+            URI.create("https://api.github.com/repositories/1/contributors?per_page=100&page=5"),
+            links.get("last")
+        );
+    }
+
+    @Test
+    void parseEmptyLinkHeader() {
+        assertThat(parseLinkHeader(null)).isEmpty();
+        assertThat(parseLinkHeader("")).isEmpty();
+    }
+
+    @Test
+    void pageNumber() {
+        assertEquals(5, getPageNumber(URI.create("https://api.github.com/x?per_page=100&page=5")));
+        assertEquals(3, getPageNumber(URI.create("https://api.github.com/x?page=3&per_page=100")));
+        assertNull(getPageNumber(URI.create("https://api.github.com/x?per_page=100")));
+        assertNull(getPageNumber(URI.create("https://api.github.com/x")));
+    }
+
+    @Test
+    void replacePageNumber() {
+        assertEquals(
+            URI.create("https://api.github.com/x?per_page=100&page=2"),
+            withPageNumber(URI.create("https://api.github.com/x?per_page=100&page=5"), 2)
+        );
+    }
+
+    @Test
+    void addPageNumber() {
+        assertEquals(
+            URI.create("https://api.github.com/x?per_page=100&page=2"),
+            withPageNumber(URI.create("https://api.github.com/x?per_page=100"), 2)
+        );
+        assertEquals(
+            URI.create("https://api.github.com/x?page=2"),
+            withPageNumber(URI.create("https://api.github.com/x"), 2)
+        );
+    }
+
+}
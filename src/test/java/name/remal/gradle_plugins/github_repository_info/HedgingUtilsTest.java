@@ -0,0 +1,84 @@
+package name.remal.gradle_plugins.github_repository_info;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.concurrent.CompletableFuture.failedFuture;
+import static name.remal.gradle_plugins.github_repository_info.CompletableFutureUtils.joinUnwrapped;
+import static name.remal.gradle_plugins.github_repository_info.HedgingUtils.hedgeAsync;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class HedgingUtilsTest {
+
+    final AtomicInteger attempts = new AtomicInteger();
+
+    final List<Integer> discardedResults = new CopyOnWriteArrayList<>();
+
+    @Test
+    void fastTaskIsNotHedged() throws Throwable {
+        var result = hedgeAsync(
+            () -> completedFuture(attempts.incrementAndGet()),
+            Duration.ofMillis(50),
+            discardedResults::add
+        );
+
+        assertEquals(1, joinUnwrapped(result));
+        Thread.sleep(200);
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void slowTaskIsHedged() {
+        var firstAttempt = new CompletableFuture<Integer>();
+        var result = hedgeAsync(
+            () -> attempts.incrementAndGet() == 1 ? firstAttempt : completedFuture(2),
+            Duration.ofMillis(50),
+            discardedResults::add
+        );
+
+        assertEquals(2, joinUnwrapped(result));
+        assertTrue(firstAttempt.isCancelled());
+        assertThat(discardedResults).isEmpty();
+    }
+
+    @Test
+    void failedHedgeWaitsForFirstAttempt() {
+        var firstAttempt = new CompletableFuture<Integer>();
+        var hedgeFailed = new CompletableFuture<Void>();
+        var result = hedgeAsync(
+            () -> {
+                if (attempts.incrementAndGet() == 1) {
+                    return firstAttempt;
+                }
+                hedgeFailed.complete(null);
+                return failedFuture(new IllegalStateException());
+            },
+            Duration.ofMillis(50),
+            discardedResults::add
+        );
+
+        hedgeFailed.join();
+        firstAttempt.complete(1);
+        assertEquals(1, joinUnwrapped(result));
+    }
+
+    @Test
+    void failsIfAllAttemptsFail() {
+        var result = hedgeAsync(
+            () -> failedFuture(new IllegalStateException()),
+            Duration.ofMillis(50),
+            discardedResults::add
+        );
+
+        assertThrows(IllegalStateException.class, () -> joinUnwrapped(result));
+    }
+
+}
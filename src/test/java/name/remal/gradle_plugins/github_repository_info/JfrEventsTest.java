@@ -0,0 +1,115 @@
+package name.remal.gradle_plugins.github_repository_info;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static name.remal.gradle_plugins.github_repository_info.CompletableFutureUtils.joinUnwrapped;
+import static name.remal.gradle_plugins.github_repository_info.HttpClientUtils.getHttpClient;
+import static name.remal.gradle_plugins.github_repository_info.HttpClientUtils.sendHttpRequestAsync;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.file.Path;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
+import name.remal.gradle_plugins.github_repository_info.JfrEvents.CacheLookupEvent;
+import name.remal.gradle_plugins.github_repository_info.JfrEvents.FileLockEvent;
+import name.remal.gradle_plugins.github_repository_info.JfrEvents.HttpRequestEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class JfrEventsTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void eventsAreDisabledWithoutRecording() {
+        var event = new CacheLookupEvent();
+        event.begin();
+        assertFalse(event.isEnabled());
+    }
+
+    @Test
+    void fileCacheEmitsFileLockEvent() throws Throwable {
+        var cacheFile = tempDir.resolve("cache/file.json");
+        var recordingFile = tempDir.resolve("recording.jfr");
+        try (var recording = new Recording()) {
+            recording.enable(FileLockEvent.class).withoutThreshold();
+            recording.start();
+
+            new FileCache(cacheFile).setContent(out -> out.write("{}".getBytes(UTF_8)), null);
+
+            recording.stop();
+            recording.dump(recordingFile);
+        }
+
+        var events = RecordingFile.readAllEvents(recordingFile);
+        assertThat(events).singleElement().satisfies(event -> {
+            assertEquals("name.remal.github_repository_info.FileLock", event.getEventType().getName());
+            assertThat(event.getString("lockFile")).endsWith("file.json.lock");
+        });
+    }
+
+    @Test
+    void httpRequestEventHasResponseBodySize() throws Throwable {
+        var recordingFile = tempDir.resolve("recording.jfr");
+        final byte[] body;
+        try (var server = new MockGitHubApiServer(); var recording = new Recording()) {
+            server.addRepository("owner/repo");
+            recording.enable(HttpRequestEvent.class).withoutThreshold();
+            recording.start();
+
+            var request = HttpRequest.newBuilder(URI.create(server.getApiUrl() + "/repos/owner/repo")).build();
+            var response = joinUnwrapped(sendHttpRequestAsync(
+                getHttpClient(HttpClientSettings.DEFAULT),
+                request,
+                BodyHandlers.ofInputStream(),
+                RetryPolicy.DEFAULT,
+                null,
+                null,
+                null
+            ));
+            try (var in = response.body()) {
+                body = in.readAllBytes();
+            }
+
+            recording.stop();
+            recording.dump(recordingFile);
+        }
+
+        var events = RecordingFile.readAllEvents(recordingFile);
+        assertThat(events).singleElement().satisfies(event -> {
+            assertEquals(200, event.getInt("statusCode"));
+            assertEquals(body.length, event.getLong("bytes"));
+        });
+    }
+
+    @Test
+    void cacheLookupEvent() throws Throwable {
+        var recordingFile = tempDir.resolve("recording.jfr");
+        try (var recording = new Recording()) {
+            recording.enable(CacheLookupEvent.class).withoutThreshold();
+            recording.start();
+
+            var event = new CacheLookupEvent();
+            event.begin();
+            event.end("https://api.github.com/repos/owner/repo", JfrEvents.NETWORK_CACHE_LAYER, true, 123);
+
+            recording.stop();
+            recording.dump(recordingFile);
+        }
+
+        var events = RecordingFile.readAllEvents(recordingFile);
+        assertThat(events).singleElement().satisfies(event -> {
+            assertEquals("https://api.github.com/repos/owner/repo", event.getString("url"));
+            assertEquals("network", event.getString("cacheLayer"));
+            assertTrue(event.getBoolean("notModified"));
+            assertEquals(123, event.getLong("bytes"));
+        });
+    }
+
+}
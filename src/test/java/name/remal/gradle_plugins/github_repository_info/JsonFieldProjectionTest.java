@@ -0,0 +1,86 @@
+package name.remal.gradle_plugins.github_repository_info;
+
+import static java.util.Objects.requireNonNull;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.google.gson.JsonParser;
+import com.google.gson.reflect.TypeToken;
+import java.util.List;
+import java.util.Map;
+import name.remal.gradle_plugins.github_repository_info.info.GitHubContributor;
+import name.remal.gradle_plugins.github_repository_info.info.GitHubFullRepository;
+import org.junit.jupiter.api.Test;
+
+class JsonFieldProjectionTest {
+
+    static final TypeToken<Map<String, Object>> UNTYPED = new TypeToken<Map<String, Object>>() { };
+
+    @Test
+    void noFields() {
+        assertEquals(
+            "repos/owner/repo",
+            JsonFieldProjection.withRetainedFields("repos/owner/repo", UNTYPED, List.of())
+        );
+        assertNull(JsonFieldProjection.parseFromUrl("https://api.github.com/repos/owner/repo"));
+    }
+
+    @Test
+    void fieldsAreEncodedAsSortedFragment() {
+        var relativeUrl = JsonFieldProjection.withRetainedFields(
+            "repos/owner/repo",
+            TypeToken.get(GitHubFullRepository.class),
+            List.of("license.name", " html_url ", "license.name")
+        );
+        assertEquals("repos/owner/repo#type=GitHubFullRepository&fields=html_url,license.name", relativeUrl);
+        assertEquals("repos/owner/repo", JsonFieldProjection.removeProjection(relativeUrl));
+
+        var projection = requireNonNull(JsonFieldProjection.parseFromUrl("https://api.github.com/" + relativeUrl));
+        assertEquals(GitHubFullRepository.class, projection.getType());
+        assertThat(projection.getFields()).containsExactlyInAnyOrder("html_url", "license.name");
+    }
+
+    @Test
+    void elementTypeOfList() {
+        var relativeUrl = JsonFieldProjection.withRetainedFields(
+            "repos/owner/repo/contributors?per_page=100",
+            new TypeToken<List<GitHubContributor>>() { },
+            List.of("login")
+        );
+        assertEquals("repos/owner/repo/contributors?per_page=100#type=GitHubContributor&fields=login", relativeUrl);
+    }
+
+    @Test
+    void invalidField() {
+        assertThatThrownBy(() -> JsonFieldProjection.withRetainedFields("repos/owner/repo", UNTYPED, List.of("a,b")))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void untypedProjection() {
+        var projection = new JsonFieldProjection(null, List.of("a.b", "c", "c.d"));
+        var json = JsonParser.parseString("{\"a\":[{\"b\":1,\"x\":2},{\"y\":3}],\"c\":{\"d\":4,\"e\":5},\"f\":6}");
+
+        assertEquals(
+            JsonParser.parseString("{\"a\":[{\"b\":1},{}],\"c\":{\"d\":4,\"e\":5}}"),
+            projection.project(json)
+        );
+    }
+
+    @Test
+    void requiredPropertiesAreRetained() {
+        var projection = new JsonFieldProjection(GitHubFullRepository.class, List.of("html_url"));
+        var json = JsonParser.parseString(
+            "{\"id\":1,\"html_url\":\"https://github.com/owner/repo\","
+                + "\"owner\":{\"login\":\"owner\",\"unknown\":true},"
+                + "\"parent\":{\"id\":2}}"
+        );
+
+        var projected = projection.project(json).getAsJsonObject();
+        assertThat(projected.keySet()).containsExactly("id", "html_url", "owner");
+        assertThat(projected.getAsJsonObject("owner").keySet()).containsExactly("login");
+    }
+
+}
@@ -0,0 +1,132 @@
+package name.remal.gradle_plugins.github_repository_info;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static name.remal.gradle_plugins.github_repository_info.JsonUtils.concatJsonArrays;
+import static name.remal.gradle_plugins.github_repository_info.JsonUtils.readJsonBytes;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.google.gson.JsonParser;
+import com.google.gson.JsonSyntaxException;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class JsonUtilsTest {
+
+    @Test
+    void readJsonBytesReturnsContentAsIs() {
+        var content = "{ \"name\" : \"repo\", \"topics\": [\"a\", \"b\"] }\n\n".getBytes(UTF_8);
+
+        var bytes = readJsonBytes(new ByteArrayInputStream(content), UTF_8);
+
+        assertArrayEquals(content, bytes);
+    }
+
+    @Test
+    void readJsonBytesEncodesContentAsUtf8() {
+        var content = "{\"name\":\"r\u00e9po\"}";
+
+        var bytes = readJsonBytes(new ByteArrayInputStream(content.getBytes(ISO_8859_1)), ISO_8859_1);
+
+        assertArrayEquals(content.getBytes(UTF_8), bytes);
+    }
+
+    @Test
+    void readJsonBytesFailsOnMalformedContent() {
+        var content = "{\"name\":".getBytes(UTF_8);
+
+        assertThrows(JsonSyntaxException.class, () -> readJsonBytes(new ByteArrayInputStream(content), UTF_8));
+    }
+
+    @Test
+    void concatJsonArraysMergesElements() {
+        var merged = concatJsonArrays(List.of(
+            " [1, 2] ".getBytes(UTF_8),
+            "[ ]".getBytes(UTF_8),
+            "[3]\n".getBytes(UTF_8)
+        ));
+
+        assertEquals(JsonParser.parseString("[1, 2, 3]"), JsonParser.parseString(new String(merged, UTF_8)));
+    }
+
+    @Test
+    void concatJsonArraysFailsOnNonArrays() {
+        var contents = List.of("[1]".getBytes(UTF_8), "{}".getBytes(UTF_8));
+
+        assertThrows(JsonSyntaxException.class, () -> concatJsonArrays(contents));
+    }
+
+    @Test
+    void largeContentIsReadInChunks() {
+        var in = new JsonArrayInputStream(8 * 1024, 1024);
+
+        var bytes = readJsonBytes(in, UTF_8);
+
+        assertEquals(in.getSize(), bytes.length);
+        assertThat(in.maxReadBytes).isLessThanOrEqualTo(64 * 1024);
+    }
+
+
+    /**
+     * Generates a JSON array of strings on the fly, so the content is never held in memory.
+     */
+    private static class JsonArrayInputStream extends InputStream {
+
+        private final int elements;
+
+        private final byte[] element;
+
+        private long pos;
+
+        int maxReadBytes;
+
+        JsonArrayInputStream(int elements, int elementLength) {
+            this.elements = elements;
+            this.element = ('"' + "x".repeat(elementLength - 3) + "\",").getBytes(UTF_8);
+        }
+
+        long getSize() {
+            return 2L + (long) elements * element.length - 1;
+        }
+
+        @Override
+        public int read() {
+            var buffer = new byte[1];
+            return read(buffer, 0, 1) > 0 ? buffer[0] & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            maxReadBytes = max(maxReadBytes, length);
+            var size = getSize();
+            if (pos >= size) {
+                return -1;
+            }
+
+            var count = (int) min(length, size - pos);
+            for (int i = 0; i < count; i++) {
+                buffer[offset + i] = byteAt(pos + i, size);
+            }
+            pos += count;
+            return count;
+        }
+
+        private byte byteAt(long index, long size) {
+            if (index == 0) {
+                return '[';
+            } else if (index == size - 1) {
+                return ']';
+            }
+            return element[(int) ((index - 1) % element.length)];
+        }
+
+    }
+
+}
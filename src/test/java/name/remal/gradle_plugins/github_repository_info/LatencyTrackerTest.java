@@ -0,0 +1,69 @@
+package name.remal.gradle_plugins.github_repository_info;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.net.URI;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+class LatencyTrackerTest {
+
+    static final URI URI_1 = URI.create("https://api.github.com/repos/owner/repo");
+
+    static final URI URI_2 = URI.create("https://api.github.com/repos/owner/repo/languages");
+
+    static final URI OTHER_HOST_URI = URI.create("https://ghe.local/api/v3/repos/owner/repo");
+
+    final LatencyTracker latencyTracker = new LatencyTracker();
+
+    @Test
+    void unknownUntilEnoughSamples() {
+        for (int i = 1; i < LatencyTracker.MIN_SAMPLES; i++) {
+            latencyTracker.record(URI_1, Duration.ofMillis(i));
+        }
+        assertNull(latencyTracker.getPercentile(URI_1, 50));
+        assertNull(latencyTracker.getAdaptiveTimeout(URI_1));
+    }
+
+    @Test
+    void percentiles() {
+        for (int i = 1; i <= 100; i++) {
+            latencyTracker.record(URI_1, Duration.ofMillis(i));
+        }
+        assertEquals(Duration.ofMillis(50), latencyTracker.getPercentile(URI_2, 50));
+        assertEquals(Duration.ofMillis(95), latencyTracker.getPercentile(URI_2, 95));
+        assertEquals(Duration.ofMillis(100), latencyTracker.getPercentile(URI_2, 100));
+        assertNull(latencyTracker.getPercentile(OTHER_HOST_URI, 50));
+    }
+
+    @Test
+    void onlyLatestSamplesAreUsed() {
+        for (int i = 0; i < LatencyTracker.WINDOW_SIZE; i++) {
+            latencyTracker.record(URI_1, Duration.ofSeconds(10));
+        }
+        for (int i = 0; i < LatencyTracker.WINDOW_SIZE; i++) {
+            latencyTracker.record(URI_1, Duration.ofMillis(100));
+        }
+        assertEquals(Duration.ofMillis(100), latencyTracker.getPercentile(URI_1, 100));
+    }
+
+    @Test
+    void adaptiveTimeoutIsBounded() {
+        for (int i = 0; i < LatencyTracker.MIN_SAMPLES; i++) {
+            latencyTracker.record(URI_1, Duration.ofMillis(100));
+        }
+        assertEquals(Duration.ofSeconds(10), latencyTracker.getAdaptiveTimeout(URI_1));
+
+        for (int i = 0; i < LatencyTracker.WINDOW_SIZE; i++) {
+            latencyTracker.record(URI_1, Duration.ofSeconds(5));
+        }
+        assertEquals(Duration.ofSeconds(20), latencyTracker.getAdaptiveTimeout(URI_1));
+
+        for (int i = 0; i < LatencyTracker.WINDOW_SIZE; i++) {
+            latencyTracker.record(URI_1, Duration.ofMinutes(1));
+        }
+        assertEquals(Duration.ofMinutes(1), latencyTracker.getAdaptiveTimeout(URI_1));
+    }
+
+}
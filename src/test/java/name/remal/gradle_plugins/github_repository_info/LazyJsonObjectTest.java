@@ -0,0 +1,144 @@
+package name.remal.gradle_plugins.github_repository_info;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+import static name.remal.gradle_plugins.github_repository_info.GitHubApiFixtures.CONTRIBUTORS;
+import static name.remal.gradle_plugins.github_repository_info.GitHubApiFixtures.FULL_REPOSITORY;
+import static name.remal.gradle_plugins.github_repository_info.GitHubApiFixtures.loadFixtureBytes;
+import static name.remal.gradle_plugins.github_repository_info.JsonUtils.GSON;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.reflect.TypeToken;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.List;
+import java.util.Map;
+import name.remal.gradle_plugins.github_repository_info.info.GitHubContributor;
+import name.remal.gradle_plugins.github_repository_info.info.GitHubFullRepository;
+import org.junit.jupiter.api.Test;
+
+class LazyJsonObjectTest {
+
+    final byte[] fullRepositoryJson = loadFixtureBytes(FULL_REPOSITORY);
+
+    final GitHubFullRepository eagerRepository = GSON.fromJson(
+        new String(fullRepositoryJson, UTF_8),
+        GitHubFullRepository.class
+    );
+
+    final GitHubFullRepository lazyRepository = LazyJsonObject.parseLazily(
+        fullRepositoryJson,
+        TypeToken.get(GitHubFullRepository.class)
+    );
+
+    @Test
+    void isLazilyParseable() {
+        assertTrue(LazyJsonObject.isLazilyParseable(TypeToken.get(GitHubFullRepository.class)));
+        assertTrue(LazyJsonObject.isLazilyParseable(new TypeToken<List<GitHubContributor>>() { }));
+        assertFalse(LazyJsonObject.isLazilyParseable(new TypeToken<Map<String, Integer>>() { }));
+    }
+
+    @Test
+    void gettersReturnSameValuesAsEagerModel() {
+        assertEquals(eagerRepository.getId(), lazyRepository.getId());
+        assertEquals(eagerRepository.getFullName(), lazyRepository.getFullName());
+        assertEquals(eagerRepository.getDescription(), lazyRepository.getDescription());
+        assertEquals(eagerRepository.getCreatedAt(), lazyRepository.getCreatedAt());
+        assertEquals(eagerRepository.getTopics(), lazyRepository.getTopics());
+        assertEquals(eagerRepository.getOwner().getLogin(), lazyRepository.getOwner().getLogin());
+        assertEquals(
+            requireNonNull(eagerRepository.getLicense()).getSpdxId(),
+            requireNonNull(lazyRepository.getLicense()).getSpdxId()
+        );
+    }
+
+    @Test
+    void nestedObjectIsMaterializedOnce() {
+        assertSame(lazyRepository.getOwner(), lazyRepository.getOwner());
+    }
+
+    @Test
+    void equalToEagerModel() {
+        assertEquals(lazyRepository, eagerRepository);
+        assertEquals(eagerRepository.hashCode(), lazyRepository.hashCode());
+    }
+
+    @Test
+    void equalToLazyModelOfDifferentlyFormattedContent() {
+        var reformattedRepository = LazyJsonObject.parseLazily(
+            GSON.toJson(eagerRepository).getBytes(UTF_8),
+            TypeToken.get(GitHubFullRepository.class)
+        );
+        assertEquals(lazyRepository, reformattedRepository);
+        assertEquals(lazyRepository.hashCode(), reformattedRepository.hashCode());
+    }
+
+    @Test
+    void notEqualToModelOfOtherInfoType() {
+        assertNotEquals(lazyRepository, lazyRepository.getOwner());
+    }
+
+    @Test
+    void serializedToJsonAsIs() {
+        var json = GSON.toJson(lazyRepository);
+        assertEquals(eagerRepository, GSON.fromJson(json, GitHubFullRepository.class));
+    }
+
+    @Test
+    void serializedAsEagerModel() throws Throwable {
+        var bytes = new ByteArrayOutputStream();
+        try (var out = new ObjectOutputStream(bytes)) {
+            out.writeObject(lazyRepository);
+        }
+
+        try (var in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            assertEquals(eagerRepository, in.readObject());
+        }
+    }
+
+    @Test
+    void listOfInfoTypes() {
+        var contributorsJson = loadFixtureBytes(CONTRIBUTORS);
+        var eagerContributors = GSON.fromJson(
+            new String(contributorsJson, UTF_8),
+            new TypeToken<List<GitHubContributor>>() { }
+        );
+        var lazyContributors = LazyJsonObject.parseLazily(
+            contributorsJson,
+            new TypeToken<List<GitHubContributor>>() { }
+        );
+
+        assertThat(lazyContributors).hasSameSizeAs(eagerContributors);
+        assertEquals(eagerContributors.get(0).getLogin(), lazyContributors.get(0).getLogin());
+        assertInstanceOf(AbstractLazyGitHubInfoType.class, lazyContributors.get(0));
+    }
+
+    @Test
+    void absentRequiredProperty() {
+        var repository = LazyJsonObject.parseLazily(
+            "{\"id\": 1}".getBytes(UTF_8),
+            TypeToken.get(GitHubFullRepository.class)
+        );
+        assertEquals(1, repository.getId());
+        assertThatThrownBy(repository::getFullName).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void malformedContent() {
+        assertThatThrownBy(() -> LazyJsonObject.parseLazily(
+            "{\"id\": ".getBytes(UTF_8),
+            TypeToken.get(GitHubFullRepository.class)
+        )).isInstanceOf(JsonSyntaxException.class);
+    }
+
+}
@@ -0,0 +1,55 @@
+package name.remal.gradle_plugins.github_repository_info;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+class RetryPolicyTest {
+
+    final RetryPolicy retryPolicy = RetryPolicy.builder()
+        .maxRetries(10)
+        .initialBackoff(Duration.ofSeconds(1))
+        .maxBackoff(Duration.ofSeconds(30))
+        .multiplier(2)
+        .jitterFactor(0.5)
+        .maxRetryAfter(Duration.ofMinutes(1))
+        .build();
+
+    @Test
+    void backoffIsExponential() {
+        assertEquals(Duration.ofSeconds(1), retryPolicy.getDelayBeforeRetry(1, null, 0));
+        assertEquals(Duration.ofSeconds(2), retryPolicy.getDelayBeforeRetry(2, null, 0));
+        assertEquals(Duration.ofSeconds(4), retryPolicy.getDelayBeforeRetry(3, null, 0));
+        assertEquals(Duration.ofSeconds(8), retryPolicy.getDelayBeforeRetry(4, null, 0));
+    }
+
+    @Test
+    void backoffIsCapped() {
+        assertEquals(Duration.ofSeconds(30), retryPolicy.getDelayBeforeRetry(10, null, 0));
+    }
+
+    @Test
+    void jitterReducesBackoff() {
+        assertEquals(Duration.ofMillis(3_000), retryPolicy.getDelayBeforeRetry(3, null, 0.5));
+        assertEquals(Duration.ofMillis(2_000), retryPolicy.getDelayBeforeRetry(3, null, 1));
+    }
+
+    @Test
+    void retryAfterIsRespected() {
+        assertEquals(Duration.ofSeconds(20), retryPolicy.getDelayBeforeRetry(1, Duration.ofSeconds(20), 0));
+        assertEquals(Duration.ofSeconds(8), retryPolicy.getDelayBeforeRetry(4, Duration.ofSeconds(1), 0));
+    }
+
+    @Test
+    void tooLongRetryAfterStopsRetries() {
+        assertNull(retryPolicy.getDelayBeforeRetry(1, Duration.ofMinutes(5), 0));
+    }
+
+    @Test
+    void maxRetries() {
+        assertNull(retryPolicy.getDelayBeforeRetry(11, null, 0));
+    }
+
+}
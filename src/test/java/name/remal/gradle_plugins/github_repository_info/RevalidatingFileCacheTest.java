@@ -0,0 +1,178 @@
+package name.remal.gradle_plugins.github_repository_info;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.concurrent.CompletableFuture.failedFuture;
+import static name.remal.gradle_plugins.github_repository_info.JsonUtils.parseJson;
+import static name.remal.gradle_plugins.github_repository_info.JsonUtils.toJsonBytes;
+import static name.remal.gradle_plugins.github_repository_info.JsonUtils.writeJson;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import name.remal.gradle_plugins.github_repository_info.FileCache.FileCacheMetadata;
+import name.remal.gradle_plugins.github_repository_info.RevalidatingFileCache.Lookup;
+import name.remal.gradle_plugins.github_repository_info.RevalidatingFileCache.Source;
+import org.jspecify.annotations.Nullable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class RevalidatingFileCacheTest {
+
+    static final JsonElement CACHED_CONTENT = JsonParser.parseString("{\"cached\":true}");
+
+    static final JsonElement FETCHED_CONTENT = JsonParser.parseString("{\"fetched\":true}");
+
+    static final Duration MAX_AGE = Duration.ofHours(1);
+
+    @TempDir
+    Path tempDir;
+
+    FileCache fileCache;
+
+    final AtomicInteger fetches = new AtomicInteger();
+
+    @BeforeEach
+    void beforeEach() {
+        fileCache = new FileCache(tempDir.resolve("entry.json"));
+    }
+
+    @Test
+    void freshEntryIsNotFetched() {
+        createEntry(Duration.ofMinutes(1));
+
+        var lookup = getOrFetch(MAX_AGE);
+
+        assertEquals(Source.FILE, lookup.getSource());
+        assertEquals(CACHED_CONTENT, parseContent(lookup));
+        assertEquals(0, fetches.get());
+    }
+
+    @Test
+    void expiredEntryIsFetched() {
+        createEntry(Duration.ofHours(2));
+
+        var lookup = getOrFetch(MAX_AGE);
+
+        assertEquals(Source.NETWORK, lookup.getSource());
+        assertEquals(FETCHED_CONTENT, parseContent(lookup));
+        assertEquals(1, fetches.get());
+
+        var entry = requireNonNull(fileCache.getEntry(in -> parseJson(in, UTF_8)));
+        assertEquals(FETCHED_CONTENT, entry.getContent());
+    }
+
+    @Test
+    void entryUpdatedWhileFetchingIsNotOverwritten() {
+        createEntry(Duration.ofHours(2));
+
+        var lookup = newRevalidatingFileCache().getOrFetchAsync(MAX_AGE, (validators, hasCachedContent) -> {
+            var fetchedContent = newFetchedContent();
+            createEntry(Duration.ofMinutes(-1));
+            return completedFuture(fetchedContent);
+        }).join();
+
+        assertEquals(Source.NETWORK, lookup.getSource());
+        assertEquals(FETCHED_CONTENT, parseContent(lookup));
+
+        var entry = requireNonNull(fileCache.getEntry(in -> parseJson(in, UTF_8)));
+        assertEquals(CACHED_CONTENT, entry.getContent());
+    }
+
+    @Test
+    void entryIsNotLockedWhileFetching() {
+        createEntry(Duration.ofHours(2));
+
+        var lookup = newRevalidatingFileCache().getOrFetchAsync(MAX_AGE, (validators, hasCachedContent) -> {
+            // Would block forever if the entry was locked
+            var entry = requireNonNull(fileCache.getEntry(in -> parseJson(in, UTF_8)));
+            assertEquals(CACHED_CONTENT, entry.getContent());
+            return completedFuture(newFetchedContent());
+        }).join();
+
+        assertEquals(Source.NETWORK, lookup.getSource());
+    }
+
+    @Test
+    void absentEntryIsFetched() {
+        var lookup = getOrFetch(MAX_AGE);
+
+        assertEquals(Source.NETWORK, lookup.getSource());
+        assertEquals(1, fetches.get());
+    }
+
+    @Test
+    void expiredEntryIsUsedIfFetchingFailsTransiently() {
+        createEntry(Duration.ofHours(2));
+
+        var revalidatingFileCache = newRevalidatingFileCache();
+        var lookup = revalidatingFileCache.getOrFetchAsync(MAX_AGE, (validators, hasCachedContent) ->
+            failedFuture(new HttpRequestException.NotRetryable("Server error", 503))
+        ).join();
+
+        assertEquals(Source.STALE_FILE, lookup.getSource());
+        assertEquals(CACHED_CONTENT, parseContent(lookup));
+    }
+
+    @Test
+    void expiredEntryIsNotUsedIfFetchingFailsPermanently() {
+        createEntry(Duration.ofHours(2));
+
+        var revalidatingFileCache = newRevalidatingFileCache();
+        var lookupFuture = revalidatingFileCache.getOrFetchAsync(MAX_AGE, (validators, hasCachedContent) ->
+            failedFuture(new HttpRequestException.NotRetryable("Not found", 404))
+        );
+
+        assertThatThrownBy(lookupFuture::join)
+            .hasCauseInstanceOf(HttpRequestException.NotRetryable.class);
+    }
+
+    @Test
+    void entryDoesNotExpireWithoutMaxAge() {
+        createEntry(Duration.ofDays(365));
+
+        var lookup = getOrFetch(null);
+
+        assertEquals(Source.FILE, lookup.getSource());
+        assertEquals(0, fetches.get());
+    }
+
+
+    private void createEntry(Duration age) {
+        var metadata = FileCacheMetadata.builder()
+            .fetchedAtMillis(System.currentTimeMillis() - age.toMillis())
+            .build();
+        fileCache.setContent(out -> writeJson(CACHED_CONTENT, out), metadata);
+    }
+
+    private Lookup getOrFetch(@Nullable Duration maxAge) {
+        var revalidatingFileCache = newRevalidatingFileCache();
+        return revalidatingFileCache.getOrFetchAsync(maxAge, (validators, hasCachedContent) -> {
+            fetches.incrementAndGet();
+            return completedFuture(newFetchedContent());
+        }).join();
+    }
+
+    private static FetchedContent newFetchedContent() {
+        var fetchedAtMillis = System.currentTimeMillis();
+        var metadata = FileCacheMetadata.builder()
+            .fetchedAtMillis(fetchedAtMillis)
+            .build();
+        return new FetchedContent(toJsonBytes(FETCHED_CONTENT), metadata, fetchedAtMillis);
+    }
+
+    private RevalidatingFileCache newRevalidatingFileCache() {
+        return new RevalidatingFileCache(fileCache, "https://example.com/", FetchTracer.DISABLED, Runnable::run);
+    }
+
+    private static JsonElement parseContent(Lookup lookup) {
+        return JsonParser.parseString(new String(lookup.getContent().getContent(), UTF_8));
+    }
+
+}
@@ -0,0 +1,39 @@
+package name.remal.gradle_plugins.github_repository_info;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static lombok.AccessLevel.PRIVATE;
+
+import lombok.NoArgsConstructor;
+import lombok.SneakyThrows;
+
+@NoArgsConstructor(access = PRIVATE)
+abstract class GitHubApiFixtures {
+
+    public static final String FIXTURES_API_URL = "https://api.github.com";
+
+    public static final String FIXTURES_REPOSITORY_FULL_NAME = "remal-gradle-plugins/github-repository-info";
+
+    public static final String FULL_REPOSITORY = "full-repository.json";
+
+    public static final String LICENSE_CONTENT = "license-content.json";
+
+    public static final String CONTRIBUTORS = "contributors.json";
+
+    public static final String LANGUAGES = "languages.json";
+
+
+    @SneakyThrows
+    public static byte[] loadFixtureBytes(String fixtureName) {
+        try (var in = GitHubApiFixtures.class.getResourceAsStream(fixtureName)) {
+            if (in == null) {
+                throw new IllegalStateException("Fixture not found: " + fixtureName);
+            }
+            return in.readAllBytes();
+        }
+    }
+
+    public static String loadFixture(String fixtureName) {
+        return new String(loadFixtureBytes(fixtureName), UTF_8);
+    }
+
+}
@@ -0,0 +1,467 @@
+package name.remal.gradle_plugins.github_repository_info;
+
+import static com.google.common.net.HttpHeaders.ACCEPT_ENCODING;
+import static com.google.common.net.HttpHeaders.CONTENT_ENCODING;
+import static com.google.common.net.HttpHeaders.CONTENT_TYPE;
+import static com.google.common.net.HttpHeaders.ETAG;
+import static com.google.common.net.HttpHeaders.IF_MODIFIED_SINCE;
+import static com.google.common.net.HttpHeaders.IF_NONE_MATCH;
+import static com.google.common.net.HttpHeaders.LAST_MODIFIED;
+import static com.google.common.net.HttpHeaders.LINK;
+import static com.google.common.net.HttpHeaders.RETRY_AFTER;
+import static java.lang.Integer.parseInt;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.time.ZoneOffset.UTC;
+import static java.time.format.DateTimeFormatter.RFC_1123_DATE_TIME;
+import static java.time.temporal.ChronoUnit.SECONDS;
+import static name.remal.gradle_plugins.github_repository_info.GitHubApiFixtures.CONTRIBUTORS;
+import static name.remal.gradle_plugins.github_repository_info.GitHubApiFixtures.FIXTURES_API_URL;
+import static name.remal.gradle_plugins.github_repository_info.GitHubApiFixtures.FIXTURES_REPOSITORY_FULL_NAME;
+import static name.remal.gradle_plugins.github_repository_info.GitHubApiFixtures.FULL_REPOSITORY;
+import static name.remal.gradle_plugins.github_repository_info.GitHubApiFixtures.LANGUAGES;
+import static name.remal.gradle_plugins.github_repository_info.GitHubApiFixtures.LICENSE_CONTENT;
+import static name.remal.gradle_plugins.github_repository_info.GitHubApiFixtures.loadFixture;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+import lombok.SneakyThrows;
+import lombok.Value;
+import org.jspecify.annotations.Nullable;
+
+class MockGitHubApiServer implements AutoCloseable {
+
+    public static final int DEFAULT_PER_PAGE = 30;
+
+    public static final int MAX_PER_PAGE = 100;
+
+    private static final Gson GSON = new Gson();
+
+    private static final Pattern REPOSITORY_PATH = Pattern.compile(
+        "^/repos/([^/]+/[^/]+)(/license|/contributors|/languages)?/?$"
+    );
+
+    private static final Pattern QUERY_PARAM = Pattern.compile("(?:^|&)([^=&]+)=([^&]*)");
+
+
+    private final Map<String, MockRepository> repositories = new ConcurrentHashMap<>();
+
+    private final Queue<Fault> faults = new ConcurrentLinkedQueue<>();
+
+    private final Map<String, AtomicInteger> requestCounts = new ConcurrentHashMap<>();
+
+    private final AtomicInteger totalRequestCount = new AtomicInteger();
+
+    private volatile Duration latency = Duration.ZERO;
+
+    private volatile boolean etagsEnabled = true;
+
+    private volatile int rateLimit = 5_000;
+
+    private volatile Duration rateLimitWindow = Duration.ofHours(1);
+
+    private final AtomicInteger rateLimitUsed = new AtomicInteger();
+
+    private final AtomicLong rateLimitResetAtMillis = new AtomicLong();
+
+    private final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+        var thread = new Thread(runnable, MockGitHubApiServer.class.getSimpleName());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final HttpServer server;
+
+    @SneakyThrows
+    public MockGitHubApiServer() {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    public String getApiUrl() {
+        return "http://" + server.getAddress().getHostString() + ':' + server.getAddress().getPort();
+    }
+
+
+    public void addRepository(String repositoryFullName) {
+        addRepository(repositoryFullName, Integer.MAX_VALUE);
+    }
+
+    // Fixture contributors are repeated with unique logins, if more of them are needed
+    public void addRepository(String repositoryFullName, int contributorsCount) {
+        repositories.put(repositoryFullName, new MockRepository(repositoryFullName, contributorsCount));
+    }
+
+    /**
+     * Modifies the repository endpoint response, updating the {@code Last-Modified} date of the repository.
+     */
+    public void updateRepository(String repositoryFullName, Consumer<JsonObject> action) {
+        var repository = repositories.get(repositoryFullName);
+        if (repository == null) {
+            throw new IllegalArgumentException("Unknown repository: " + repositoryFullName);
+        }
+        repository.update(action);
+    }
+
+    /**
+     * Makes responses have no ETags, so only {@code Last-Modified} dates can be used for revalidation.
+     */
+    public void disableEtags() {
+        this.etagsEnabled = false;
+    }
+
+    public void setLatency(Duration latency) {
+        this.latency = latency;
+    }
+
+    public void setRateLimit(int limit, Duration window) {
+        this.rateLimit = limit;
+        this.rateLimitWindow = window;
+        this.rateLimitUsed.set(0);
+        this.rateLimitResetAtMillis.set(0);
+    }
+
+    public void injectFaults(int count, int statusCode, @Nullable Duration retryAfter) {
+        for (int i = 0; i < count; i++) {
+            faults.add(new Fault(statusCode, retryAfter));
+        }
+    }
+
+    public int getRequestCount() {
+        return totalRequestCount.get();
+    }
+
+    public int getRequestCount(String path) {
+        var count = requestCounts.get(path);
+        return count != null ? count.get() : 0;
+    }
+
+
+    @SneakyThrows
+    private void handle(HttpExchange exchange) {
+        try {
+            var path = exchange.getRequestURI().getRawPath();
+            totalRequestCount.incrementAndGet();
+            requestCounts.computeIfAbsent(path, __ -> new AtomicInteger()).incrementAndGet();
+
+            var latency = this.latency;
+            if (!latency.isZero()) {
+                Thread.sleep(latency.toMillis());
+            }
+
+            if (!addRateLimitHeaders(exchange)) {
+                sendError(exchange, 403, "API rate limit exceeded");
+                return;
+            }
+
+            var fault = faults.poll();
+            if (fault != null) {
+                if (fault.getRetryAfter() != null) {
+                    exchange.getResponseHeaders().set(
+                        RETRY_AFTER,
+                        String.valueOf(fault.getRetryAfter().toSeconds())
+                    );
+                }
+                sendError(exchange, fault.getStatusCode(), "Injected fault");
+                return;
+            }
+
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                sendError(exchange, 405, "Method Not Allowed");
+                return;
+            }
+
+            var matcher = REPOSITORY_PATH.matcher(path);
+            var repository = matcher.matches() ? repositories.get(matcher.group(1)) : null;
+            if (repository == null) {
+                sendError(exchange, 404, "Not Found");
+                return;
+            }
+
+            var endpoint = matcher.group(2);
+            var lastModified = repository.getLastModified();
+            if (endpoint == null) {
+                sendJson(exchange, repository.getRepository(), lastModified);
+            } else if (endpoint.equals("/license")) {
+                sendJson(exchange, repository.getLicenseContent(), lastModified);
+            } else if (endpoint.equals("/languages")) {
+                sendJson(exchange, repository.getLanguages(), lastModified);
+            } else {
+                sendPage(exchange, path, repository.getContributors(), lastModified);
+            }
+
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private boolean addRateLimitHeaders(HttpExchange exchange) {
+        var now = System.currentTimeMillis();
+        var resetAtMillis = rateLimitResetAtMillis.updateAndGet(current -> {
+            if (current > now) {
+                return current;
+            }
+            rateLimitUsed.set(0);
+            return now + rateLimitWindow.toMillis();
+        });
+
+        var limit = rateLimit;
+        var used = rateLimitUsed.incrementAndGet();
+        var headers = exchange.getResponseHeaders();
+        headers.set("X-RateLimit-Limit", String.valueOf(limit));
+        headers.set("X-RateLimit-Remaining", String.valueOf(max(limit - used, 0)));
+        headers.set("X-RateLimit-Used", String.valueOf(min(used, limit)));
+        headers.set("X-RateLimit-Reset", String.valueOf((resetAtMillis + 999) / 1000));
+        headers.set("X-RateLimit-Resource", "core");
+        return used <= limit;
+    }
+
+    private void sendPage(HttpExchange exchange, String path, JsonArray items, Instant lastModified) {
+        var query = exchange.getRequestURI().getRawQuery();
+        var perPage = min(max(getQueryParam(query, "per_page", DEFAULT_PER_PAGE), 1), MAX_PER_PAGE);
+        var page = max(getQueryParam(query, "page", 1), 1);
+        var lastPage = max((items.size() + perPage - 1) / perPage, 1);
+
+        var pageItems = new JsonArray();
+        for (int i = (page - 1) * perPage; i < min(page * perPage, items.size()); i++) {
+            pageItems.add(items.get(i));
+        }
+
+        if (lastPage > 1) {
+            var pageUrlPrefix = getApiUrl() + path + "?per_page=" + perPage + "&page=";
+            List<String> links = new ArrayList<>();
+            if (page > 1) {
+                links.add('<' + pageUrlPrefix + (page - 1) + ">; rel=\"prev\"");
+            }
+            if (page < lastPage) {
+                links.add('<' + pageUrlPrefix + (page + 1) + ">; rel=\"next\"");
+                links.add('<' + pageUrlPrefix + lastPage + ">; rel=\"last\"");
+            }
+            if (page > 1) {
+                links.add('<' + pageUrlPrefix + 1 + ">; rel=\"first\"");
+            }
+            exchange.getResponseHeaders().set(LINK, String.join(", ", links));
+        }
+
+        sendJson(exchange, pageItems, lastModified);
+    }
+
+    @SneakyThrows
+    private void sendJson(HttpExchange exchange, JsonElement json, Instant lastModified) {
+        var content = GSON.toJson(json).getBytes(UTF_8);
+        var digest = MessageDigest.getInstance("SHA-256").digest(content);
+        var etag = "W/\"" + new BigInteger(1, digest).toString(16) + '"';
+
+        var headers = exchange.getResponseHeaders();
+        if (etagsEnabled) {
+            headers.set(ETAG, etag);
+        }
+        headers.set(LAST_MODIFIED, RFC_1123_DATE_TIME.format(lastModified.atZone(UTC)));
+        headers.set(CONTENT_TYPE, "application/json; charset=utf-8");
+
+        if (isNotModified(exchange, etag, lastModified)) {
+            exchange.sendResponseHeaders(304, -1);
+            return;
+        }
+
+        var acceptEncoding = exchange.getRequestHeaders().getFirst(ACCEPT_ENCODING);
+        if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            var compressed = new ByteArrayOutputStream();
+            try (var gzipOut = new GZIPOutputStream(compressed)) {
+                gzipOut.write(content);
+            }
+            content = compressed.toByteArray();
+            headers.set(CONTENT_ENCODING, "gzip");
+        }
+
+        exchange.sendResponseHeaders(200, content.length);
+        exchange.getResponseBody().write(content);
+    }
+
+    /**
+     * {@code If-Modified-Since} is ignored if {@code If-None-Match} is sent, like RFC 9110 requires.
+     */
+    private boolean isNotModified(HttpExchange exchange, String etag, Instant lastModified) {
+        var requestHeaders = exchange.getRequestHeaders();
+        var ifNoneMatch = requestHeaders.getFirst(IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            return etagsEnabled && etag.equals(ifNoneMatch);
+        }
+
+        var ifModifiedSince = requestHeaders.getFirst(IF_MODIFIED_SINCE);
+        if (ifModifiedSince != null) {
+            try {
+                var since = ZonedDateTime.parse(ifModifiedSince, RFC_1123_DATE_TIME).toInstant();
+                return !lastModified.isAfter(since);
+            } catch (DateTimeParseException ignored) {
+                return false;
+            }
+        }
+
+        return false;
+    }
+
+    @SneakyThrows
+    private static void sendError(HttpExchange exchange, int statusCode, String message) {
+        var json = new JsonObject();
+        json.addProperty("message", message);
+        json.addProperty("documentation_url", "https://docs.github.com/rest");
+        json.addProperty("status", String.valueOf(statusCode));
+        var content = GSON.toJson(json).getBytes(UTF_8);
+
+        exchange.getResponseHeaders().set(CONTENT_TYPE, "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(statusCode, content.length);
+        exchange.getResponseBody().write(content);
+    }
+
+    private static int getQueryParam(@Nullable String query, String name, int defaultValue) {
+        if (query == null) {
+            return defaultValue;
+        }
+
+        var matcher = QUERY_PARAM.matcher(query);
+        while (matcher.find()) {
+            if (matcher.group(1).equals(name)) {
+                try {
+                    return parseInt(matcher.group(2));
+                } catch (NumberFormatException ignored) {
+                    return defaultValue;
+                }
+            }
+        }
+        return defaultValue;
+    }
+
+
+    @Value
+    private static class Fault {
+        int statusCode;
+        @Nullable
+        Duration retryAfter;
+    }
+
+    private class MockRepository {
+
+        private final String fullName;
+
+        private final int contributorsCount;
+
+        @Nullable
+        private JsonObject repository;
+
+        @Nullable
+        private JsonObject licenseContent;
+
+        @Nullable
+        private JsonArray contributors;
+
+        @Nullable
+        private JsonObject languages;
+
+        private Instant lastModified = Instant.now().truncatedTo(SECONDS);
+
+        MockRepository(String fullName, int contributorsCount) {
+            this.fullName = fullName;
+            this.contributorsCount = contributorsCount;
+        }
+
+        public synchronized Instant getLastModified() {
+            return lastModified;
+        }
+
+        /**
+         * {@code Last-Modified} dates have a precision of seconds, so the date is moved by at least a second.
+         */
+        public synchronized void update(Consumer<JsonObject> action) {
+            action.accept(getRepository());
+            var now = Instant.now().truncatedTo(SECONDS);
+            lastModified = now.isAfter(lastModified) ? now : lastModified.plusSeconds(1);
+        }
+
+        public synchronized JsonObject getRepository() {
+            if (repository == null) {
+                var json = loadRepositoryFixture(FULL_REPOSITORY).getAsJsonObject();
+                json.addProperty("name", fullName.substring(fullName.indexOf('/') + 1));
+                json.getAsJsonObject("owner").addProperty("login", fullName.substring(0, fullName.indexOf('/')));
+                repository = json;
+            }
+            return repository;
+        }
+
+        public synchronized JsonObject getLicenseContent() {
+            if (licenseContent == null) {
+                licenseContent = loadRepositoryFixture(LICENSE_CONTENT).getAsJsonObject();
+            }
+            return licenseContent;
+        }
+
+        public synchronized JsonArray getContributors() {
+            if (contributors == null) {
+                var fixture = loadRepositoryFixture(CONTRIBUTORS).getAsJsonArray();
+                var count = contributorsCount == Integer.MAX_VALUE ? fixture.size() : contributorsCount;
+                var json = new JsonArray();
+                for (int i = 0; i < count; i++) {
+                    var contributor = fixture.get(i % fixture.size()).getAsJsonObject().deepCopy();
+                    if (i >= fixture.size()) {
+                        contributor.addProperty("login", contributor.get("login").getAsString() + '-' + i);
+                    }
+                    json.add(contributor);
+                }
+                contributors = json;
+            }
+            return contributors;
+        }
+
+        public synchronized JsonObject getLanguages() {
+            if (languages == null) {
+                languages = loadRepositoryFixture(LANGUAGES).getAsJsonObject();
+            }
+            return languages;
+        }
+
+        private JsonElement loadRepositoryFixture(String fixtureName) {
+            var content = loadFixture(fixtureName)
+                .replace(FIXTURES_API_URL, getApiUrl())
+                .replace(FIXTURES_REPOSITORY_FULL_NAME, fullName);
+            return JsonParser.parseString(content);
+        }
+
+    }
+
+}